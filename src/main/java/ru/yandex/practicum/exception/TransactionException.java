@@ -0,0 +1,10 @@
+package ru.yandex.practicum.exception;
+
+/**
+ * Исключение при невозможности выполнить операцию транзакции. Транзакция при этом отменяется целиком
+ */
+public class TransactionException extends RuntimeException {
+    public TransactionException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,196 @@
+package ru.yandex.practicum.manager.history;
+
+import ru.yandex.practicum.model.Task;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Потокобезопасный менеджер истории просмотров, не блокирующий просматривающие потоки.
+ * Просмотр ({@link #add(Task)}) и удаление ({@link #remove(int)}) только записывают событие с отметкой времени
+ * {@link System#nanoTime()} в один из нескольких буферов (буфер выбирается по потоку, поэтому потоки почти
+ * не конкурируют друг с другом, а общего счетчика событий нет). События переносятся в упорядоченную историю
+ * ({@link InMemoryHistoryManager}) пакетами одним потоком под блокировкой: при заполнении буфера
+ * (если блокировка свободна) и при {@link #getHistory()}.
+ * <p>
+ * События применяются в порядке отметок времени. Отметка берется под блокировкой буфера, поэтому перенос
+ * событий, взятых раньше начала переноса, не пропускает ни одного из них: события одного потока и события,
+ * упорядоченные синхронизацией между потоками, попадают в историю в порядке вызовов, как у
+ * {@link InMemoryHistoryManager}. Порядок одновременных вызовов из разных потоков не определен.
+ */
+public class ConcurrentHistoryManager implements HistoryManager {
+    /**
+     * Количество событий в буфере, после которого добавляющий поток пытается перенести события в историю
+     */
+    private static final int DRAIN_INTERVAL = 64;
+
+    /**
+     * Событие истории: просмотр задачи или удаление задачи из истории
+     *
+     * @param time      Отметка времени события ({@link System#nanoTime()})
+     * @param stripe    Номер буфера
+     * @param position  Порядковый номер события в буфере
+     * @param task      Просмотренная задача (null для удаления)
+     * @param removedId Идентификатор удаляемой задачи
+     */
+    private record Event(long time, int stripe, long position, Task task, int removedId) {
+    }
+
+    /**
+     * Порядок событий: по отметке времени, при равных отметках - по буферу и порядку в буфере
+     */
+    private static final Comparator<Event> ORDER = (first, second) -> {
+        if (first.time() != second.time()) {
+            return Long.compare(first.time(), second.time());
+        }
+        if (first.stripe() != second.stripe()) {
+            return Integer.compare(first.stripe(), second.stripe());
+        }
+        return Long.compare(first.position(), second.position());
+    };
+
+    /**
+     * Буфер событий, еще не перенесенных в историю. Используется под блокировкой самого буфера
+     */
+    private static final class Stripe {
+        private List<Event> events = new ArrayList<>();
+
+        /**
+         * Количество событий, записанных в буфер
+         */
+        private long recorded = 0;
+    }
+
+    /**
+     * Буферы событий
+     */
+    private final Stripe[] stripes;
+
+    /**
+     * Блокировка переноса событий в историю
+     */
+    private final ReentrantLock drainLock = new ReentrantLock();
+
+    /**
+     * Перенесенные из буферов события, которые еще нельзя применить: в других буферах могут появиться
+     * события с меньшей отметкой времени. Используется только под {@link #drainLock}
+     */
+    private List<Event> reorderBuffer = new ArrayList<>();
+
+    /**
+     * Упорядоченная история. Используется только под {@link #drainLock}
+     */
+    private final HistoryManager history;
+
+    public ConcurrentHistoryManager() {
+        this(new InMemoryHistoryManager());
+    }
+
+    /**
+     * @param history Упорядоченная история, в которую переносятся события (используется одним потоком)
+     */
+    public ConcurrentHistoryManager(HistoryManager history) {
+        this.history = history;
+        int stripeCount = Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors() * 2 - 1)) << 1;
+        stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    @Override
+    public void add(Task task) {
+        record(task, 0);
+    }
+
+    @Override
+    public void remove(int id) {
+        record(null, id);
+    }
+
+    @Override
+    public List<Task> getHistory() {
+        drainLock.lock();
+        try {
+            // учитываются все события, записанные до вызова
+            drain();
+            return history.getHistory();
+        } finally {
+            drainLock.unlock();
+        }
+    }
+
+    private void record(Task task, int removedId) {
+        int index = stripe();
+        Stripe stripe = stripes[index];
+        boolean full;
+        synchronized (stripe) {
+            stripe.events.add(new Event(System.nanoTime(), index, stripe.recorded++, task, removedId));
+            full = stripe.events.size() >= DRAIN_INTERVAL;
+        }
+        if (full && drainLock.tryLock()) {
+            try {
+                drain();
+            } finally {
+                drainLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Перенести события из буферов в историю в порядке отметок времени. Выполняется под {@link #drainLock}
+     *
+     * @implNote Применяются только события с отметкой меньше границы, взятой до переноса: событие, записанное
+     * в буфер после его переноса, получает отметку не меньше границы и будет применено при следующем переносе
+     */
+    private void drain() {
+        long watermark = nextNanoTime();
+        for (Stripe stripe : stripes) {
+            List<Event> events;
+            synchronized (stripe) {
+                if (stripe.events.isEmpty()) {
+                    continue;
+                }
+                events = stripe.events;
+                stripe.events = new ArrayList<>();
+            }
+            reorderBuffer.addAll(events);
+        }
+        // события каждого буфера уже упорядочены, поэтому сортировка сливает готовые последовательности
+        reorderBuffer.sort(ORDER);
+        int applied = 0;
+        while (applied < reorderBuffer.size() && reorderBuffer.get(applied).time() < watermark) {
+            Event event = reorderBuffer.get(applied++);
+            if (event.task() != null) {
+                history.add(event.task());
+            } else {
+                history.remove(event.removedId());
+            }
+        }
+        if (applied == reorderBuffer.size()) {
+            reorderBuffer.clear();
+        } else if (applied > 0) {
+            reorderBuffer = new ArrayList<>(reorderBuffer.subList(applied, reorderBuffer.size()));
+        }
+    }
+
+    /**
+     * Получить отметку времени, строго большую отметок всех событий, записанных до вызова
+     */
+    private static long nextNanoTime() {
+        long start = System.nanoTime();
+        long now;
+        while ((now = System.nanoTime()) == start) {
+            Thread.onSpinWait();
+        }
+        return now;
+    }
+
+    private int stripe() {
+        long id = Thread.currentThread().getId();
+        int hash = (int) (id ^ (id >>> 32)) * 0x9E3779B9;
+        return (hash >>> 16) & (stripes.length - 1);
+    }
+}
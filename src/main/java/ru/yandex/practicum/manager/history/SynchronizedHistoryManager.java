@@ -0,0 +1,31 @@
+package ru.yandex.practicum.manager.history;
+
+import ru.yandex.practicum.model.Task;
+
+import java.util.List;
+
+/**
+ * Потокобезопасная обертка над менеджером истории просмотров: все методы выполняются под общей блокировкой
+ */
+public class SynchronizedHistoryManager implements HistoryManager {
+    private final HistoryManager delegate;
+
+    public SynchronizedHistoryManager(HistoryManager delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public synchronized void add(Task task) {
+        delegate.add(task);
+    }
+
+    @Override
+    public synchronized void remove(int id) {
+        delegate.remove(id);
+    }
+
+    @Override
+    public synchronized List<Task> getHistory() {
+        return delegate.getHistory();
+    }
+}
@@ -0,0 +1,34 @@
+package ru.yandex.practicum.manager.id;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Потокобезопасный источник последовательных идентификаторов (начиная с 0) без блокировок
+ */
+public class AtomicIdAllocator implements IdAllocator {
+    /**
+     * Значение для следующего идентификатора
+     */
+    private final AtomicInteger nextId;
+
+    public AtomicIdAllocator() {
+        this(0);
+    }
+
+    /**
+     * @param firstId Первый выдаваемый идентификатор
+     */
+    public AtomicIdAllocator(int firstId) {
+        nextId = new AtomicInteger(firstId);
+    }
+
+    @Override
+    public int next() {
+        return nextId.getAndIncrement();
+    }
+
+    @Override
+    public void reserve(int id) {
+        nextId.accumulateAndGet(id + 1, Math::max);
+    }
+}
@@ -0,0 +1,17 @@
+package ru.yandex.practicum.manager.id;
+
+/**
+ * Источник идентификаторов задач для менеджеров задач
+ */
+public interface IdAllocator {
+    /**
+     * Получить следующий свободный идентификатор
+     */
+    int next();
+
+    /**
+     * Учесть идентификатор, уже занятый задачей (например, загруженной из файла),
+     * чтобы следующие идентификаторы его не повторяли
+     */
+    void reserve(int id);
+}
@@ -0,0 +1,172 @@
+package ru.yandex.practicum.manager.id;
+
+import ru.yandex.practicum.exception.ManagerSaveException;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Источник идентификаторов, выдающий их блоками из общего счетчика в файле.
+ * Экземпляр получает (арендует) из счетчика блок из {@link #getBlockSize()} идентификаторов под блокировкой файла
+ * ({@link FileChannel#lock()}) и выдает идентификаторы блока без блокировок. Поэтому несколько процессов
+ * (или менеджеров одного процесса) с общим файлом счетчика выдают неповторяющиеся идентификаторы,
+ * обращаясь к файлу только раз в блок.
+ * <p>
+ * Идентификаторы блока, не выданные до завершения работы, не используются повторно: идентификаторы уникальны,
+ * но не обязательно идут подряд.
+ */
+public class LeasingIdAllocator implements IdAllocator {
+    /**
+     * Размер блока идентификаторов по-умолчанию
+     */
+    public static final int defaultBlockSize = 1024;
+
+    /**
+     * Блокировки файлов счетчиков внутри процесса: блокировка файла {@link FileLock} принадлежит всему процессу
+     * и не разграничивает потоки, а повторная блокировка того же файла в процессе приводит к исключению
+     */
+    private static final ConcurrentHashMap<Path, Object> FILE_MONITORS = new ConcurrentHashMap<>();
+
+    /**
+     * Файл со значением общего счетчика - первым идентификатором, еще не выданным ни в один блок
+     */
+    private final Path counterFile;
+
+    private final int blockSize;
+
+    /**
+     * Текущий блок: старшие 32 бита - граница блока (не включая), младшие - следующий идентификатор блока.
+     * Обе части меняются одной операцией compare-and-set
+     */
+    private final AtomicLong block = new AtomicLong(pack(0, 0));
+
+    /**
+     * Минимальное значение начала следующего блока с учетом {@link #reserve(int)}
+     */
+    private final AtomicInteger floor = new AtomicInteger(0);
+
+    /**
+     * Количество блоков, полученных из файла
+     */
+    private final AtomicInteger leases = new AtomicInteger(0);
+
+    public LeasingIdAllocator(File counterFile) {
+        this(counterFile, defaultBlockSize);
+    }
+
+    /**
+     * @param counterFile Файл общего счетчика (создается при первом обращении)
+     * @param blockSize   Количество идентификаторов, получаемых из счетчика за одно обращение к файлу
+     */
+    public LeasingIdAllocator(File counterFile, int blockSize) {
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("Размер блока должен быть положительным: " + blockSize);
+        }
+        this.counterFile = counterFile.toPath().toAbsolutePath().normalize();
+        this.blockSize = blockSize;
+    }
+
+    @Override
+    public int next() {
+        while (true) {
+            long state = block.get();
+            int next = (int) state;
+            int limit = (int) (state >>> 32);
+            if (next < limit) {
+                if (block.compareAndSet(state, pack(next + 1, limit))) {
+                    return next;
+                }
+            } else {
+                lease(state);
+            }
+        }
+    }
+
+    @Override
+    public void reserve(int id) {
+        floor.accumulateAndGet(id + 1, Math::max);
+        while (true) {
+            long state = block.get();
+            int next = (int) state;
+            int limit = (int) (state >>> 32);
+            // идентификатор из текущего блока - пропускаем идентификаторы блока до него включительно
+            if (id < next || id >= limit || block.compareAndSet(state, pack(id + 1, limit))) {
+                return;
+            }
+        }
+    }
+
+    public int getBlockSize() {
+        return blockSize;
+    }
+
+    /**
+     * Получить количество блоков, полученных из файла
+     */
+    public int getLeases() {
+        return leases.get();
+    }
+
+    /**
+     * Получить новый блок, если текущий блок не был заменен другим потоком
+     *
+     * @param exhausted Состояние исчерпанного блока
+     */
+    private synchronized void lease(long exhausted) {
+        if (block.get() != exhausted) {
+            return;
+        }
+        int start = leaseFromFile();
+        block.set(pack(start, start + blockSize));
+        leases.incrementAndGet();
+    }
+
+    /**
+     * Получить начало нового блока из файла счетчика и сдвинуть счетчик на размер блока
+     */
+    private int leaseFromFile() {
+        synchronized (FILE_MONITORS.computeIfAbsent(counterFile, path -> new Object())) {
+            try (FileChannel channel = FileChannel.open(counterFile,
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                // блокировка файла исключает одновременную выдачу блока другим процессом
+                FileLock lock = channel.lock();
+                try {
+                    ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES);
+                    long counter = 0;
+                    if (channel.size() >= Long.BYTES) {
+                        while (buffer.hasRemaining()) {
+                            channel.read(buffer, buffer.position());
+                        }
+                        counter = buffer.flip().getLong();
+                    }
+                    long start = Math.max(counter, floor.get());
+                    if (start + blockSize > Integer.MAX_VALUE) {
+                        throw new IllegalStateException("Идентификаторы исчерпаны: " + counterFile);
+                    }
+                    buffer.clear().putLong(start + blockSize).flip();
+                    while (buffer.hasRemaining()) {
+                        channel.write(buffer, buffer.position());
+                    }
+                    channel.force(false);
+                    return (int) start;
+                } finally {
+                    lock.release();
+                }
+            } catch (IOException e) {
+                throw new ManagerSaveException("Не удалось получить блок идентификаторов из " + counterFile, e);
+            }
+        }
+    }
+
+    private static long pack(int next, int limit) {
+        return ((long) limit << 32) | (next & 0xFFFFFFFFL);
+    }
+}
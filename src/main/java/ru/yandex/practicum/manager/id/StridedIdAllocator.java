@@ -0,0 +1,47 @@
+package ru.yandex.practicum.manager.id;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Потокобезопасный источник идентификаторов с шагом: offset, offset + stride, offset + 2 * stride, ...
+ * Несколько источников с одинаковым шагом и разными смещениями выдают непересекающиеся идентификаторы,
+ * а по идентификатору можно определить выдавший его источник: {@code id % stride == offset}.
+ */
+public class StridedIdAllocator implements IdAllocator {
+    private final int offset;
+
+    private final int stride;
+
+    /**
+     * Значение для следующего идентификатора
+     */
+    private final AtomicInteger nextId;
+
+    /**
+     * @param offset Первый идентификатор (0 <= offset < stride)
+     * @param stride Шаг
+     */
+    public StridedIdAllocator(int offset, int stride) {
+        if (stride <= 0 || offset < 0 || offset >= stride) {
+            throw new IllegalArgumentException("Некорректные смещение " + offset + " и шаг " + stride);
+        }
+        this.offset = offset;
+        this.stride = stride;
+        nextId = new AtomicInteger(offset);
+    }
+
+    @Override
+    public int next() {
+        return nextId.getAndAdd(stride);
+    }
+
+    /**
+     * Учесть идентификатор: следующим будет наименьший идентификатор этого источника, больший указанного
+     */
+    @Override
+    public void reserve(int id) {
+        int remainder = Math.floorMod(id + 1 - offset, stride);
+        int candidate = remainder == 0 ? id + 1 : id + 1 + stride - remainder;
+        nextId.accumulateAndGet(candidate, Math::max);
+    }
+}
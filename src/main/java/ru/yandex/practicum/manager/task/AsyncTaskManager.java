@@ -0,0 +1,243 @@
+package ru.yandex.practicum.manager.task;
+
+import ru.yandex.practicum.model.Epic;
+import ru.yandex.practicum.model.Subtask;
+import ru.yandex.practicum.model.Task;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Асинхронный фасад для менеджера задач: методы возвращают {@link CompletableFuture} и выполняются в пуле потоков.
+ * <p>
+ * Операции над одной сущностью выполняются в порядке вызова: каждая операция с задачей, эпиком или подзадачей
+ * начинается после завершения предыдущей операции с той же сущностью (добавление подзадачи упорядочивается
+ * с операциями её эпика). Операции над разными сущностями и операции над всеми задачами сразу
+ * (получение списков, очистка) выполняются параллельно, поэтому менеджер задач должен быть потокобезопасным
+ * ({@link ConcurrentTaskManager}, {@link SnapshotTaskManager}, {@link FileBackedTaskManager} и его наследники).
+ * <p>
+ * Для {@link WriteBehindTaskManager} результат изменения завершается после записи изменения на диск, но следующая
+ * операция над сущностью начинается сразу после изменения в памяти - запись на диск идет конвейером.
+ * Результат чтения записи на диск не ждет.
+ * <p>
+ * Пул потоков по-умолчанию - виртуальные потоки (поток на операцию), если они доступны в текущей версии Java,
+ * иначе - расширяемый пул потоков-демонов.
+ */
+public class AsyncTaskManager implements AutoCloseable {
+    private final TaskManager taskManager;
+
+    private final ExecutorService executor;
+
+    /**
+     * Пул создан фасадом и останавливается в {@link #close()}
+     */
+    private final boolean ownsExecutor;
+
+    /**
+     * Последние операции над сущностями по идентификатору сущности
+     * (идентификаторы задач, эпиков и подзадач выдаются из одного источника и не пересекаются)
+     */
+    private final ConcurrentHashMap<Integer, CompletableFuture<?>> tails = new ConcurrentHashMap<>();
+
+    /**
+     * Конструктор
+     *
+     * @param taskManager - потокобезопасный менеджер задач
+     */
+    public AsyncTaskManager(TaskManager taskManager) {
+        this(taskManager, newDefaultExecutor(), true);
+    }
+
+    /**
+     * Конструктор
+     *
+     * @param taskManager - потокобезопасный менеджер задач
+     * @param executor - пул потоков для выполнения операций (не останавливается в {@link #close()})
+     */
+    public AsyncTaskManager(TaskManager taskManager, ExecutorService executor) {
+        this(taskManager, executor, false);
+    }
+
+    private AsyncTaskManager(TaskManager taskManager, ExecutorService executor, boolean ownsExecutor) {
+        this.taskManager = taskManager;
+        this.executor = executor;
+        this.ownsExecutor = ownsExecutor;
+    }
+
+    /**
+     * Создать пул потоков по-умолчанию: виртуальные потоки, если доступны, иначе расширяемый пул потоков-демонов
+     */
+    public static ExecutorService newDefaultExecutor() {
+        try {
+            // метод появился в Java 21, поэтому вызывается через reflection
+            Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) method.invoke(null);
+        } catch (ReflectiveOperationException | UnsupportedOperationException e) {
+            return Executors.newCachedThreadPool(runnable -> {
+                Thread thread = new Thread(runnable, "async-task-manager");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    public TaskManager getTaskManager() {
+        return taskManager;
+    }
+
+    public CompletableFuture<List<Task>> getTasks() {
+        return submit(null, taskManager::getTasks);
+    }
+
+    public CompletableFuture<Void> clearTasks() {
+        return submitChange(null, () -> {
+            taskManager.clearTasks();
+            return null;
+        });
+    }
+
+    public CompletableFuture<Task> getTask(int id) {
+        return submit(id, () -> taskManager.getTask(id));
+    }
+
+    public CompletableFuture<Integer> addTask(Task task) {
+        return submitChange(null, () -> taskManager.addTask(task));
+    }
+
+    public CompletableFuture<Boolean> updateTask(Task task) {
+        return submitChange(task.getId(), () -> taskManager.updateTask(task));
+    }
+
+    public CompletableFuture<UpdateResult> compareAndUpdateTask(Task task) {
+        return submitChange(task.getId(), () -> taskManager.compareAndUpdateTask(task));
+    }
+
+    public CompletableFuture<Boolean> removeTask(int id) {
+        return submitChange(id, () -> taskManager.removeTask(id));
+    }
+
+    public CompletableFuture<List<Epic>> getEpics() {
+        return submit(null, taskManager::getEpics);
+    }
+
+    public CompletableFuture<Void> clearEpics() {
+        return submitChange(null, () -> {
+            taskManager.clearEpics();
+            return null;
+        });
+    }
+
+    public CompletableFuture<Epic> getEpic(int id) {
+        return submit(id, () -> taskManager.getEpic(id));
+    }
+
+    public CompletableFuture<Integer> addEpic(Epic epic) {
+        return submitChange(null, () -> taskManager.addEpic(epic));
+    }
+
+    public CompletableFuture<Boolean> updateEpic(Epic epic) {
+        return submitChange(epic.getId(), () -> taskManager.updateEpic(epic));
+    }
+
+    public CompletableFuture<UpdateResult> compareAndUpdateEpic(Epic epic) {
+        return submitChange(epic.getId(), () -> taskManager.compareAndUpdateEpic(epic));
+    }
+
+    public CompletableFuture<List<Subtask>> getEpicSubtasks(int id) {
+        return submit(id, () -> taskManager.getEpicSubtasks(id));
+    }
+
+    public CompletableFuture<Boolean> removeEpic(int id) {
+        return submitChange(id, () -> taskManager.removeEpic(id));
+    }
+
+    public CompletableFuture<List<Subtask>> getSubtasks() {
+        return submit(null, taskManager::getSubtasks);
+    }
+
+    public CompletableFuture<Void> clearSubtasks() {
+        return submitChange(null, () -> {
+            taskManager.clearSubtasks();
+            return null;
+        });
+    }
+
+    public CompletableFuture<Subtask> getSubtask(int id) {
+        return submit(id, () -> taskManager.getSubtask(id));
+    }
+
+    public CompletableFuture<Integer> addSubtask(Subtask subtask) {
+        return submitChange(subtask.getEpicId(), () -> taskManager.addSubtask(subtask));
+    }
+
+    public CompletableFuture<Boolean> updateSubtask(Subtask subtask) {
+        return submitChange(subtask.getId(), () -> taskManager.updateSubtask(subtask));
+    }
+
+    public CompletableFuture<UpdateResult> compareAndUpdateSubtask(Subtask subtask) {
+        return submitChange(subtask.getId(), () -> taskManager.compareAndUpdateSubtask(subtask));
+    }
+
+    public CompletableFuture<Boolean> removeSubtask(int id) {
+        return submitChange(id, () -> taskManager.removeSubtask(id));
+    }
+
+    public CompletableFuture<List<Task>> getHistory() {
+        return submit(null, taskManager::getHistory);
+    }
+
+    /**
+     * Дождаться завершения начатых операций над сущностями и остановить пул потоков, если он создан фасадом
+     */
+    @Override
+    public void close() {
+        CompletableFuture.allOf(tails.values().toArray(new CompletableFuture<?>[0])).handle((r, e) -> null).join();
+        if (ownsExecutor) {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Выполнить изменение в пуле потоков. Для {@link WriteBehindTaskManager} результат завершается после записи
+     * изменения на диск, при этом следующая операция не ждет записи
+     *
+     * @param key    Идентификатор сущности, с операциями над которой упорядочивается изменение (null - без порядка)
+     * @param action Изменение
+     */
+    private <T> CompletableFuture<T> submitChange(Integer key, Supplier<T> action) {
+        CompletableFuture<T> applied = submit(key, action);
+        if (taskManager instanceof WriteBehindTaskManager writeBehind) {
+            return applied.thenCompose(result -> writeBehind.whenDurable().thenApply(ignored -> result));
+        }
+        return applied;
+    }
+
+    /**
+     * Выполнить операцию в пуле потоков
+     *
+     * @param key    Идентификатор сущности, с операциями над которой упорядочивается операция (null - без порядка)
+     * @param action Операция
+     */
+    private <T> CompletableFuture<T> submit(Integer key, Supplier<T> action) {
+        if (key == null) {
+            return CompletableFuture.supplyAsync(action, executor);
+        }
+        AtomicReference<CompletableFuture<T>> holder = new AtomicReference<>();
+        tails.compute(key, (k, tail) -> {
+            // операция начинается после завершения предыдущей операции, в том числе завершения с ошибкой
+            holder.set(tail == null
+                    ? CompletableFuture.supplyAsync(action, executor)
+                    : tail.handle((r, e) -> null).thenApplyAsync(ignored -> action.get(), executor));
+            return holder.get();
+        });
+        CompletableFuture<T> sequenced = holder.get();
+        sequenced.whenComplete((r, e) -> tails.remove(key, sequenced));
+        return sequenced;
+    }
+}
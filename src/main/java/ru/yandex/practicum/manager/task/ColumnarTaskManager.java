@@ -0,0 +1,281 @@
+package ru.yandex.practicum.manager.task;
+
+import ru.yandex.practicum.manager.Managers;
+import ru.yandex.practicum.manager.history.HistoryManager;
+import ru.yandex.practicum.manager.id.AtomicIdAllocator;
+import ru.yandex.practicum.manager.id.IdAllocator;
+import ru.yandex.practicum.model.Epic;
+import ru.yandex.practicum.model.Subtask;
+import ru.yandex.practicum.model.Task;
+import ru.yandex.practicum.model.TaskState;
+import ru.yandex.practicum.model.TaskType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Менеджер задач в памяти с колоночным хранением задач ({@link ColumnarTaskStore}).
+ * Поведение совпадает с {@link InMemoryTaskManager}, но задачи хранятся не объектами, а колонками:
+ * объекты задач создаются при каждом чтении через API менеджера, поэтому изменение полученной задачи
+ * не изменяет хранимую - для изменения используйте методы update.
+ * <p>
+ * Аналитические запросы (количество задач в статусе, количество завершенных подзадач по эпикам и т.п.)
+ * выполняются хранилищем ({@link #getStore()}) по колонкам без создания объектов.
+ * Подходит для последовательно выдаваемых идентификаторов; не потокобезопасен.
+ */
+public class ColumnarTaskManager implements TaskManager {
+    /**
+     * Источник идентификаторов
+     */
+    private final IdAllocator idAllocator;
+
+    private final ColumnarTaskStore store = new ColumnarTaskStore();
+
+    /**
+     * Менеджер, отвечающий за хранение истории просмотров задач
+     */
+    private final HistoryManager historyManager = Managers.getDefaultHistory();
+
+    /**
+     * Конструктор. Идентификаторы выдаются последовательно, начиная с 0
+     */
+    public ColumnarTaskManager() {
+        this(new AtomicIdAllocator());
+    }
+
+    /**
+     * Конструктор
+     *
+     * @param idAllocator - источник идентификаторов задач (выдающий идентификаторы подряд)
+     */
+    public ColumnarTaskManager(IdAllocator idAllocator) {
+        this.idAllocator = idAllocator;
+    }
+
+    public ColumnarTaskStore getStore() {
+        return store;
+    }
+
+    public int getNextId() {
+        return idAllocator.next();
+    }
+
+    @Override
+    public List<Task> getTasks() {
+        return materializeAll(TaskType.TASK);
+    }
+
+    @Override
+    public void clearTasks() {
+        store.clear(TaskType.TASK);
+    }
+
+    @Override
+    public Task getTask(int id) {
+        return view(id, TaskType.TASK);
+    }
+
+    @Override
+    public int addTask(Task task) {
+        task.setId(getNextId());
+        store.put(task);
+        return task.getId();
+    }
+
+    @Override
+    public boolean updateTask(Task task) {
+        if (!store.contains(task.getId(), TaskType.TASK)) {
+            return false;
+        }
+        task.setVersion(store.versionOf(task.getId()) + 1);
+        store.put(task);
+        return true;
+    }
+
+    @Override
+    public UpdateResult compareAndUpdateTask(Task task) {
+        if (!store.contains(task.getId(), TaskType.TASK)) {
+            return UpdateResult.NOT_FOUND;
+        }
+        if (store.versionOf(task.getId()) != task.getVersion()) {
+            return UpdateResult.rejected(store.versionOf(task.getId()));
+        }
+        updateTask(task);
+        return UpdateResult.updated(task.getVersion());
+    }
+
+    @Override
+    public boolean removeTask(int id) {
+        return store.contains(id, TaskType.TASK) && store.remove(id);
+    }
+
+    @Override
+    public List<Epic> getEpics() {
+        return materializeAll(TaskType.EPIC);
+    }
+
+    @Override
+    public void clearEpics() {
+        // вместе с эпиками удаляются их подзадачи
+        store.clear(TaskType.EPIC);
+    }
+
+    @Override
+    public Epic getEpic(int id) {
+        return view(id, TaskType.EPIC);
+    }
+
+    @Override
+    public int addEpic(Epic epic) {
+        epic.setId(getNextId());
+        epic.clearSubtasks();
+        store.put(epic);
+        return epic.getId();
+    }
+
+    @Override
+    public boolean updateEpic(Epic epic) {
+        if (!store.contains(epic.getId(), TaskType.EPIC)) {
+            return false;
+        }
+        Epic epicFromManager = (Epic) store.materialize(epic.getId());
+        // подзадачи и статус эпика переносятся из эпика, хранимого в менеджере
+        epic.replaceSubtasks(epicFromManager);
+        epic.setState(epicFromManager.getState());
+        epic.setVersion(epicFromManager.getVersion() + 1);
+        store.put(epic);
+        return true;
+    }
+
+    @Override
+    public UpdateResult compareAndUpdateEpic(Epic epic) {
+        if (!store.contains(epic.getId(), TaskType.EPIC)) {
+            return UpdateResult.NOT_FOUND;
+        }
+        if (store.versionOf(epic.getId()) != epic.getVersion()) {
+            return UpdateResult.rejected(store.versionOf(epic.getId()));
+        }
+        updateEpic(epic);
+        return UpdateResult.updated(epic.getVersion());
+    }
+
+    @Override
+    public List<Subtask> getEpicSubtasks(int id) {
+        if (!store.contains(id, TaskType.EPIC)) {
+            return new ArrayList<>();
+        }
+        return store.subtasksOf(id).stream().mapToObj(stId -> (Subtask) store.materialize(stId)).toList();
+    }
+
+    @Override
+    public boolean removeEpic(int id) {
+        // вместе с эпиком удаляются его подзадачи
+        return store.contains(id, TaskType.EPIC) && store.remove(id);
+    }
+
+    @Override
+    public List<Subtask> getSubtasks() {
+        return materializeAll(TaskType.SUBTASK);
+    }
+
+    @Override
+    public void clearSubtasks() {
+        store.clear(TaskType.SUBTASK);
+        // эпики без подзадач получают статус NEW
+        for (int epicId : store.ids(TaskType.EPIC)) {
+            store.setState(epicId, TaskState.NEW);
+        }
+    }
+
+    @Override
+    public Subtask getSubtask(int id) {
+        return view(id, TaskType.SUBTASK);
+    }
+
+    @Override
+    public Integer addSubtask(Subtask subtask) {
+        if (!store.contains(subtask.getEpicId(), TaskType.EPIC)) {
+            // эпик не найден
+            return null;
+        }
+        subtask.setId(getNextId());
+        store.put(subtask);
+        refreshEpicState(subtask.getEpicId());
+        return subtask.getId();
+    }
+
+    @Override
+    public boolean updateSubtask(Subtask subtask) {
+        int epicId = subtask.getEpicId();
+        if (!store.contains(epicId, TaskType.EPIC) || !store.subtasksOf(epicId).contains(subtask.getId())) {
+            // эпик не найден или в эпике нет данных об этой подзадаче
+            return false;
+        }
+        subtask.setVersion(store.versionOf(subtask.getId()) + 1);
+        store.put(subtask);
+        refreshEpicState(epicId);
+        return true;
+    }
+
+    @Override
+    public UpdateResult compareAndUpdateSubtask(Subtask subtask) {
+        if (!store.contains(subtask.getId(), TaskType.SUBTASK)) {
+            return UpdateResult.NOT_FOUND;
+        }
+        if (store.versionOf(subtask.getId()) != subtask.getVersion()) {
+            return UpdateResult.rejected(store.versionOf(subtask.getId()));
+        }
+        if (!updateSubtask(subtask)) {
+            // подзадача не найдена в указанном эпике
+            return UpdateResult.NOT_FOUND;
+        }
+        return UpdateResult.updated(subtask.getVersion());
+    }
+
+    @Override
+    public boolean removeSubtask(int id) {
+        if (!store.contains(id, TaskType.SUBTASK)) {
+            return false;
+        }
+        int epicId = store.epicIdOf(id);
+        store.remove(id);
+        refreshEpicState(epicId);
+        return true;
+    }
+
+    @Override
+    public List<Task> getHistory() {
+        return historyManager.getHistory();
+    }
+
+    /**
+     * Обновить статус эпика на основе количества его подзадач по статусам (за O(1))
+     */
+    private void refreshEpicState(int epicId) {
+        store.setState(epicId, store.calculateEpicState(epicId));
+    }
+
+    /**
+     * Создать объект задачи указанного типа и занести его в историю просмотров
+     *
+     * @return Задача, если она найдена, иначе null
+     */
+    @SuppressWarnings("unchecked")
+    private <T extends Task> T view(int id, TaskType type) {
+        if (!store.contains(id, type)) {
+            return null;
+        }
+        T result = (T) store.materialize(id);
+        historyManager.add(result);
+        return result;
+    }
+
+    /**
+     * Создать объекты всех задач указанного типа (в порядке возрастания идентификаторов)
+     */
+    @SuppressWarnings("unchecked")
+    private <T extends Task> List<T> materializeAll(TaskType type) {
+        return Arrays.stream(store.ids(type)).mapToObj(id -> (T) store.materialize(id)).toList();
+    }
+}
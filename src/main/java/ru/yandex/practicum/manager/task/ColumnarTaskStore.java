@@ -0,0 +1,378 @@
+package ru.yandex.practicum.manager.task;
+
+import ru.yandex.practicum.model.Epic;
+import ru.yandex.practicum.model.IdSet;
+import ru.yandex.practicum.model.Subtask;
+import ru.yandex.practicum.model.Task;
+import ru.yandex.practicum.model.TaskState;
+import ru.yandex.practicum.model.TaskType;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Колоночное хранилище задач: поля задач хранятся не объектами, а параллельными массивами (колонками),
+ * индексированными идентификатором - тип, статус, идентификатор эпика и версия в массивах примитивов,
+ * названия и описания - в отдельных строковых колонках.
+ * <p>
+ * Просмотр и агрегация ({@link #count(TaskType, TaskState)}, {@link #findIds(TaskType, TaskState)},
+ * {@link #countSubtasksByEpic(TaskState)}) проходят последовательно по байтовым колонкам типа и статуса,
+ * не обращаясь к объектам задач и строкам. Объекты {@link Task}, {@link Epic}, {@link Subtask} создаются
+ * только при чтении ({@link #materialize(int)}) и не связаны с хранилищем.
+ * <p>
+ * Хранилище само поддерживает состав эпиков: подзадача при добавлении и удалении включается в эпик и исключается
+ * из него, а количество подзадач эпика по статусам обновляется при изменении статуса подзадачи. Статус эпика
+ * хранится в колонке статусов и пересчитывается менеджером ({@link #calculateEpicState(int)}).
+ * <p>
+ * Хранилище рассчитано на неотрицательные идентификаторы, выдаваемые подряд; не потокобезопасно.
+ */
+public class ColumnarTaskStore {
+    /**
+     * Начальная емкость колонок
+     */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * Метка свободной ячейки (метка занятой ячейки - порядковый номер типа задачи + 1)
+     */
+    private static final byte EMPTY = 0;
+
+    private static final byte EPIC = tag(TaskType.EPIC);
+    private static final byte SUBTASK = tag(TaskType.SUBTASK);
+
+    private static final int STATE_COUNT = TaskState.values().length;
+
+    private static final TaskState[] STATES = TaskState.values();
+
+    /**
+     * Колонки: метка типа, порядковый номер статуса, идентификатор эпика подзадачи, версия, название, описание
+     */
+    private byte[] tags = new byte[INITIAL_CAPACITY];
+    private byte[] states = new byte[INITIAL_CAPACITY];
+    private int[] epicIds = new int[INITIAL_CAPACITY];
+    private long[] versions = new long[INITIAL_CAPACITY];
+    private String[] names = new String[INITIAL_CAPACITY];
+    private String[] descriptions = new String[INITIAL_CAPACITY];
+
+    /**
+     * Колонки эпиков: идентификаторы подзадач и количество подзадач по статусам
+     * (ячейки id * количество статусов + статус)
+     */
+    private IdSet[] subtaskIds = new IdSet[INITIAL_CAPACITY];
+    private int[] subtaskStateCounts = new int[INITIAL_CAPACITY * STATE_COUNT];
+
+    /**
+     * Граница занятых ячеек: наибольший идентификатор + 1
+     */
+    private int limit = 0;
+
+    /**
+     * Количество задач по меткам
+     */
+    private final int[] counts = new int[TaskType.values().length + 1];
+
+    private static byte tag(TaskType type) {
+        return (byte) (type.ordinal() + 1);
+    }
+
+    /**
+     * Количество задач указанного типа
+     */
+    public int size(TaskType type) {
+        return counts[tag(type)];
+    }
+
+    /**
+     * Емкость колонок
+     */
+    public int getCapacity() {
+        return tags.length;
+    }
+
+    /**
+     * Получить тип задачи по идентификатору
+     *
+     * @return Тип задачи или null, если задачи нет
+     */
+    public TaskType typeOf(int id) {
+        byte tag = tagOf(id);
+        return tag == EMPTY ? null : TaskType.values()[tag - 1];
+    }
+
+    /**
+     * Проверить, что задача с идентификатором имеет указанный тип
+     */
+    public boolean contains(int id, TaskType type) {
+        return tagOf(id) == tag(type);
+    }
+
+    private byte tagOf(int id) {
+        return id >= 0 && id < limit ? tags[id] : EMPTY;
+    }
+
+    public TaskState stateOf(int id) {
+        return STATES[states[id]];
+    }
+
+    public long versionOf(int id) {
+        return versions[id];
+    }
+
+    public int epicIdOf(int id) {
+        return epicIds[id];
+    }
+
+    /**
+     * Идентификаторы подзадач эпика (в порядке возрастания). Набор не должен изменяться
+     */
+    public IdSet subtasksOf(int epicId) {
+        return subtaskIds[epicId];
+    }
+
+    public void setState(int id, TaskState state) {
+        states[id] = (byte) state.ordinal();
+    }
+
+    /**
+     * Вычислить статус эпика по количеству его подзадач по статусам (правило {@link Epic#calculateState()})
+     */
+    public TaskState calculateEpicState(int epicId) {
+        int total = subtaskIds[epicId].size();
+        int offset = epicId * STATE_COUNT;
+        if (total == subtaskStateCounts[offset + TaskState.NEW.ordinal()]) {
+            return TaskState.NEW;
+        }
+        if (total == subtaskStateCounts[offset + TaskState.DONE.ordinal()]) {
+            return TaskState.DONE;
+        }
+        return TaskState.IN_PROGRESS;
+    }
+
+    /**
+     * Записать задачу в колонки (добавить или заменить задачу того же типа).
+     * Подзадача включается в свой эпик, который должен быть в хранилище; у заменяемого эпика сохраняются подзадачи
+     */
+    public void put(Task task) {
+        int id = task.getId();
+        byte tag = tag(TaskType.of(task));
+        if (id < 0) {
+            throw new IllegalArgumentException("Отрицательный идентификатор " + id);
+        }
+        byte previousTag = tagOf(id);
+        if (previousTag != EMPTY && previousTag != tag) {
+            throw new IllegalArgumentException("Идентификатор " + id + " занят задачей другого типа");
+        }
+        int epicId = task instanceof Subtask subtask ? subtask.getEpicId() : -1;
+        if (tag == SUBTASK && tagOf(epicId) != EPIC) {
+            throw new IllegalArgumentException("Эпик " + epicId + " подзадачи " + id + " не найден");
+        }
+        if (id >= tags.length) {
+            resize(Math.max(tags.length * 2, id + 1));
+        }
+        if (id >= limit) {
+            // ячейки между прежней границей и новой задачей свободны
+            counts[EMPTY] += id - limit + 1;
+            limit = id + 1;
+        }
+        byte state = (byte) task.getState().ordinal();
+        if (tag == SUBTASK) {
+            if (previousTag == EMPTY) {
+                linkSubtask(epicId, id, state);
+            } else {
+                // подзадача остается в прежнем эпике, изменяется только количество по статусам
+                int offset = epicIds[id] * STATE_COUNT;
+                subtaskStateCounts[offset + states[id]]--;
+                subtaskStateCounts[offset + state]++;
+                epicId = epicIds[id];
+            }
+        } else if (tag == EPIC && previousTag == EMPTY) {
+            subtaskIds[id] = new IdSet();
+            Arrays.fill(subtaskStateCounts, id * STATE_COUNT, (id + 1) * STATE_COUNT, 0);
+        }
+        tags[id] = tag;
+        states[id] = state;
+        epicIds[id] = epicId;
+        versions[id] = task.getVersion();
+        names[id] = task.getName();
+        descriptions[id] = task.getDescription();
+        counts[previousTag]--;
+        counts[tag]++;
+    }
+
+    /**
+     * Удалить задачу. Подзадача исключается из своего эпика; эпик удаляется вместе с подзадачами
+     *
+     * @return true - задача удалена, иначе - false
+     */
+    public boolean remove(int id) {
+        byte tag = tagOf(id);
+        if (tag == EMPTY) {
+            return false;
+        }
+        if (tag == SUBTASK) {
+            int epicId = epicIds[id];
+            subtaskIds[epicId].remove(id);
+            subtaskStateCounts[epicId * STATE_COUNT + states[id]]--;
+        } else if (tag == EPIC) {
+            subtaskIds[id].forEach(this::release);
+            subtaskIds[id] = null;
+        }
+        release(id);
+        trim();
+        return true;
+    }
+
+    /**
+     * Удалить все задачи указанного типа (вместе с эпиками удаляются подзадачи, вместе с подзадачами
+     * очищается состав эпиков)
+     */
+    public void clear(TaskType type) {
+        byte tag = tag(type);
+        for (int id = 0; id < limit; id++) {
+            if (tags[id] == tag || tag == EPIC && tags[id] == SUBTASK) {
+                release(id);
+            } else if (tag == SUBTASK && tags[id] == EPIC) {
+                subtaskIds[id].clear();
+                Arrays.fill(subtaskStateCounts, id * STATE_COUNT, (id + 1) * STATE_COUNT, 0);
+            }
+        }
+        if (tag == EPIC) {
+            Arrays.fill(subtaskIds, 0, limit, null);
+        }
+        trim();
+    }
+
+    /**
+     * Создать объект задачи по колонкам
+     *
+     * @return Задача, эпик (с подзадачами) или подзадача; null, если задачи нет
+     */
+    public Task materialize(int id) {
+        byte tag = tagOf(id);
+        Task result;
+        if (tag == EMPTY) {
+            return null;
+        } else if (tag == EPIC) {
+            Epic epic = new Epic(id, stateOf(id), names[id], descriptions[id]);
+            subtaskIds[id].forEach(subtaskId -> epic.addSubtask(subtaskId, stateOf(subtaskId)));
+            result = epic;
+        } else if (tag == SUBTASK) {
+            result = new Subtask(id, stateOf(id), names[id], descriptions[id], epicIds[id]);
+        } else {
+            result = new Task(id, stateOf(id), names[id], descriptions[id]);
+        }
+        result.setVersion(versions[id]);
+        return result;
+    }
+
+    /**
+     * Идентификаторы задач указанного типа (в порядке возрастания)
+     */
+    public int[] ids(TaskType type) {
+        byte tag = tag(type);
+        int[] result = new int[counts[tag]];
+        int count = 0;
+        for (int id = 0; id < limit; id++) {
+            if (tags[id] == tag) {
+                result[count++] = id;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Количество задач указанного типа в указанном статусе (просмотр колонок типа и статуса)
+     */
+    public int count(TaskType type, TaskState state) {
+        byte tag = tag(type);
+        byte stateOrdinal = (byte) state.ordinal();
+        int result = 0;
+        for (int id = 0; id < limit; id++) {
+            // без ветвлений в теле цикла - пригоден для векторизации JIT-компилятором
+            result += (tags[id] == tag & states[id] == stateOrdinal) ? 1 : 0;
+        }
+        return result;
+    }
+
+    /**
+     * Идентификаторы задач указанного типа в указанном статусе (в порядке возрастания)
+     */
+    public int[] findIds(TaskType type, TaskState state) {
+        byte tag = tag(type);
+        byte stateOrdinal = (byte) state.ordinal();
+        int[] result = new int[counts[tag]];
+        int count = 0;
+        for (int id = 0; id < limit; id++) {
+            if (tags[id] == tag && states[id] == stateOrdinal) {
+                result[count++] = id;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    /**
+     * Количество подзадач в указанном статусе по эпикам - одним просмотром колонок типа, статуса и эпика
+     *
+     * @return Идентификатор эпика -> количество подзадач (для всех эпиков, в порядке возрастания идентификаторов)
+     */
+    public Map<Integer, Integer> countSubtasksByEpic(TaskState state) {
+        byte stateOrdinal = (byte) state.ordinal();
+        int[] perEpic = new int[limit];
+        for (int id = 0; id < limit; id++) {
+            if (tags[id] == SUBTASK && states[id] == stateOrdinal) {
+                perEpic[epicIds[id]]++;
+            }
+        }
+        Map<Integer, Integer> result = new LinkedHashMap<>();
+        for (int id = 0; id < limit; id++) {
+            if (tags[id] == EPIC) {
+                result.put(id, perEpic[id]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Включить подзадачу в эпик
+     */
+    private void linkSubtask(int epicId, int id, byte state) {
+        subtaskIds[epicId].add(id);
+        subtaskStateCounts[epicId * STATE_COUNT + state]++;
+    }
+
+    /**
+     * Освободить ячейку (состав эпиков не изменяется)
+     */
+    private void release(int id) {
+        counts[tags[id]]--;
+        counts[EMPTY]++;
+        tags[id] = EMPTY;
+        names[id] = null;
+        descriptions[id] = null;
+    }
+
+    /**
+     * Отбросить свободные ячейки в конце и сжать колонки, если занято меньше четверти
+     */
+    private void trim() {
+        while (limit > 0 && tags[limit - 1] == EMPTY) {
+            limit--;
+            counts[EMPTY]--;
+        }
+        if (tags.length > INITIAL_CAPACITY && limit < tags.length / 4) {
+            resize(Math.max(INITIAL_CAPACITY, limit * 2));
+        }
+    }
+
+    private void resize(int capacity) {
+        tags = Arrays.copyOf(tags, capacity);
+        states = Arrays.copyOf(states, capacity);
+        epicIds = Arrays.copyOf(epicIds, capacity);
+        versions = Arrays.copyOf(versions, capacity);
+        names = Arrays.copyOf(names, capacity);
+        descriptions = Arrays.copyOf(descriptions, capacity);
+        subtaskIds = Arrays.copyOf(subtaskIds, capacity);
+        subtaskStateCounts = Arrays.copyOf(subtaskStateCounts, capacity * STATE_COUNT);
+    }
+}
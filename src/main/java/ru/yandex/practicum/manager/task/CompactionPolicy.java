@@ -0,0 +1,56 @@
+package ru.yandex.practicum.manager.task;
+
+import java.time.Duration;
+
+/**
+ * Политика уплотнения журнала {@link JournaledTaskManager}: определяет, когда пора сохранить полное состояние
+ * менеджера и отбросить вошедшие в него записи журнала.
+ */
+public interface CompactionPolicy {
+    /**
+     * Нужно ли уплотнить журнал
+     *
+     * @param journalBytes          Размер журнала в байтах
+     * @param journalRecords        Количество записей в журнале
+     * @param sinceLastCompaction   Время, прошедшее с последнего уплотнения (или с создания менеджера)
+     */
+    boolean shouldCompact(long journalBytes, long journalRecords, Duration sinceLastCompaction);
+
+    /**
+     * Политика, срабатывающая при срабатывании этой или указанной политики
+     */
+    default CompactionPolicy or(CompactionPolicy other) {
+        return (journalBytes, journalRecords, sinceLastCompaction) ->
+                shouldCompact(journalBytes, journalRecords, sinceLastCompaction)
+                        || other.shouldCompact(journalBytes, journalRecords, sinceLastCompaction);
+    }
+
+    /**
+     * Уплотнение по размеру журнала
+     */
+    static CompactionPolicy bySize(long maxJournalBytes) {
+        return (journalBytes, journalRecords, sinceLastCompaction) -> journalBytes >= maxJournalBytes;
+    }
+
+    /**
+     * Уплотнение по количеству записей в журнале
+     */
+    static CompactionPolicy byRecordCount(long maxJournalRecords) {
+        return (journalBytes, journalRecords, sinceLastCompaction) -> journalRecords >= maxJournalRecords;
+    }
+
+    /**
+     * Уплотнение по времени: не чаще, чем раз в указанный интервал, и только если журнал не пуст
+     */
+    static CompactionPolicy byInterval(Duration interval) {
+        return (journalBytes, journalRecords, sinceLastCompaction) ->
+                journalRecords > 0 && sinceLastCompaction.compareTo(interval) >= 0;
+    }
+
+    /**
+     * Журнал не уплотняется автоматически (только вызовом {@link JournaledTaskManager#save()})
+     */
+    static CompactionPolicy never() {
+        return (journalBytes, journalRecords, sinceLastCompaction) -> false;
+    }
+}
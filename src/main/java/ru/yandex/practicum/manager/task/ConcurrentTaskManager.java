@@ -0,0 +1,432 @@
+package ru.yandex.practicum.manager.task;
+
+import ru.yandex.practicum.manager.history.ConcurrentHistoryManager;
+import ru.yandex.practicum.manager.history.HistoryManager;
+import ru.yandex.practicum.manager.id.AtomicIdAllocator;
+import ru.yandex.practicum.manager.id.IdAllocator;
+import ru.yandex.practicum.model.Epic;
+import ru.yandex.practicum.model.Subtask;
+import ru.yandex.practicum.model.Task;
+import ru.yandex.practicum.model.TaskState;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Потокобезопасный менеджер задач.
+ * Задачи хранятся в {@link ConcurrentHashMap}, идентификаторы выдаются потокобезопасным {@link IdAllocator}.
+ * Изменения эпика и его подзадач (добавление подзадачи, обновление статуса эпика и т.д.) выполняются под блокировкой
+ * эпика. Блокировки распределены по эпикам полосами (lock striping): эпик использует блокировку
+ * {@code stripes[epicId % stripes.length]}, поэтому изменения подзадач разных эпиков, как правило,
+ * выполняются параллельно, а состояние каждого эпика остается согласованным с его подзадачами.
+ * <p>
+ * Операции над всеми эпиками ({@link #clearEpics()}, {@link #clearSubtasks()}) захватывают все блокировки по порядку.
+ */
+public class ConcurrentTaskManager implements TaskManager {
+    /**
+     * Количество блокировок эпиков по-умолчанию
+     */
+    public static final int defaultStripeCount = 64;
+
+    /**
+     * Источник идентификаторов
+     */
+    private final IdAllocator idAllocator;
+
+    /**
+     * Задачи
+     */
+    private final ConcurrentHashMap<Integer, Task> tasks = new ConcurrentHashMap<>();
+
+    /**
+     * Эпики (изменяются только под блокировкой эпика)
+     */
+    private final ConcurrentHashMap<Integer, Epic> epics = new ConcurrentHashMap<>();
+
+    /**
+     * Подзадачи эпиков (изменяются только под блокировкой эпика подзадачи)
+     */
+    private final ConcurrentHashMap<Integer, Subtask> subtasks = new ConcurrentHashMap<>();
+
+    /**
+     * Блокировки эпиков
+     */
+    private final ReentrantLock[] stripes;
+
+    /**
+     * Менеджер, отвечающий за хранение истории просмотров задач
+     */
+    private final HistoryManager historyManager = new ConcurrentHistoryManager();
+
+    /**
+     * Конструктор
+     */
+    public ConcurrentTaskManager() {
+        this(defaultStripeCount);
+    }
+
+    /**
+     * Конструктор
+     *
+     * @param stripeCount - количество блокировок эпиков
+     */
+    public ConcurrentTaskManager(int stripeCount) {
+        this(stripeCount, new AtomicIdAllocator());
+    }
+
+    /**
+     * Конструктор
+     *
+     * @param stripeCount - количество блокировок эпиков
+     * @param idAllocator - потокобезопасный источник идентификаторов задач
+     */
+    public ConcurrentTaskManager(int stripeCount, IdAllocator idAllocator) {
+        if (stripeCount <= 0) {
+            throw new IllegalArgumentException("Количество блокировок должно быть положительным: " + stripeCount);
+        }
+        this.idAllocator = idAllocator;
+        stripes = new ReentrantLock[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Получить следующее значение идентификатора (потокобезопасно)
+     */
+    public int getNextId() {
+        return idAllocator.next();
+    }
+
+    @Override
+    public List<Task> getTasks() {
+        return List.copyOf(tasks.values());
+    }
+
+    @Override
+    public void clearTasks() {
+        tasks.clear();
+    }
+
+    @Override
+    public Task getTask(int id) {
+        Task result = tasks.get(id);
+        if (result != null) {
+            historyManager.add(result);
+        }
+        return result;
+    }
+
+    @Override
+    public int addTask(Task task) {
+        task.setId(getNextId());
+        tasks.put(task.getId(), task);
+        return task.getId();
+    }
+
+    @Override
+    public boolean updateTask(Task task) {
+        return tasks.computeIfPresent(task.getId(), (id, stored) -> {
+            task.setVersion(stored.getVersion() + 1);
+            return task;
+        }) != null;
+    }
+
+    @Override
+    public UpdateResult compareAndUpdateTask(Task task) {
+        UpdateResult[] result = {UpdateResult.NOT_FOUND};
+        // проверка версии и замена выполняются атомарно для ключа
+        tasks.computeIfPresent(task.getId(), (id, stored) -> {
+            // переданный объект - сам хранимый объект: его версия не подтверждает отсутствие изменений
+            if (stored == task || stored.getVersion() != task.getVersion()) {
+                result[0] = UpdateResult.rejected(stored.getVersion());
+                return stored;
+            }
+            task.setVersion(stored.getVersion() + 1);
+            result[0] = UpdateResult.updated(task.getVersion());
+            return task;
+        });
+        return result[0];
+    }
+
+    @Override
+    public boolean removeTask(int id) {
+        return tasks.remove(id) != null;
+    }
+
+    @Override
+    public List<Epic> getEpics() {
+        return List.copyOf(epics.values());
+    }
+
+    @Override
+    public void clearEpics() {
+        lockAll();
+        try {
+            subtasks.clear();
+            epics.clear();
+        } finally {
+            unlockAll();
+        }
+    }
+
+    @Override
+    public Epic getEpic(int id) {
+        Epic result = epics.get(id);
+        if (result != null) {
+            historyManager.add(result);
+        }
+        return result;
+    }
+
+    @Override
+    public int addEpic(Epic epic) {
+        epic.setId(getNextId());
+        epic.clearSubtasks();
+        ReentrantLock lock = lockOf(epic.getId());
+        lock.lock();
+        try {
+            epics.put(epic.getId(), epic);
+        } finally {
+            lock.unlock();
+        }
+        return epic.getId();
+    }
+
+    @Override
+    public boolean updateEpic(Epic epic) {
+        ReentrantLock lock = lockOf(epic.getId());
+        lock.lock();
+        try {
+            Epic epicFromManager = epics.get(epic.getId());
+            if (epicFromManager == null) {
+                return false;
+            }
+            // подзадачи и статус эпика переносятся из эпика, хранимого в менеджере
+            epic.replaceSubtasks(epicFromManager);
+            epic.setState(epicFromManager.getState());
+            epic.setVersion(epicFromManager.getVersion() + 1);
+            epics.put(epic.getId(), epic);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public UpdateResult compareAndUpdateEpic(Epic epic) {
+        ReentrantLock lock = lockOf(epic.getId());
+        lock.lock();
+        try {
+            Epic epicFromManager = epics.get(epic.getId());
+            if (epicFromManager == null) {
+                return UpdateResult.NOT_FOUND;
+            }
+            // переданный объект - сам хранимый объект: его версия не подтверждает отсутствие изменений
+            if (epicFromManager == epic || epicFromManager.getVersion() != epic.getVersion()) {
+                return UpdateResult.rejected(epicFromManager.getVersion());
+            }
+            updateEpic(epic);
+            return UpdateResult.updated(epic.getVersion());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public List<Subtask> getEpicSubtasks(int id) {
+        ReentrantLock lock = lockOf(id);
+        lock.lock();
+        try {
+            Epic epic = epics.get(id);
+            if (epic == null) {
+                return new ArrayList<>();
+            }
+            return epic.getSubtasks().stream().mapToObj(subtasks::get).toList();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean removeEpic(int id) {
+        ReentrantLock lock = lockOf(id);
+        lock.lock();
+        try {
+            Epic epic = epics.remove(id);
+            if (epic == null) {
+                return false;
+            }
+            epic.getSubtasks().forEach(subtasks::remove);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public List<Subtask> getSubtasks() {
+        return List.copyOf(subtasks.values());
+    }
+
+    @Override
+    public void clearSubtasks() {
+        lockAll();
+        try {
+            subtasks.clear();
+            epics.values().forEach(epic -> {
+                epic.clearSubtasks();
+                epic.setState(TaskState.NEW);
+            });
+        } finally {
+            unlockAll();
+        }
+    }
+
+    @Override
+    public Subtask getSubtask(int id) {
+        Subtask result = subtasks.get(id);
+        if (result != null) {
+            historyManager.add(result);
+        }
+        return result;
+    }
+
+    @Override
+    public Integer addSubtask(Subtask subtask) {
+        ReentrantLock lock = lockOf(subtask.getEpicId());
+        lock.lock();
+        try {
+            Epic epic = epics.get(subtask.getEpicId());
+            if (epic == null) {
+                return null;
+            }
+            subtask.setId(getNextId());
+            subtasks.put(subtask.getId(), subtask);
+            epic.addSubtask(subtask.getId(), subtask.getState());
+            refreshEpicState(epic);
+            return subtask.getId();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean updateSubtask(Subtask subtask) {
+        ReentrantLock lock = lockOf(subtask.getEpicId());
+        lock.lock();
+        try {
+            Epic epic = epics.get(subtask.getEpicId());
+            if (epic == null || !epic.containsSubtask(subtask.getId())) {
+                return false;
+            }
+            Subtask subtaskFromManager = subtasks.get(subtask.getId());
+            subtask.setVersion(subtaskFromManager.getVersion() + 1);
+            subtasks.put(subtask.getId(), subtask);
+            if (subtaskFromManager == subtask) {
+                // подзадача изменена "на месте" - прежний статус неизвестен, поэтому количество пересчитывается
+                epic.recountSubtaskStates(stId -> subtasks.get(stId).getState());
+            } else {
+                epic.changeSubtaskState(subtask.getId(), subtask.getState());
+            }
+            refreshEpicState(epic);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public UpdateResult compareAndUpdateSubtask(Subtask subtask) {
+        ReentrantLock lock = lockOf(subtask.getEpicId());
+        lock.lock();
+        try {
+            Epic epic = epics.get(subtask.getEpicId());
+            Subtask subtaskFromManager = subtasks.get(subtask.getId());
+            if (epic == null || subtaskFromManager == null || !epic.containsSubtask(subtask.getId())) {
+                return UpdateResult.NOT_FOUND;
+            }
+            // переданный объект - сам хранимый объект: его версия не подтверждает отсутствие изменений
+            if (subtaskFromManager == subtask || subtaskFromManager.getVersion() != subtask.getVersion()) {
+                return UpdateResult.rejected(subtaskFromManager.getVersion());
+            }
+            updateSubtask(subtask);
+            return UpdateResult.updated(subtask.getVersion());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean removeSubtask(int id) {
+        Subtask subtask = subtasks.get(id);
+        if (subtask == null) {
+            return false;
+        }
+        // эпик подзадачи не меняется при обновлении, поэтому блокировка определяется до её захвата
+        ReentrantLock lock = lockOf(subtask.getEpicId());
+        lock.lock();
+        try {
+            Epic epic = epics.get(subtask.getEpicId());
+            Subtask removed = epic == null ? null : subtasks.remove(id);
+            if (removed == null) {
+                // подзадача удалена другим потоком
+                return false;
+            }
+            epic.removeSubtask(id);
+            refreshEpicState(epic);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public List<Task> getHistory() {
+        return historyManager.getHistory();
+    }
+
+    @Override
+    public void forEachTask(Consumer<? super Task> action) {
+        tasks.values().forEach(action);
+    }
+
+    @Override
+    public void forEachEpic(Consumer<? super Epic> action) {
+        epics.values().forEach(action);
+    }
+
+    @Override
+    public void forEachSubtask(Consumer<? super Subtask> action) {
+        subtasks.values().forEach(action);
+    }
+
+    /**
+     * Обновить статус эпика на основе количества его подзадач по статусам. Выполняется под блокировкой эпика
+     */
+    private void refreshEpicState(Epic epic) {
+        epic.setState(epic.calculateState());
+    }
+
+    /**
+     * Получить блокировку эпика
+     */
+    private ReentrantLock lockOf(int epicId) {
+        return stripes[Math.floorMod(epicId, stripes.length)];
+    }
+
+    private void lockAll() {
+        for (ReentrantLock lock : stripes) {
+            lock.lock();
+        }
+    }
+
+    private void unlockAll() {
+        for (int i = stripes.length - 1; i >= 0; i--) {
+            stripes[i].unlock();
+        }
+    }
+}
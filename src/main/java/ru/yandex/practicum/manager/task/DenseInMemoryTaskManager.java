@@ -0,0 +1,57 @@
+package ru.yandex.practicum.manager.task;
+
+import ru.yandex.practicum.manager.Managers;
+import ru.yandex.practicum.manager.id.AtomicIdAllocator;
+import ru.yandex.practicum.manager.id.IdAllocator;
+import ru.yandex.practicum.model.Epic;
+import ru.yandex.practicum.model.Subtask;
+import ru.yandex.practicum.model.Task;
+
+/**
+ * Менеджер задач в памяти, хранящий задачи в массиве, индексированном идентификатором ({@link DenseTaskStore}),
+ * вместо {@link java.util.HashMap}. Подходит для последовательно выдаваемых идентификаторов.
+ * Поиск задач по идентификатору выполняется методами хранилища с ключом int, без упаковки в {@link Integer}.
+ */
+public class DenseInMemoryTaskManager extends InMemoryTaskManager {
+    private final DenseTaskStore store;
+
+    /**
+     * Конструктор. Идентификаторы выдаются последовательно, начиная с 0
+     */
+    public DenseInMemoryTaskManager() {
+        this(new AtomicIdAllocator());
+    }
+
+    /**
+     * Конструктор
+     *
+     * @param idAllocator - источник идентификаторов задач (выдающий идентификаторы подряд)
+     */
+    public DenseInMemoryTaskManager(IdAllocator idAllocator) {
+        this(idAllocator, new DenseTaskStore());
+    }
+
+    private DenseInMemoryTaskManager(IdAllocator idAllocator, DenseTaskStore store) {
+        super(idAllocator, Managers.getDefaultHistory(), store.tasks(), store.epics(), store.subtasks());
+        this.store = store;
+    }
+
+    public DenseTaskStore getStore() {
+        return store;
+    }
+
+    @Override
+    protected Task getTaskSilently(int id) {
+        return store.tasks().get(id);
+    }
+
+    @Override
+    protected Epic getEpicSilently(int id) {
+        return store.epics().get(id);
+    }
+
+    @Override
+    protected Subtask getSubtaskSilently(int id) {
+        return store.subtasks().get(id);
+    }
+}
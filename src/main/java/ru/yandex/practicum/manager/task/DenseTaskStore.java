@@ -0,0 +1,365 @@
+package ru.yandex.practicum.manager.task;
+
+import ru.yandex.practicum.model.Epic;
+import ru.yandex.practicum.model.Subtask;
+import ru.yandex.practicum.model.Task;
+import ru.yandex.practicum.model.TaskType;
+
+import java.util.AbstractCollection;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Хранилище задач в массиве, индексированном идентификатором.
+ * Идентификаторы выдаются последовательно, поэтому задача с идентификатором id хранится в ячейке id массива,
+ * а тип задачи - в байтовой метке ячейки. Поиск задачи - обращение к массиву без хэширования, упаковки ключа
+ * и узла {@link java.util.HashMap} на каждую задачу: на задачу приходится ссылка и байт метки.
+ * <p>
+ * Задачи, эпики и подзадачи хранятся в одном массиве (идентификаторы задач разных типов не пересекаются)
+ * и доступны как словари {@link #tasks()}, {@link #epics()}, {@link #subtasks()}. Кроме методов {@link Map}
+ * словари предоставляют методы с ключом int ({@link View#get(int)}, {@link View#put(int, Task)} и т.д.),
+ * которые не упаковывают идентификатор в {@link Integer}.
+ * Ячейки удаленных задач остаются свободными (идентификаторы не выдаются повторно) и учитываются в
+ * {@link #getFreeSlots()}; свободные ячейки в конце массива отбрасываются, а массив сжимается,
+ * если занята лишь его малая часть.
+ * <p>
+ * Хранилище рассчитано на неотрицательные идентификаторы, выдаваемые подряд; не потокобезопасно.
+ */
+public class DenseTaskStore {
+    /**
+     * Начальная емкость массива
+     */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * Метка свободной ячейки (метка занятой ячейки - порядковый номер типа задачи + 1)
+     */
+    private static final byte EMPTY = 0;
+
+    private Task[] slots = new Task[INITIAL_CAPACITY];
+
+    private byte[] tags = new byte[INITIAL_CAPACITY];
+
+    /**
+     * Граница занятых ячеек: наибольший идентификатор + 1
+     */
+    private int limit = 0;
+
+    /**
+     * Количество задач по меткам
+     */
+    private final int[] counts = new int[TaskType.values().length + 1];
+
+    private final View<Task> tasks = new View<>(tag(TaskType.TASK));
+    private final View<Epic> epics = new View<>(tag(TaskType.EPIC));
+    private final View<Subtask> subtasks = new View<>(tag(TaskType.SUBTASK));
+
+    public View<Task> tasks() {
+        return tasks;
+    }
+
+    public View<Epic> epics() {
+        return epics;
+    }
+
+    public View<Subtask> subtasks() {
+        return subtasks;
+    }
+
+    /**
+     * Количество задач всех типов
+     */
+    public int size() {
+        return limit - getFreeSlots();
+    }
+
+    /**
+     * Количество свободных ячеек ниже наибольшего идентификатора (ячейки удаленных или не выданных задач)
+     */
+    public int getFreeSlots() {
+        return counts[EMPTY];
+    }
+
+    /**
+     * Емкость массива
+     */
+    public int getCapacity() {
+        return slots.length;
+    }
+
+    /**
+     * Получить тип задачи по идентификатору
+     *
+     * @return Тип задачи или null, если задачи нет
+     */
+    public TaskType typeOf(int id) {
+        byte tag = tagOf(id);
+        return tag == EMPTY ? null : TaskType.values()[tag - 1];
+    }
+
+    private static byte tag(TaskType type) {
+        return (byte) (type.ordinal() + 1);
+    }
+
+    private byte tagOf(int id) {
+        return id >= 0 && id < limit ? tags[id] : EMPTY;
+    }
+
+    private Task get(int id, byte tag) {
+        return tagOf(id) == tag ? slots[id] : null;
+    }
+
+    private Task put(int id, byte tag, Task task) {
+        if (id < 0) {
+            throw new IllegalArgumentException("Отрицательный идентификатор " + id);
+        }
+        if (task == null) {
+            throw new NullPointerException("Задача не может быть null");
+        }
+        byte previousTag = tagOf(id);
+        if (previousTag != EMPTY && previousTag != tag) {
+            throw new IllegalArgumentException("Идентификатор " + id + " занят задачей другого типа");
+        }
+        if (id >= slots.length) {
+            int capacity = Math.max(slots.length * 2, id + 1);
+            slots = Arrays.copyOf(slots, capacity);
+            tags = Arrays.copyOf(tags, capacity);
+        }
+        if (id >= limit) {
+            // ячейки между прежней границей и новой задачей свободны
+            counts[EMPTY] += id - limit + 1;
+            limit = id + 1;
+        }
+        Task previous = slots[id];
+        slots[id] = task;
+        tags[id] = tag;
+        counts[previousTag]--;
+        counts[tag]++;
+        return previous;
+    }
+
+    private Task remove(int id, byte tag) {
+        if (tagOf(id) != tag) {
+            return null;
+        }
+        Task previous = slots[id];
+        slots[id] = null;
+        tags[id] = EMPTY;
+        counts[tag]--;
+        counts[EMPTY]++;
+        if (id == limit - 1) {
+            trim();
+        }
+        return previous;
+    }
+
+    private void clear(byte tag) {
+        for (int id = 0; id < limit; id++) {
+            if (tags[id] == tag) {
+                slots[id] = null;
+                tags[id] = EMPTY;
+            }
+        }
+        counts[EMPTY] += counts[tag];
+        counts[tag] = 0;
+        trim();
+    }
+
+    /**
+     * Отбросить свободные ячейки в конце и сжать массив, если занято меньше четверти
+     */
+    private void trim() {
+        while (limit > 0 && tags[limit - 1] == EMPTY) {
+            limit--;
+            counts[EMPTY]--;
+        }
+        if (slots.length > INITIAL_CAPACITY && limit < slots.length / 4) {
+            int capacity = Math.max(INITIAL_CAPACITY, limit * 2);
+            slots = Arrays.copyOf(slots, capacity);
+            tags = Arrays.copyOf(tags, capacity);
+        }
+    }
+
+    /**
+     * Следующая занятая ячейка с меткой tag, начиная с from (limit, если таких ячеек нет)
+     */
+    private int nextSlot(int from, byte tag) {
+        int id = from;
+        while (id < limit && tags[id] != tag) {
+            id++;
+        }
+        return id;
+    }
+
+    /**
+     * Словарь задач одного типа поверх общего массива
+     */
+    public final class View<T extends Task> extends AbstractMap<Integer, T> {
+        private final byte tag;
+
+        private View(byte tag) {
+            this.tag = tag;
+        }
+
+        /**
+         * Получить задачу по идентификатору (без упаковки идентификатора)
+         *
+         * @return Задача или null, если задачи этого типа с таким идентификатором нет
+         */
+        @SuppressWarnings("unchecked")
+        public T get(int id) {
+            return (T) DenseTaskStore.this.get(id, tag);
+        }
+
+        public boolean containsKey(int id) {
+            return tagOf(id) == tag;
+        }
+
+        /**
+         * Сохранить задачу (без упаковки идентификатора)
+         *
+         * @return Задача, ранее хранившаяся с этим идентификатором, или null
+         */
+        @SuppressWarnings("unchecked")
+        public T put(int id, T value) {
+            return (T) DenseTaskStore.this.put(id, tag, value);
+        }
+
+        /**
+         * Удалить задачу (без упаковки идентификатора)
+         *
+         * @return Удаленная задача или null, если задачи не было
+         */
+        @SuppressWarnings("unchecked")
+        public T remove(int id) {
+            return (T) DenseTaskStore.this.remove(id, tag);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T get(Object key) {
+            return key instanceof Integer id ? (T) DenseTaskStore.this.get(id, tag) : null;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return get(key) != null;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T put(Integer key, T value) {
+            return (T) DenseTaskStore.this.put(key, tag, value);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T remove(Object key) {
+            return key instanceof Integer id ? (T) DenseTaskStore.this.remove(id, tag) : null;
+        }
+
+        @Override
+        public int size() {
+            return counts[tag];
+        }
+
+        @Override
+        public void clear() {
+            DenseTaskStore.this.clear(tag);
+        }
+
+        @Override
+        public Collection<T> values() {
+            return new AbstractCollection<>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public Iterator<T> iterator() {
+                    return new SlotIterator<>(tag, id -> (T) slots[id]);
+                }
+
+                @Override
+                public int size() {
+                    return counts[tag];
+                }
+
+                @Override
+                @SuppressWarnings("unchecked")
+                public void forEach(Consumer<? super T> action) {
+                    for (int id = nextSlot(0, tag); id < limit; id = nextSlot(id + 1, tag)) {
+                        action.accept((T) slots[id]);
+                    }
+                }
+            };
+        }
+
+        @Override
+        public Set<Entry<Integer, T>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public Iterator<Entry<Integer, T>> iterator() {
+                    return new SlotIterator<>(tag, id -> new SimpleImmutableEntry<>(id, (T) slots[id]));
+                }
+
+                @Override
+                public int size() {
+                    return counts[tag];
+                }
+            };
+        }
+    }
+
+    /**
+     * Преобразование занятой ячейки в элемент обхода
+     */
+    private interface SlotMapper<E> {
+        E map(int id);
+    }
+
+    /**
+     * Обход занятых ячеек с меткой в порядке возрастания идентификаторов (с поддержкой удаления)
+     */
+    private final class SlotIterator<E> implements Iterator<E> {
+        private final byte tag;
+        private final SlotMapper<E> mapper;
+        private int next;
+        private int last = -1;
+
+        private SlotIterator(byte tag, SlotMapper<E> mapper) {
+            this.tag = tag;
+            this.mapper = mapper;
+            next = nextSlot(0, tag);
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next < limit;
+        }
+
+        @Override
+        public E next() {
+            if (next >= limit) {
+                throw new NoSuchElementException();
+            }
+            last = next;
+            next = nextSlot(next + 1, tag);
+            return mapper.map(last);
+        }
+
+        @Override
+        public void remove() {
+            if (last < 0) {
+                throw new IllegalStateException();
+            }
+            DenseTaskStore.this.remove(last, tag);
+            last = -1;
+        }
+    }
+}
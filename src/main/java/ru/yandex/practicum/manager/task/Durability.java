@@ -0,0 +1,23 @@
+package ru.yandex.practicum.manager.task;
+
+/**
+ * Уровень надежности сохранения состояния {@link FileBackedTaskManager}: когда записанные данные принудительно
+ * сбрасываются на диск (fsync). Без сброса данные могут быть потеряны при сбое операционной системы или питания,
+ * но не при аварийном завершении самого приложения.
+ */
+public enum Durability {
+    /**
+     * Данные не сбрасываются на диск принудительно - это делает операционная система
+     */
+    NONE,
+    /**
+     * Данные сбрасываются на диск при каждой записи
+     */
+    PER_FLUSH,
+    /**
+     * Данные сбрасываются на диск не чаще, чем раз в заданный интервал: при первой записи после окончания
+     * интервала, а данные, записанные внутри интервала, - фоновой задачей по его окончании
+     * (или при закрытии менеджера). При сбое теряются данные не более чем за один интервал.
+     */
+    PER_INTERVAL
+}
@@ -1,11 +1,44 @@
 package ru.yandex.practicum.manager.task;
 
 import ru.yandex.practicum.exception.ManagerSaveException;
+import ru.yandex.practicum.manager.Managers;
+import ru.yandex.practicum.manager.history.HistoryManager;
+import ru.yandex.practicum.manager.id.IdAllocator;
+import ru.yandex.practicum.manager.task.format.DescriptionStore;
+import ru.yandex.practicum.manager.task.format.LoadStats;
+import ru.yandex.practicum.manager.task.format.MappedCsvLoader;
+import ru.yandex.practicum.manager.task.format.ParallelCsvLoader;
+import ru.yandex.practicum.manager.task.format.SnapshotFormat;
+import ru.yandex.practicum.manager.task.format.TaskExporter;
+import ru.yandex.practicum.manager.task.format.TaskReader;
+import ru.yandex.practicum.manager.task.format.TaskWriter;
 import ru.yandex.practicum.model.*;
 
 import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
-public class FileBackedTaskManager extends InMemoryTaskManager {
+public class FileBackedTaskManager extends InMemoryTaskManager implements AutoCloseable {
 
     /**
      * Файл с состоянием менеджера
@@ -17,6 +50,77 @@ public class FileBackedTaskManager extends InMemoryTaskManager {
      */
     public static final String defaultStateFilename = "tasks.csv";
 
+    /**
+     * Размер файла в формате CSV, начиная с которого он загружается параллельно
+     */
+    public static final long parallelLoadThreshold = 16 * 1024 * 1024;
+
+    /**
+     * Формат файла с состоянием менеджера
+     */
+    private SnapshotFormat snapshotFormat;
+
+    /**
+     * Статистика последней загрузки состояния
+     */
+    private LoadStats lastLoadStats;
+
+    /**
+     * Уровень надежности сохранения состояния
+     */
+    private Durability durability = Durability.NONE;
+
+    /**
+     * Интервал сброса данных на диск для {@link Durability#PER_INTERVAL}
+     */
+    private Duration syncInterval = Duration.ZERO;
+
+    /**
+     * Момент последнего сброса данных на диск (в терминах {@link System#nanoTime()})
+     */
+    private long lastSyncNanos = System.nanoTime();
+
+    /**
+     * Файлы, записанные в режиме {@link Durability#PER_INTERVAL} без сброса на диск.
+     * Сбрасываются отложенной задачей по окончании интервала или при {@link #close()}
+     */
+    private final Set<Path> unsyncedFiles = new HashSet<>();
+
+    /**
+     * Запланированный отложенный сброс на диск (null, если не запланирован)
+     */
+    private ScheduledFuture<?> pendingSync = null;
+
+    /**
+     * Ошибка отложенного сброса на диск, сообщаемая при следующей записи
+     */
+    private IOException deferredSyncError = null;
+
+    /**
+     * Поток отложенного сброса на диск, общий для всех менеджеров
+     */
+    private static final ScheduledExecutorService syncScheduler = Executors.newSingleThreadScheduledExecutor(
+            runnable -> {
+                Thread thread = new Thread(runnable, "state-sync");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    /**
+     * Изменения, выполненные внутри текущей пакетной операции (null вне пакетной операции)
+     */
+    private List<StateChange> batchChanges = null;
+
+    /**
+     * Размер кэша описаний при загрузке с чтением описаний по требованию (0 - описания загружаются сразу)
+     */
+    private int descriptionCacheSize = 0;
+
+    /**
+     * Хранилища описаний загруженных файлов, читаемых по требованию
+     */
+    private final List<DescriptionStore> descriptionStores = new ArrayList<>();
+
     /**
      * Конструктор
      */
@@ -24,71 +128,446 @@ public class FileBackedTaskManager extends InMemoryTaskManager {
         this(new File(defaultStateFilename));
     }
 
+    /**
+     * Конструктор
+     *
+     * @param snapshotFormat - формат файла с состоянием менеджера
+     */
+    public FileBackedTaskManager(SnapshotFormat snapshotFormat) {
+        this(new File(defaultStateFilename), snapshotFormat);
+    }
+
     /**
      * Конструктор
      *
      * @param stateFile - файл для хранения состояния менеджера
      */
     FileBackedTaskManager(File stateFile) {
+        this(stateFile, SnapshotFormat.CSV);
+    }
+
+    /**
+     * Конструктор
+     *
+     * @param stateFile - файл для хранения состояния менеджера
+     * @param snapshotFormat - формат файла с состоянием менеджера
+     */
+    FileBackedTaskManager(File stateFile, SnapshotFormat snapshotFormat) {
         this.stateFile = stateFile;
+        this.snapshotFormat = snapshotFormat;
+    }
+
+    /**
+     * Конструктор
+     *
+     * @param idAllocator - источник идентификаторов задач
+     */
+    public FileBackedTaskManager(IdAllocator idAllocator) {
+        this(new File(defaultStateFilename), SnapshotFormat.CSV, idAllocator);
+    }
+
+    /**
+     * Конструктор
+     *
+     * @param stateFile - файл для хранения состояния менеджера
+     * @param snapshotFormat - формат файла с состоянием менеджера
+     * @param idAllocator - источник идентификаторов задач
+     */
+    FileBackedTaskManager(File stateFile, SnapshotFormat snapshotFormat, IdAllocator idAllocator) {
+        this(stateFile, snapshotFormat, idAllocator, Managers.getDefaultHistory());
+    }
+
+    /**
+     * Конструктор
+     *
+     * @param stateFile - файл для хранения состояния менеджера
+     * @param snapshotFormat - формат файла с состоянием менеджера
+     * @param idAllocator - источник идентификаторов задач
+     * @param historyManager - менеджер истории просмотров
+     */
+    FileBackedTaskManager(File stateFile, SnapshotFormat snapshotFormat, IdAllocator idAllocator,
+                          HistoryManager historyManager) {
+        super(idAllocator, historyManager);
+        this.stateFile = stateFile;
+        this.snapshotFormat = snapshotFormat;
     }
 
     /**
      * Сохранить состояние менеджера в файл
+     * <p>
+     * Выгрузка выполняется под блокировкой менеджера, поэтому изменения из других потоков не попадают
+     * в файл частично (например, подзадача без своего эпика)
      */
-    public void save() {
+    public synchronized void save() {
+        // задачи выгружаются напрямую из хранилищ, без создания копий списков задач
         try {
-            try (FileWriter writer = new FileWriter(stateFile, false)) {
-                // 1. запись шапки csv
-                writer.write("id,type,name,status,description,epic\n");
-                // 2. сохранение задач
-                for (Task task : getTasks()) {
-                    writer.write(toString(task) + "\n");
+            writeAtomically(stateFile, output -> TaskExporter.export(this, snapshotFormat, output));
+        } catch (IOException e) {
+            throw new ManagerSaveException("Произошла ошибка во время сохранения состояния менеджера", e);
+        }
+    }
+
+    /**
+     * Записать состояние менеджера в указанный файл
+     * @param file Файл
+     * @param tasks Задачи
+     * @param epics Эпики
+     * @param subtasks Подзадачи
+     */
+    protected void writeState(File file, Collection<? extends Task> tasks, Collection<? extends Task> epics,
+                              Collection<? extends Task> subtasks) {
+        try {
+            writeAtomically(file, output -> {
+                try (TaskWriter writer = snapshotFormat.createWriter(output)) {
+                    // 1. сохранение задач
+                    for (Task task : tasks) {
+                        writer.write(task);
+                    }
+                    // 2. сохранение эпиков.
+                    // эпики сохраняются раньше, чем подзадачи, чтобы при загрузке подзадач эпики уже были вычитаны
+                    for (Task task : epics) {
+                        writer.write(task);
+                    }
+                    // 3. сохранение подзадач
+                    for (Task task : subtasks) {
+                        writer.write(task);
+                    }
                 }
-                // 3. сохранение эпиков.
-                // эпики сохраняются раньше, чем подзадачи, чтобы при загрузке подзадач из файла эпики уже были вычитаны
-                for (Task task : getEpics()) {
-                    writer.write(toString(task) + "\n");
+            });
+        } catch (IOException e) {
+            throw new ManagerSaveException("Произошла ошибка во время сохранения состояния менеджера", e);
+        }
+    }
+
+    /**
+     * Запись содержимого файла в поток
+     */
+    @FunctionalInterface
+    protected interface ContentWriter {
+        /**
+         * Записать содержимое и закрыть поток
+         */
+        void write(OutputStream output) throws IOException;
+    }
+
+    /**
+     * Атомарно заменить содержимое файла: содержимое пишется во временный файл, который затем переименовывается
+     * в целевой. Сбой во время записи не повреждает предыдущее содержимое файла и не оставляет временный файл.
+     * У каждой записи свой временный файл, поэтому одновременные записи одного файла не мешают друг другу.
+     * Временный файл и каталог сбрасываются на диск согласно {@link #getDurability()}.
+     */
+    protected void writeAtomically(File file, ContentWriter writer) throws IOException {
+        Path target = file.toPath();
+        Path tempFile = target.resolveSibling(target.getFileName() + "."
+                + Long.toUnsignedString(ThreadLocalRandom.current().nextLong(), 36) + ".tmp");
+        try {
+            try (OutputStream output = Files.newOutputStream(tempFile, StandardOpenOption.CREATE_NEW,
+                    StandardOpenOption.WRITE)) {
+                writer.write(output);
+            }
+            boolean sync = shouldSync(target);
+            if (sync) {
+                try (FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.WRITE)) {
+                    channel.force(true);
                 }
-                // 4. сохранение подзадач
-                for (Task task : getSubtasks()) {
-                    writer.write(toString(task) + "\n");
+            }
+            // открытый файл нельзя заменить на части платформ, поэтому хранилища описаний закрываются заранее
+            releaseDescriptions(file);
+            try {
+                Files.move(tempFile, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFile, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+            if (sync) {
+                syncDirectory(target.toAbsolutePath().getParent());
+            }
+        } catch (IOException | RuntimeException e) {
+            try {
+                Files.deleteIfExists(tempFile);
+            } catch (IOException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Закрыть хранилища описаний, читаемых из указанного файла: перед закрытием описания задач,
+     * ссылающиеся на эти хранилища, читаются и далее хранятся в задачах
+     *
+     * @param file Файл (null - все файлы)
+     */
+    protected synchronized void releaseDescriptions(File file) throws IOException {
+        List<DescriptionStore> released = new ArrayList<>();
+        for (DescriptionStore store : descriptionStores) {
+            if (file == null || store.isReading(file)) {
+                released.add(store);
+            }
+        }
+        if (released.isEmpty()) {
+            return;
+        }
+        Consumer<Task> resolve = task -> {
+            for (DescriptionStore store : released) {
+                if (store.owns(task.getDescriptionSource())) {
+                    task.resolveDescription();
+                    return;
                 }
             }
+        };
+        tasks.values().forEach(resolve);
+        epics.values().forEach(resolve);
+        subtasks.values().forEach(resolve);
+        descriptionStores.removeAll(released);
+        for (DescriptionStore store : released) {
+            store.close();
+        }
+    }
+
+    /**
+     * Сбросить на диск данные, записанные в режиме {@link Durability#PER_INTERVAL} внутри текущего интервала,
+     * и закрыть файлы, из которых читаются описания задач. Описания сохраняются в задачах,
+     * поэтому менеджер остается работоспособным.
+     */
+    @Override
+    public void close() {
+        ScheduledFuture<?> sync;
+        synchronized (this) {
+            sync = pendingSync;
+        }
+        if (sync != null) {
+            // данные, записанные внутри интервала, сбрасываются на диск сразу
+            sync.cancel(false);
+            syncUnsyncedFiles();
+        }
+        try {
+            releaseDescriptions(null);
         } catch (IOException e) {
-            throw new ManagerSaveException("Произошла ошибка во время сохранения состояния менеджера", e);
+            throw new ManagerSaveException("Не удалось закрыть файлы описаний задач", e);
+        }
+    }
+
+    /**
+     * Нужно ли сбросить записанные данные на диск согласно уровню надежности.
+     * Для {@link Durability#PER_INTERVAL} внутри интервала файл не сбрасывается сразу, а запоминается
+     * и сбрасывается отложенной задачей по окончании интервала.
+     *
+     * @param file Записываемый файл
+     * @throws IOException Ошибка предыдущего отложенного сброса на диск
+     */
+    protected synchronized boolean shouldSync(Path file) throws IOException {
+        if (deferredSyncError != null) {
+            IOException error = deferredSyncError;
+            deferredSyncError = null;
+            throw new IOException("Не удалось сбросить на диск ранее записанные данные", error);
+        }
+        switch (durability) {
+            case PER_FLUSH:
+                return true;
+            case PER_INTERVAL:
+                long now = System.nanoTime();
+                long interval = syncInterval.toNanos();
+                if (now - lastSyncNanos >= interval) {
+                    lastSyncNanos = now;
+                    unsyncedFiles.remove(file);
+                    return true;
+                }
+                unsyncedFiles.add(file);
+                if (pendingSync == null) {
+                    pendingSync = syncScheduler.schedule(this::syncUnsyncedFiles,
+                            interval - (now - lastSyncNanos), TimeUnit.NANOSECONDS);
+                }
+                return false;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Сбросить на диск файлы, записанные без сброса в режиме {@link Durability#PER_INTERVAL}
+     */
+    private void syncUnsyncedFiles() {
+        List<Path> files;
+        synchronized (this) {
+            files = new ArrayList<>(unsyncedFiles);
+            unsyncedFiles.clear();
+            pendingSync = null;
+            lastSyncNanos = System.nanoTime();
+        }
+        for (Path file : files) {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                channel.force(true);
+            } catch (NoSuchFileException e) {
+                // файл заменен или удален: новое содержимое сбрасывается при его записи
+                continue;
+            } catch (IOException e) {
+                synchronized (this) {
+                    deferredSyncError = e;
+                }
+                continue;
+            }
+            syncDirectory(file.toAbsolutePath().getParent());
+        }
+    }
+
+    /**
+     * Сбросить на диск каталог, чтобы переименование файла в нем пережило сбой
+     * @implNote Поддерживается не всеми операционными системами (например, Windows не позволяет открыть каталог),
+     * в этом случае сброс каталога пропускается
+     */
+    private static void syncDirectory(Path directory) {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // сброс каталога не поддерживается
         }
     }
 
+    /**
+     * Установить уровень надежности сохранения
+     * @param durability {@link Durability#NONE} или {@link Durability#PER_FLUSH}
+     */
+    public synchronized void setDurability(Durability durability) {
+        setDurability(durability, Duration.ZERO);
+    }
+
+    /**
+     * Установить уровень надежности сохранения
+     * @param durability Уровень надежности
+     * @param syncInterval Интервал сброса данных на диск для {@link Durability#PER_INTERVAL}
+     */
+    public synchronized void setDurability(Durability durability, Duration syncInterval) {
+        this.durability = durability;
+        this.syncInterval = syncInterval;
+    }
+
+    public synchronized Durability getDurability() {
+        return durability;
+    }
+
+    /**
+     * Количество файлов, записанных в режиме {@link Durability#PER_INTERVAL} и ожидающих сброса на диск
+     */
+    public synchronized int getUnsyncedFileCount() {
+        return unsyncedFiles.size();
+    }
+
     /**
      * Загрузить состояние менеджера из файла
+     * Формат файла определяется по его содержимому, последующие сохранения выполняются в том же формате.
      */
     public void load() throws IOException {
-        try (FileReader fileReader = new FileReader(stateFile);
-             BufferedReader reader = new BufferedReader(fileReader)) {
-            // 1. чтение шапки csv
-            reader.readLine();
-            // 2. загрузка задач
-            String line;
-            while ((line = reader.readLine()) != null) {
-                Task task = fromString(line);
-                // Добавление задачи в соответствующий словарь, т.к.:
-                // 1. считаем что состояние было сохранено/загружено корректно
-                // 2. добавление задач через методы addTask/addSubtask/addEpic приводит к перегенерации идентификаторов
-                //    и прочим сайд-эффектам
-                if (task instanceof Epic) {
-                    epics.put(task.getId(), (Epic) task);
-                } else if (task instanceof Subtask) {
-                    Subtask subtask = (Subtask) task;
-                    subtasks.put(subtask.getId(), subtask);
-                    // добавляем информацию о подзадаче в соответствующий эпик, т.к. связь двусторонняя
-                    // между эпиком его подзадачами.
-                    epics.get(subtask.getEpicId()).addSubtask(subtask.getId());
-                } else {
-                    tasks.put(task.getId(), task);
-                }
+        snapshotFormat = SnapshotFormat.detect(stateFile);
+        if (snapshotFormat == SnapshotFormat.CSV && stateFile.length() >= parallelLoadThreshold
+                && descriptionCacheSize == 0 && ForkJoinPool.getCommonPoolParallelism() > 1) {
+            loadParallel(ForkJoinPool.commonPool());
+            return;
+        }
+        long start = System.nanoTime();
+        long rows = readFile(stateFile, snapshotFormat);
+        linkSubtasks();
+        lastLoadStats = new LoadStats(rows, stateFile.length(), System.nanoTime() - start);
+    }
+
+    /**
+     * Прочитать задачи из файла в словари менеджера, не связывая подзадачи с эпиками
+     * @return Количество прочитанных задач
+     */
+    protected long readFile(File file, SnapshotFormat format) throws IOException {
+        if (format == SnapshotFormat.CSV) {
+            // файл в формате CSV разбирается прямо в отображенной в память области
+            DescriptionStore descriptions = null;
+            if (descriptionCacheSize > 0) {
+                descriptions = new DescriptionStore(file, descriptionCacheSize);
+                descriptionStores.add(descriptions);
+            }
+            return MappedCsvLoader.load(file, descriptions, this::collect).rows();
+        }
+        long rows = 0;
+        try (TaskReader reader = format.createReader(new FileInputStream(file))) {
+            Task task;
+            while ((task = reader.read()) != null) {
+                collect(task);
+                rows++;
             }
         }
+        return rows;
+    }
+
+    /**
+     * Загрузить состояние менеджера из файла в формате CSV, разбирая файл параллельно в указанном пуле потоков
+     */
+    public void loadParallel(ForkJoinPool pool) throws IOException {
+        long start = System.nanoTime();
+        snapshotFormat = SnapshotFormat.CSV;
+        // 1. параллельный разбор участков файла, 2. объединение результатов участков
+        long rows = ParallelCsvLoader.load(stateFile, pool, chunk -> chunk.forEach(this::collect)).rows();
+        // 3. связывание подзадач с эпиками
+        linkSubtasks();
+        lastLoadStats = new LoadStats(rows, stateFile.length(), System.nanoTime() - start);
+    }
+
+    /**
+     * Добавить загруженную задачу в соответствующий словарь, не связывая подзадачи с эпиками
+     * (связывание выполняется после загрузки всех задач, поэтому порядок задач в файле не важен)
+     */
+    protected void collect(Task task) {
+        internStrings(task);
+        if (task instanceof Epic) {
+            epics.put(task.getId(), (Epic) task);
+        } else if (task instanceof Subtask) {
+            subtasks.put(task.getId(), (Subtask) task);
+        } else {
+            tasks.put(task.getId(), task);
+        }
+        reserveId(task.getId());
+    }
+
+    /**
+     * Добавить информацию о загруженных подзадачах в соответствующие эпики, т.к. связь двусторонняя
+     * между эпиком его подзадачами.
+     */
+    protected void linkSubtasks() throws IOException {
+        for (Subtask subtask : subtasks.values()) {
+            Epic epic = epics.get(subtask.getEpicId());
+            if (epic == null) {
+                throw new IOException("Не найден эпик " + subtask.getEpicId() + " подзадачи " + subtask.getId());
+            }
+            epic.addSubtask(subtask.getId(), subtask.getState());
+        }
+    }
+
+    /**
+     * Восстановить задачу, прочитанную из файла
+     * @implNote Добавление задачи выполняется в соответствующий словарь напрямую, т.к.:
+     * 1. считаем что состояние было сохранено/загружено корректно
+     * 2. добавление задач через методы addTask/addSubtask/addEpic приводит к перегенерации идентификаторов
+     *    и прочим сайд-эффектам
+     */
+    protected void restore(Task task) {
+        internStrings(task);
+        if (task instanceof Epic) {
+            Epic epic = (Epic) task;
+            Epic previous = epics.put(epic.getId(), epic);
+            if (previous != null) {
+                // эпик обновлен повторно - подзадачи переносятся из предыдущей версии эпика
+                epic.replaceSubtasks(previous);
+            }
+        } else if (task instanceof Subtask) {
+            Subtask subtask = (Subtask) task;
+            Subtask previous = subtasks.put(subtask.getId(), subtask);
+            // добавляем информацию о подзадаче в соответствующий эпик, т.к. связь двусторонняя
+            // между эпиком его подзадачами.
+            Epic epic = epics.get(subtask.getEpicId());
+            if (previous != null && epic.containsSubtask(subtask.getId())) {
+                epic.changeSubtaskState(subtask.getId(), subtask.getState());
+            } else {
+                epic.addSubtask(subtask.getId(), subtask.getState());
+            }
+        } else {
+            tasks.put(task.getId(), task);
+        }
+        reserveId(task.getId());
     }
 
     /**
@@ -103,39 +582,60 @@ public class FileBackedTaskManager extends InMemoryTaskManager {
     }
 
     /**
-     * Привести {@link Task} к строковому представлению.
+     * Создать менеджер и восстановить его состояние из файла.
+     * Идентификаторы загруженных задач учитываются источником идентификаторов и не выдаются повторно.
+     *
+     * @param idAllocator - источник идентификаторов задач (например, общий для нескольких процессов
+     *                    {@link ru.yandex.practicum.manager.id.LeasingIdAllocator})
      */
-    private String toString(Task task) {
-        TaskType taskType = TaskType.valueOf(task.getClass().getSimpleName().toUpperCase());
-        String result = String.format("%d,%s,%s,%s,%s", task.getId(), taskType, task.getName(), task.getState(), task.getDescription());
-        if (taskType == TaskType.SUBTASK) {
-            // в случае подзадачи пишем идентификатор эпика
-            result += "," + ((Subtask) task).getEpicId();
-        }
+    public static FileBackedTaskManager loadFromFile(File file, IdAllocator idAllocator) throws IOException {
+        FileBackedTaskManager result = new FileBackedTaskManager(file, SnapshotFormat.CSV, idAllocator);
+        result.load();
         return result;
     }
 
     /**
-     * Получить {@link Task} по её строковому представлению.
+     * Создать менеджер и восстановить его состояние из файла, не загружая описания задач:
+     * описания читаются из файла при обращении к ним и кэшируются
+     *
+     * @param descriptionCacheSize - количество описаний в кэше
      */
-    private Task fromString(String value) {
-        String[] parts = value.split(",");
+    public static FileBackedTaskManager loadFromFile(File file, int descriptionCacheSize) throws IOException {
+        FileBackedTaskManager result = new FileBackedTaskManager(file);
+        result.setLazyDescriptions(descriptionCacheSize);
+        result.load();
+        return result;
+    }
 
-        int id = Integer.parseInt(parts[0]);
-        TaskType taskType = TaskType.valueOf(parts[1]);
-        String name = parts[2];
-        TaskState state = TaskState.valueOf(parts[3]);
-        String description = parts[4];
+    /**
+     * Создать менеджер и восстановить его состояние из файла, храня названия и описания задач в пуле строк
+     *
+     * @param stringPool - пул строк (может быть общим для нескольких менеджеров)
+     */
+    public static FileBackedTaskManager loadFromFile(File file, StringPool stringPool) throws IOException {
+        FileBackedTaskManager result = new FileBackedTaskManager(file);
+        result.setStringPool(stringPool);
+        result.load();
+        return result;
+    }
 
-        switch (taskType) {
-            case EPIC:
-                return new Epic(id, state, name, description);
-            case SUBTASK:
-                int epicId = Integer.parseInt(parts[5]);
-                return new Subtask(id, state, name, description, epicId);
-            default:
-                return new Task(id, state, name, description);
-        }
+    /**
+     * Включить чтение описаний по требованию при последующих загрузках состояния.
+     * Поддерживается только для файлов в формате CSV, из файлов в двоичном формате описания загружаются сразу.
+     * Загруженные файлы остаются открытыми до сохранения состояния в тот же файл или до вызова {@link #close()},
+     * после чего описания хранятся в задачах.
+     *
+     * @param descriptionCacheSize Количество описаний в кэше (0 - загружать описания сразу)
+     */
+    public void setLazyDescriptions(int descriptionCacheSize) {
+        this.descriptionCacheSize = descriptionCacheSize;
+    }
+
+    /**
+     * Получить хранилища описаний, читаемых по требованию (по одному на загруженный файл)
+     */
+    public List<DescriptionStore> getDescriptionStores() {
+        return descriptionStores;
     }
 
     /*
@@ -144,95 +644,254 @@ public class FileBackedTaskManager extends InMemoryTaskManager {
         получить от класса-родителя желаемую логику работы менеджера. Останется только дописать в некоторых местах
         вызовы метода автосохранения."
         выполнен override методов, изменяющих состояние менеджера
+        Методы синхронизированы, чтобы наследники могли сохранять состояние в фоновом потоке.
+     */
+
+    /**
+     * Сохранить изменения состояния менеджера.
+     * Базовая реализация сохраняет состояние менеджера целиком, наследники могут сохранять только сами изменения.
+     * @param changes Изменения, выполненные одним вызовом метода менеджера
+     */
+    protected void persist(StateChange... changes) {
+        save();
+    }
+
+    /**
+     * Сохранить изменения или, внутри пакетной операции, отложить их сохранение до её окончания
+     */
+    private void changed(StateChange... changes) {
+        if (batchChanges != null) {
+            Collections.addAll(batchChanges, changes);
+        } else {
+            persist(changes);
+        }
+    }
+
+    /**
+     * Выполнить пакетную операцию: статусы затронутых эпиков пересчитываются один раз, а все изменения
+     * сохраняются одним вызовом {@link #persist(StateChange...)} после окончания операции.
+     * Если операция прервана ошибкой, изменения, выполненные до ошибки, остались в памяти и тоже сохраняются
+     */
+    @Override
+    protected synchronized <T> T inBatch(Supplier<T> action) {
+        if (batchChanges != null) {
+            return super.inBatch(action);
+        }
+        batchChanges = new ArrayList<>();
+        try {
+            return super.inBatch(action);
+        } finally {
+            List<StateChange> changes = batchChanges;
+            batchChanges = null;
+            if (!changes.isEmpty()) {
+                persist(changes.toArray(new StateChange[0]));
+            }
+        }
+    }
+
+    @Override
+    protected synchronized int getBatchChangeCount() {
+        return batchChanges == null ? 0 : batchChanges.size();
+    }
+
+    /**
+     * Отбросить изменения, накопленные в текущей пакетной операции начиная с from (изменения в памяти уже отменены)
      */
+    @Override
+    protected synchronized void discardBatchChanges(int from) {
+        if (batchChanges != null) {
+            batchChanges.subList(from, batchChanges.size()).clear();
+        }
+    }
 
     @Override
-    public void clearTasks() {
+    public synchronized void clearTasks() {
         super.clearTasks();
-        save();
+        changed(StateChange.clear(TaskType.TASK));
     }
 
     @Override
-    public int addTask(Task task) {
+    public synchronized int addTask(Task task) {
         int result = super.addTask(task);
-        save();
+        changed(StateChange.put(task));
         return result;
     }
 
     @Override
-    public boolean updateTask(Task task) {
+    public synchronized boolean updateTask(Task task) {
         if (super.updateTask(task)) {
-            save();
+            changed(StateChange.put(task));
             return true;
         }
         return false;
     }
 
     @Override
-    public boolean removeTask(int id) {
+    public synchronized boolean removeTask(int id) {
         if (super.removeTask(id)) {
-            save();
+            changed(StateChange.remove(TaskType.TASK, id));
             return true;
         }
         return false;
     }
 
     @Override
-    public void clearEpics() {
+    public synchronized void clearEpics() {
         super.clearEpics();
-        save();
+        changed(StateChange.clear(TaskType.EPIC));
     }
 
     @Override
-    public int addEpic(Epic epic) {
+    public synchronized int addEpic(Epic epic) {
         int result = super.addEpic(epic);
-        save();
+        changed(StateChange.put(epic));
         return result;
     }
 
     @Override
-    public boolean updateEpic(Epic epic) {
+    public synchronized boolean updateEpic(Epic epic) {
         if (super.updateEpic(epic)) {
-            save();
+            changed(StateChange.put(epic));
             return true;
         }
         return false;
     }
 
     @Override
-    public boolean removeEpic(int id) {
+    public synchronized boolean removeEpic(int id) {
+        Epic epic = epics.get(id);
+        // удаление подзадач эпика сохраняется явно, т.к. они удаляются вместе с эпиком
+        List<StateChange> changes = new ArrayList<>();
+        if (epic != null) {
+            epic.getSubtasks().forEach(stId -> changes.add(StateChange.remove(TaskType.SUBTASK, stId)));
+        }
         if (super.removeEpic(id)) {
-            save();
+            changes.add(StateChange.remove(TaskType.EPIC, id));
+            changed(changes.toArray(new StateChange[0]));
             return true;
         }
         return false;
     }
 
     @Override
-    public void clearSubtasks() {
+    public synchronized void clearSubtasks() {
         super.clearSubtasks();
-        save();
+        changed(StateChange.clear(TaskType.SUBTASK));
     }
 
     @Override
-    public boolean updateSubtask(Subtask subtask) {
+    public synchronized Integer addSubtask(Subtask subtask) {
+        Integer result = super.addSubtask(subtask);
+        if (result != null) {
+            changed(StateChange.put(subtask), StateChange.put(epics.get(subtask.getEpicId())));
+        }
+        return result;
+    }
+
+    @Override
+    public synchronized boolean updateSubtask(Subtask subtask) {
         if (super.updateSubtask(subtask)) {
-            save();
+            changed(StateChange.put(subtask), StateChange.put(epics.get(subtask.getEpicId())));
             return true;
         }
         return false;
     }
 
     @Override
-    public boolean removeSubtask(int id) {
+    public synchronized boolean removeSubtask(int id) {
+        Subtask subtask = subtasks.get(id);
         if (super.removeSubtask(id)) {
-            save();
+            changed(StateChange.remove(TaskType.SUBTASK, id), StateChange.put(epics.get(subtask.getEpicId())));
             return true;
         }
         return false;
     }
 
+    // чтение выполняется под той же блокировкой, что и изменения, поэтому менеджер можно использовать
+    // из нескольких потоков (например, через AsyncTaskManager)
+
+    @Override
+    public synchronized List<Task> getTasks() {
+        return super.getTasks();
+    }
+
+    @Override
+    public synchronized Task getTask(int id) {
+        return super.getTask(id);
+    }
+
+    @Override
+    public synchronized List<Epic> getEpics() {
+        return super.getEpics();
+    }
+
+    @Override
+    public synchronized Epic getEpic(int id) {
+        return super.getEpic(id);
+    }
+
+    @Override
+    public synchronized List<Subtask> getEpicSubtasks(int id) {
+        return super.getEpicSubtasks(id);
+    }
+
+    @Override
+    public synchronized List<Subtask> getSubtasks() {
+        return super.getSubtasks();
+    }
+
+    @Override
+    public synchronized Subtask getSubtask(int id) {
+        return super.getSubtask(id);
+    }
+
+    @Override
+    public synchronized List<Task> getHistory() {
+        return super.getHistory();
+    }
+
+    @Override
+    public synchronized void forEachTask(Consumer<? super Task> action) {
+        super.forEachTask(action);
+    }
+
+    @Override
+    public synchronized void forEachEpic(Consumer<? super Epic> action) {
+        super.forEachEpic(action);
+    }
+
+    @Override
+    public synchronized void forEachSubtask(Consumer<? super Subtask> action) {
+        super.forEachSubtask(action);
+    }
+
     public File getStateFile() {
         return stateFile;
     }
+
+    public SnapshotFormat getSnapshotFormat() {
+        return snapshotFormat;
+    }
+
+    /**
+     * Установить формат, в котором будут выполняться последующие сохранения
+     */
+    protected void setSnapshotFormat(SnapshotFormat snapshotFormat) {
+        this.snapshotFormat = snapshotFormat;
+    }
+
+    /**
+     * Установить статистику последней загрузки состояния
+     */
+    protected void setLastLoadStats(LoadStats lastLoadStats) {
+        this.lastLoadStats = lastLoadStats;
+    }
+
+    /**
+     * Получить статистику последней загрузки состояния
+     * @return Статистика или null, если состояние не загружалось
+     */
+    public LoadStats getLastLoadStats() {
+        return lastLoadStats;
+    }
 }
@@ -2,14 +2,23 @@ package ru.yandex.practicum.manager.task;
 
 import ru.yandex.practicum.manager.Managers;
 import ru.yandex.practicum.manager.history.HistoryManager;
+import ru.yandex.practicum.manager.id.AtomicIdAllocator;
+import ru.yandex.practicum.manager.id.IdAllocator;
 import ru.yandex.practicum.model.Epic;
+import ru.yandex.practicum.model.StringPool;
 import ru.yandex.practicum.model.Subtask;
 import ru.yandex.practicum.model.Task;
 import ru.yandex.practicum.model.TaskState;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 /**
  * Менеджер задач.
@@ -20,40 +29,135 @@ import java.util.List;
  */
 public class InMemoryTaskManager implements TaskManager {
     /**
-     * Значение для следующего идентификатора.
+     * Источник идентификаторов
      */
-    private int nextId = 0;
+    private final IdAllocator idAllocator;
 
     /**
      * Задачи
      */
-    protected final HashMap<Integer, Task> tasks = new HashMap<>();
+    protected final Map<Integer, Task> tasks;
 
     /**
      * Эпики
      */
-    protected final HashMap<Integer, Epic> epics = new HashMap<>();
+    protected final Map<Integer, Epic> epics;
 
     /**
      * Подзадачи эпиков
      *
-     * @implNote Добавление и удаление подзадач делегировано {@link Epic} для синхронности данной HashMap и
+     * @implNote Добавление и удаление подзадач делегировано {@link Epic} для синхронности данного словаря и
      * списков подзадач внутри эпиков
      */
-    protected final HashMap<Integer, Subtask> subtasks = new HashMap<>();
+    protected final Map<Integer, Subtask> subtasks;
 
     /**
      * Менеджер, отвечающий за хранение истории просмотров задач
      */
-    private final HistoryManager historyManager = Managers.getDefaultHistory();
+    private final HistoryManager historyManager;
+
+    /**
+     * Идентификаторы эпиков, пересчет статусов которых отложен до окончания пакетной операции
+     * (null вне пакетной операции)
+     */
+    private Set<Integer> deferredEpics = null;
+
+    /**
+     * Пул строк для названий и описаний задач (null - строки хранятся как есть)
+     */
+    private StringPool stringPool = null;
+
+    /**
+     * Конструктор. Идентификаторы выдаются последовательно, начиная с 0
+     */
+    public InMemoryTaskManager() {
+        this(new AtomicIdAllocator());
+    }
+
+    /**
+     * Конструктор
+     *
+     * @param idAllocator - источник идентификаторов задач
+     */
+    public InMemoryTaskManager(IdAllocator idAllocator) {
+        this(idAllocator, Managers.getDefaultHistory());
+    }
+
+    /**
+     * Конструктор
+     *
+     * @param idAllocator - источник идентификаторов задач
+     * @param historyManager - менеджер истории просмотров (может быть общим для нескольких менеджеров задач)
+     */
+    public InMemoryTaskManager(IdAllocator idAllocator, HistoryManager historyManager) {
+        this(idAllocator, historyManager, new HashMap<>(), new HashMap<>(), new HashMap<>());
+    }
+
+    /**
+     * Конструктор для менеджеров с другим способом хранения задач (например, {@link DenseInMemoryTaskManager})
+     *
+     * @param tasks - пустой словарь для хранения задач
+     * @param epics - пустой словарь для хранения эпиков
+     * @param subtasks - пустой словарь для хранения подзадач
+     */
+    protected InMemoryTaskManager(IdAllocator idAllocator, HistoryManager historyManager, Map<Integer, Task> tasks,
+                                  Map<Integer, Epic> epics, Map<Integer, Subtask> subtasks) {
+        this.idAllocator = idAllocator;
+        this.historyManager = historyManager;
+        this.tasks = tasks;
+        this.epics = epics;
+        this.subtasks = subtasks;
+    }
 
     /**
      * Получить следующее значение идентификатора.
-     * Каждый следующий вызов возвращает значение на 1 больше, чем результат предыдущего вызова.
+     * Для источника идентификаторов по-умолчанию каждый следующий вызов возвращает значение на 1 больше,
+     * чем результат предыдущего вызова.
      * @return следующее значение идентификатора (начиная с 0).
      */
     public int getNextId() {
-        return nextId++;
+        return idAllocator.next();
+    }
+
+    /**
+     * Учесть идентификатор, уже занятый задачей (например, загруженной из файла),
+     * чтобы следующие идентификаторы его не повторяли.
+     */
+    protected void reserveId(int id) {
+        idAllocator.reserve(id);
+    }
+
+    /**
+     * Хранить названия и описания задач, добавляемых и обновляемых в дальнейшем, в пуле строк
+     *
+     * @param stringPool Пул строк (может быть общим для нескольких менеджеров), null - не использовать пул
+     */
+    public void setStringPool(StringPool stringPool) {
+        this.stringPool = stringPool;
+    }
+
+    public StringPool getStringPool() {
+        return stringPool;
+    }
+
+    /**
+     * Оценить память, сэкономленную пулом строк на задачах менеджера, байт (см. {@link StringPool})
+     */
+    public long estimateStringPoolSavings() {
+        List<Task> all = new ArrayList<>();
+        forEachTask(all::add);
+        forEachEpic(all::add);
+        forEachSubtask(all::add);
+        return StringPool.estimateSavedBytes(all);
+    }
+
+    /**
+     * Заменить название и описание задачи экземплярами из пула строк, если он задан
+     */
+    protected void internStrings(Task task) {
+        if (stringPool != null) {
+            task.internStrings(stringPool);
+        }
     }
 
     /**
@@ -80,13 +184,20 @@ public class InMemoryTaskManager implements TaskManager {
      */
     @Override
     public Task getTask(int id) {
-        Task result = tasks.get(id);
+        Task result = getTaskSilently(id);
         if (result != null) {
             historyManager.add(result);
         }
         return result;
     }
 
+    /**
+     * Получить {@link Task} по её идентификатору без занесения в историю просмотров.
+     */
+    protected Task getTaskSilently(int id) {
+        return tasks.get(id);
+    }
+
     /**
      * Добавить новую задачу.
      * Для задачи будет присвоен уникальный идентификатор
@@ -97,6 +208,7 @@ public class InMemoryTaskManager implements TaskManager {
     @Override
     public int addTask(Task task) {
         task.setId(getNextId());
+        internStrings(task);
         tasks.put(task.getId(), task);
         return task.getId();
     }
@@ -110,7 +222,10 @@ public class InMemoryTaskManager implements TaskManager {
      */
     @Override
     public boolean updateTask(Task task) {
-        if (tasks.containsKey(task.getId())) {
+        Task taskFromManager = getTaskSilently(task.getId());
+        if (taskFromManager != null) {
+            task.setVersion(taskFromManager.getVersion() + 1);
+            internStrings(task);
             return tasks.put(task.getId(), task) != null;
         }
         // задачи с данным идентификатором нет в списке, поэтому "обновление" не производим
@@ -164,7 +279,7 @@ public class InMemoryTaskManager implements TaskManager {
     /**
      * Получить {@link Epic} по его идентификатору без занесения в историю просмотров.
      */
-    private Epic getEpicSilently(int id) {
+    protected Epic getEpicSilently(int id) {
         return epics.get(id);
     }
 
@@ -181,6 +296,7 @@ public class InMemoryTaskManager implements TaskManager {
     public int addEpic(Epic epic) {
         // генерация id для эпика
         epic.setId(getNextId());
+        internStrings(epic);
         // очистка подзадач для эпика
         epic.clearSubtasks();
         // добавление эпика
@@ -203,9 +319,11 @@ public class InMemoryTaskManager implements TaskManager {
         Epic epicFromManager = getEpicSilently(epic.getId());
         if (epicFromManager != null) {
             // подзадачи в переданном эпике заменяются на подзадачи из эпика, хранимого в менеджере
-            epic.replaceSubtasks(epicFromManager.getSubtasks());
+            epic.replaceSubtasks(epicFromManager);
             // статус эпика не меняется
             epic.setState(epicFromManager.getState());
+            epic.setVersion(epicFromManager.getVersion() + 1);
+            internStrings(epic);
             // обновление эпика
             return epics.put(epic.getId(), epic) != null;
         }
@@ -225,7 +343,7 @@ public class InMemoryTaskManager implements TaskManager {
         if (epic == null) {
             return new ArrayList<>();
         }
-        return epic.getSubtasks().stream().map(stId -> getSubtaskSilently(stId)).toList();
+        return epic.getSubtasks().stream().mapToObj(stId -> getSubtaskSilently(stId)).toList();
     }
 
     /**
@@ -248,23 +366,15 @@ public class InMemoryTaskManager implements TaskManager {
     }
 
     /**
-     * Обновить статус эпика на основе статусов его подзадач
+     * Обновить статус эпика на основе количества его подзадач по статусам (за O(1))
      */
     private void refreshEpicState(Epic epic) {
-        // получение уникальных (distinct) статусов всех подзадач эпика
-        List<TaskState> distinctStates =
-                epic.getSubtasks().stream().map(stId -> getSubtaskSilently(stId).getState()).distinct().toList();
-        switch (distinctStates.size()) {
-            case 0 ->
-                // нет подзадач - статус NEW
-                    epic.setState(TaskState.NEW);
-            case 1 ->
-                // все подзадачи имеют одинаковый статус - установка данного статуса для эпика
-                    epic.setState(distinctStates.get(0));
-            default ->
-                // подзадачи находятся в различных статусах - установка IN_PROGRESS для эпика
-                    epic.setState(TaskState.IN_PROGRESS);
+        if (deferredEpics != null) {
+            // внутри пакетной операции статус пересчитывается один раз по её окончании
+            deferredEpics.add(epic.getId());
+            return;
         }
+        epic.setState(epic.calculateState());
     }
 
     /**
@@ -306,7 +416,7 @@ public class InMemoryTaskManager implements TaskManager {
     /**
      * Получить {@link Subtask} по её идентификатору без занесения в историю просмотров.
      */
-    private Subtask getSubtaskSilently(int id) {
+    protected Subtask getSubtaskSilently(int id) {
         return subtasks.get(id);
     }
 
@@ -325,10 +435,11 @@ public class InMemoryTaskManager implements TaskManager {
             return null;
         }
         subtask.setId(getNextId());
+        internStrings(subtask);
         // добавление подзадачи
         subtasks.put(subtask.getId(), subtask);
         // добавление идентификатора подзадачи в данные эпика
-        epic.addSubtask(subtask.getId());
+        epic.addSubtask(subtask.getId(), subtask.getState());
         // обновление статуса эпика
         refreshEpicState(epic);
         return subtask.getId();
@@ -353,7 +464,16 @@ public class InMemoryTaskManager implements TaskManager {
             return false;
         }
         // подзадача найдена, найден соответствующей ей эпик - выполняем обновление
+        Subtask subtaskFromManager = getSubtaskSilently(subtask.getId());
+        subtask.setVersion(subtaskFromManager.getVersion() + 1);
+        internStrings(subtask);
         subtasks.put(subtask.getId(), subtask);
+        if (subtaskFromManager == subtask) {
+            // подзадача изменена "на месте" - прежний статус неизвестен, поэтому количество пересчитывается
+            epic.recountSubtaskStates(stId -> getSubtaskSilently(stId).getState());
+        } else {
+            epic.changeSubtaskState(subtask.getId(), subtask.getState());
+        }
         // обновление статуса эпика
         refreshEpicState(epic);
         return true;
@@ -367,7 +487,7 @@ public class InMemoryTaskManager implements TaskManager {
      */
     @Override
     public boolean removeSubtask(int id) {
-        Subtask subtask = subtasks.get(id);
+        Subtask subtask = getSubtaskSilently(id);
         if (subtask == null) {
             return false;
         }
@@ -391,4 +511,148 @@ public class InMemoryTaskManager implements TaskManager {
     public List<Task> getHistory() {
         return historyManager.getHistory();
     }
+
+    /**
+     * Обновить задачу, если её версия не изменилась с момента получения
+     */
+    @Override
+    public UpdateResult compareAndUpdateTask(Task task) {
+        return inBatch(() -> {
+            Task taskFromManager = getTaskSilently(task.getId());
+            if (taskFromManager == null) {
+                return UpdateResult.NOT_FOUND;
+            }
+            // переданный объект - сам хранимый объект: его версия не подтверждает отсутствие изменений
+            if (taskFromManager == task || taskFromManager.getVersion() != task.getVersion()) {
+                return UpdateResult.rejected(taskFromManager.getVersion());
+            }
+            updateTask(task);
+            return UpdateResult.updated(task.getVersion());
+        });
+    }
+
+    /**
+     * Обновить эпик, если его версия не изменилась с момента получения
+     */
+    @Override
+    public UpdateResult compareAndUpdateEpic(Epic epic) {
+        return inBatch(() -> {
+            Epic epicFromManager = getEpicSilently(epic.getId());
+            if (epicFromManager == null) {
+                return UpdateResult.NOT_FOUND;
+            }
+            // переданный объект - сам хранимый объект: его версия не подтверждает отсутствие изменений
+            if (epicFromManager == epic || epicFromManager.getVersion() != epic.getVersion()) {
+                return UpdateResult.rejected(epicFromManager.getVersion());
+            }
+            updateEpic(epic);
+            return UpdateResult.updated(epic.getVersion());
+        });
+    }
+
+    /**
+     * Обновить подзадачу, если её версия не изменилась с момента получения
+     */
+    @Override
+    public UpdateResult compareAndUpdateSubtask(Subtask subtask) {
+        return inBatch(() -> {
+            Subtask subtaskFromManager = getSubtaskSilently(subtask.getId());
+            if (subtaskFromManager == null) {
+                return UpdateResult.NOT_FOUND;
+            }
+            // переданный объект - сам хранимый объект: его версия не подтверждает отсутствие изменений
+            if (subtaskFromManager == subtask || subtaskFromManager.getVersion() != subtask.getVersion()) {
+                return UpdateResult.rejected(subtaskFromManager.getVersion());
+            }
+            if (!updateSubtask(subtask)) {
+                // подзадача не найдена в указанном эпике
+                return UpdateResult.NOT_FOUND;
+            }
+            return UpdateResult.updated(subtask.getVersion());
+        });
+    }
+
+    /**
+     * Выполнить пакетную операцию: статус каждого затронутого эпика пересчитывается один раз после её окончания,
+     * а не после каждого изменения подзадач
+     */
+    protected <T> T inBatch(Supplier<T> action) {
+        if (deferredEpics != null) {
+            // вложенная пакетная операция - пересчет выполнит внешняя
+            return action.get();
+        }
+        deferredEpics = new HashSet<>();
+        try {
+            return action.get();
+        } finally {
+            Set<Integer> epicIds = deferredEpics;
+            deferredEpics = null;
+            for (int epicId : epicIds) {
+                // эпик мог быть удален внутри операции
+                Epic epic = getEpicSilently(epicId);
+                if (epic != null) {
+                    refreshEpicState(epic);
+                }
+            }
+        }
+    }
+
+    /**
+     * Количество несохраненных изменений текущей пакетной операции
+     * (для менеджеров, сохраняющих изменения по окончании пакетной операции)
+     */
+    protected int getBatchChangeCount() {
+        return 0;
+    }
+
+    /**
+     * Отбросить несохраненные изменения текущей пакетной операции, начиная с указанного, после отмены этих
+     * изменений в памяти. Изменения внешней пакетной операции, выполненные раньше, сохраняются
+     *
+     * @param from Количество изменений на момент начала отменяемой части ({@link #getBatchChangeCount()})
+     */
+    protected void discardBatchChanges(int from) {
+    }
+
+    /**
+     * Начать транзакцию - набор изменений, применяемых атомарно при {@link Transaction#commit()}
+     */
+    public Transaction beginTransaction() {
+        return new Transaction(this);
+    }
+
+    @Override
+    public List<Integer> addTasks(Collection<? extends Task> tasks) {
+        return inBatch(() -> TaskManager.super.addTasks(tasks));
+    }
+
+    @Override
+    public List<Integer> addSubtasks(int epicId, Collection<? extends Subtask> subtasks) {
+        return inBatch(() -> TaskManager.super.addSubtasks(epicId, subtasks));
+    }
+
+    @Override
+    public int updateSubtasks(Collection<? extends Subtask> subtasks) {
+        return inBatch(() -> TaskManager.super.updateSubtasks(subtasks));
+    }
+
+    @Override
+    public int removeByIds(Collection<Integer> ids) {
+        return inBatch(() -> TaskManager.super.removeByIds(ids));
+    }
+
+    @Override
+    public void forEachTask(Consumer<? super Task> action) {
+        tasks.values().forEach(action);
+    }
+
+    @Override
+    public void forEachEpic(Consumer<? super Epic> action) {
+        epics.values().forEach(action);
+    }
+
+    @Override
+    public void forEachSubtask(Consumer<? super Subtask> action) {
+        subtasks.values().forEach(action);
+    }
 }
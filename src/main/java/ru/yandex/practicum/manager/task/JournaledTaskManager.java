@@ -0,0 +1,455 @@
+package ru.yandex.practicum.manager.task;
+
+import ru.yandex.practicum.exception.ManagerSaveException;
+import ru.yandex.practicum.manager.task.format.CsvTaskFormat;
+import ru.yandex.practicum.model.Epic;
+import ru.yandex.practicum.model.Subtask;
+import ru.yandex.practicum.model.Task;
+import ru.yandex.practicum.model.TaskState;
+import ru.yandex.practicum.model.TaskType;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * Менеджер задач, сохраняющий изменения в журнал (write-ahead log).
+ * Каждый вызов метода, изменяющего состояние менеджера, дописывает в конец журнала компактные записи об изменениях,
+ * поэтому стоимость сохранения не зависит от количества задач в менеджере.
+ * Полное состояние менеджера сохраняется в файл состояния методом {@link #save()}, после чего журнал очищается.
+ * При загрузке журнал "проигрывается" поверх последнего сохраненного полного состояния.
+ * <p>
+ * Чтобы журнал не рос неограниченно, менеджер уплотняет его согласно {@link CompactionPolicy}: полное состояние
+ * записывается в фоновом потоке, а вошедшие в него записи журнала отбрасываются.
+ */
+public class JournaledTaskManager extends FileBackedTaskManager {
+    /**
+     * Расширение файла журнала (добавляется к имени файла состояния)
+     */
+    public static final String journalFileExtension = ".journal";
+
+    /**
+     * Расширение файла уплотняемой части журнала (добавляется к имени файла журнала)
+     */
+    public static final String compactedJournalFileExtension = ".old";
+
+    /**
+     * Политика уплотнения по-умолчанию: при достижении журналом размера 16 МБ
+     */
+    public static final CompactionPolicy defaultCompactionPolicy = CompactionPolicy.bySize(16 * 1024 * 1024);
+
+    /**
+     * Заголовок группы записей, применяемых только целиком (изменения пакетной операции или транзакции)
+     */
+    private static final String BATCH_HEADER = "BATCH";
+
+    /**
+     * Файл журнала изменений
+     */
+    private final File journalFile;
+
+    /**
+     * Файл с частью журнала, которая уплотняется в данный момент.
+     * Существует с момента начала уплотнения до записи полного состояния, включающего все его изменения.
+     */
+    private final File compactedJournalFile;
+
+    /**
+     * Политика уплотнения журнала
+     */
+    private final CompactionPolicy compactionPolicy;
+
+    /**
+     * Размер журнала в байтах
+     */
+    private long journalBytes = 0;
+
+    /**
+     * Количество записей в журнале
+     */
+    private long journalRecords = 0;
+
+    /**
+     * Момент последнего уплотнения журнала (в терминах {@link System#nanoTime()})
+     */
+    private long lastCompactionNanos = System.nanoTime();
+
+    /**
+     * Поток для фоновой записи полного состояния. Создается при первом уплотнении
+     */
+    private ExecutorService compactor;
+
+    /**
+     * Последнее запущенное уплотнение
+     */
+    private volatile Future<?> compaction = CompletableFuture.completedFuture(null);
+
+    /**
+     * Конструктор
+     */
+    public JournaledTaskManager() {
+        this(new File(defaultStateFilename));
+    }
+
+    /**
+     * Конструктор
+     *
+     * @param compactionPolicy - политика уплотнения журнала
+     */
+    public JournaledTaskManager(CompactionPolicy compactionPolicy) {
+        this(new File(defaultStateFilename), compactionPolicy);
+    }
+
+    /**
+     * Конструктор
+     *
+     * @param stateFile - файл для хранения полного состояния менеджера
+     */
+    JournaledTaskManager(File stateFile) {
+        this(stateFile, defaultCompactionPolicy);
+    }
+
+    /**
+     * Конструктор
+     *
+     * @param stateFile - файл для хранения полного состояния менеджера
+     * @param compactionPolicy - политика уплотнения журнала
+     */
+    JournaledTaskManager(File stateFile, CompactionPolicy compactionPolicy) {
+        super(stateFile);
+        this.compactionPolicy = compactionPolicy;
+        journalFile = new File(stateFile.getPath() + journalFileExtension);
+        compactedJournalFile = new File(journalFile.getPath() + compactedJournalFileExtension);
+    }
+
+    /**
+     * Сохранить полное состояние менеджера в файл и очистить журнал, т.к. все его записи вошли в состояние
+     *
+     * @implNote Сохранение и очистка журнала выполняются под блокировкой, чтобы запись, добавленная в журнал
+     * другим потоком, не была удалена без сохранения. Уплотнение ожидается без блокировки: фоновая запись
+     * состояния сама берет блокировку менеджера.
+     */
+    @Override
+    public void save() {
+        while (true) {
+            awaitCompaction();
+            synchronized (this) {
+                // уплотнение могло быть запущено другим потоком после ожидания
+                if (compaction.isDone()) {
+                    super.save();
+                    deleteJournal(journalFile);
+                    deleteJournal(compactedJournalFile);
+                    resetJournalStats();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Запустить уплотнение журнала.
+     * Текущий журнал откладывается в сторону, а новые изменения пишутся в новый журнал. Копия состояния менеджера
+     * сохраняется в файл в фоновом потоке, после чего отложенный журнал удаляется.
+     *
+     * @return Результат фоновой записи состояния
+     * @implNote Копирование задач выполняется в вызывающем потоке под блокировкой менеджера, т.к. словари менеджера не потокобезопасны.
+     * Копирование не требует операций ввода-вывода, поэтому запись изменений не ждет записи полного состояния.
+     * Если предыдущее уплотнение еще не завершено, новое не запускается.
+     */
+    public synchronized Future<?> compact() {
+        if (!compaction.isDone()) {
+            return compaction;
+        }
+        rotateJournal();
+        List<Task> tasksCopy = tasks.values().stream().map(Task::new).toList();
+        List<Epic> epicsCopy = epics.values().stream().map(Epic::new).toList();
+        List<Subtask> subtasksCopy = subtasks.values().stream().map(Subtask::new).toList();
+        resetJournalStats();
+
+        if (compactor == null) {
+            compactor = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "journal-compactor-" + getStateFile().getName());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        compaction = compactor.submit(() -> {
+            // файл состояния заменяется атомарно, поэтому сбой во время записи не повреждает предыдущее состояние
+            writeState(getStateFile(), tasksCopy, epicsCopy, subtasksCopy);
+            // все изменения отложенного журнала вошли в записанное состояние
+            deleteJournal(compactedJournalFile);
+        });
+        return compaction;
+    }
+
+    /**
+     * Дождаться завершения уплотнения журнала
+     */
+    public void awaitCompaction() {
+        try {
+            compaction.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ManagerSaveException("Ожидание уплотнения журнала прервано", e);
+        } catch (ExecutionException e) {
+            // отложенный журнал остался на диске, поэтому изменения не потеряны: они будут учтены при следующем
+            // уплотнении или сохранении
+            throw new ManagerSaveException("Произошла ошибка во время уплотнения журнала", e);
+        }
+    }
+
+    /**
+     * Дождаться завершения уплотнения журнала и остановить фоновый поток
+     */
+    @Override
+    public void close() {
+        try {
+            awaitCompaction();
+        } finally {
+            if (compactor != null) {
+                compactor.shutdown();
+            }
+            super.close();
+        }
+    }
+
+    /**
+     * Отложить текущий журнал для уплотнения
+     */
+    private void rotateJournal() {
+        if (!journalFile.exists()) {
+            return;
+        }
+        try {
+            if (compactedJournalFile.exists()) {
+                // предыдущее уплотнение завершилось ошибкой - текущий журнал дописывается к отложенному
+                Files.write(compactedJournalFile.toPath(), Files.readAllBytes(journalFile.toPath()),
+                        StandardOpenOption.APPEND);
+                deleteJournal(journalFile);
+            } else {
+                Files.move(journalFile.toPath(), compactedJournalFile.toPath(), StandardCopyOption.ATOMIC_MOVE);
+            }
+        } catch (IOException e) {
+            throw new ManagerSaveException("Не удалось отложить журнал изменений для уплотнения", e);
+        }
+    }
+
+    /**
+     * Удалить файл журнала
+     */
+    private void deleteJournal(File file) {
+        if (file.exists() && !file.delete()) {
+            throw new ManagerSaveException("Не удалось очистить журнал изменений " + file, null);
+        }
+    }
+
+    /**
+     * Сбросить статистику журнала (после его очистки или откладывания для уплотнения)
+     */
+    private void resetJournalStats() {
+        journalBytes = 0;
+        journalRecords = 0;
+        lastCompactionNanos = System.nanoTime();
+    }
+
+    /**
+     * Загрузить состояние менеджера: последнее полное состояние + изменения из журнала
+     * (сначала из отложенного для уплотнения, если уплотнение не было завершено, затем из текущего).
+     */
+    @Override
+    public void load() throws IOException {
+        if (getStateFile().exists()) {
+            super.load();
+        }
+        replayJournal(compactedJournalFile);
+        journalRecords = replayJournal(journalFile);
+        journalBytes = journalFile.length();
+    }
+
+    /**
+     * Проиграть записи журнала
+     * @return Количество записей в журнале
+     */
+    private long replayJournal(File file) throws IOException {
+        if (!file.exists()) {
+            return 0;
+        }
+        long records = 0;
+        try (BufferedReader reader = new BufferedReader(new FileReader(file, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith(BATCH_HEADER + ",")) {
+                    List<String> batch = readBatch(reader, Integer.parseInt(line.substring(BATCH_HEADER.length() + 1)));
+                    if (batch == null) {
+                        // группа записана не полностью (сбой во время записи) - изменения группы не применяются
+                        break;
+                    }
+                    batch.forEach(this::replay);
+                    records += batch.size();
+                } else if (!line.isEmpty()) {
+                    replay(line);
+                    records++;
+                }
+            }
+        }
+        return records;
+    }
+
+    /**
+     * Прочитать записи группы
+     * @return Записи группы или null, если журнал закончился раньше, чем группа
+     */
+    private List<String> readBatch(BufferedReader reader, int size) throws IOException {
+        List<String> batch = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            String line = reader.readLine();
+            if (line == null) {
+                return null;
+            }
+            batch.add(line);
+        }
+        return batch;
+    }
+
+    /**
+     * Создать менеджер и восстановить его состояние из файла состояния и журнала
+     */
+    public static JournaledTaskManager loadFromFile(File file) throws IOException {
+        return loadFromFile(file, defaultCompactionPolicy);
+    }
+
+    /**
+     * Создать менеджер с указанной политикой уплотнения и восстановить его состояние из файла состояния и журнала
+     */
+    public static JournaledTaskManager loadFromFile(File file, CompactionPolicy compactionPolicy) throws IOException {
+        JournaledTaskManager result = new JournaledTaskManager(file, compactionPolicy);
+        result.load();
+        return result;
+    }
+
+    /**
+     * Дописать изменения в конец журнала и, если требуется, запустить уплотнение журнала.
+     * Несколько изменений одного вызова записываются группой, которая при загрузке применяется только целиком.
+     */
+    @Override
+    protected void persist(StateChange... changes) {
+        StringBuilder records = new StringBuilder();
+        if (changes.length > 1) {
+            records.append(BATCH_HEADER).append(',').append(changes.length).append('\n');
+        }
+        for (StateChange change : changes) {
+            records.append(toRecord(change)).append('\n');
+        }
+        byte[] data = records.toString().getBytes(StandardCharsets.UTF_8);
+        try (FileOutputStream output = new FileOutputStream(journalFile, true)) {
+            output.write(data);
+            if (shouldSync(journalFile.toPath())) {
+                // для журнала достаточно сброса данных (fdatasync): метаданные файла, кроме размера, не важны
+                output.getChannel().force(false);
+            }
+        } catch (IOException e) {
+            throw new ManagerSaveException("Произошла ошибка во время записи в журнал изменений", e);
+        }
+        journalBytes += data.length;
+        journalRecords += changes.length;
+
+        Duration sinceLastCompaction = Duration.ofNanos(System.nanoTime() - lastCompactionNanos);
+        if (compactionPolicy.shouldCompact(journalBytes, journalRecords, sinceLastCompaction)) {
+            compact();
+        }
+    }
+
+    /**
+     * Привести изменение к строковому представлению (записи журнала).
+     * Форматы записей:
+     * PUT,{задача в формате CSV}
+     * REMOVE,{тип},{id}
+     * CLEAR,{тип}
+     * Группа записей предваряется заголовком BATCH,{количество записей}
+     */
+    private String toRecord(StateChange change) {
+        return switch (change.operation()) {
+            case PUT -> StateChange.Operation.PUT + "," + CsvTaskFormat.toString(change.task());
+            case REMOVE -> StateChange.Operation.REMOVE + "," + change.type() + "," + change.id();
+            case CLEAR -> StateChange.Operation.CLEAR + "," + change.type();
+        };
+    }
+
+    /**
+     * Применить запись журнала к состоянию менеджера.
+     * Повторное применение записей, уже вошедших в файл состояния, не меняет результат загрузки
+     */
+    private void replay(String record) {
+        int separator = record.indexOf(',');
+        StateChange.Operation operation = StateChange.Operation.valueOf(record.substring(0, separator));
+        String payload = record.substring(separator + 1);
+        switch (operation) {
+            case PUT -> {
+                Task task = CsvTaskFormat.fromString(payload);
+                // журнал может проигрываться поверх более нового состояния (сбой после записи состояния, но до
+                // удаления журнала): эпик подзадачи уже удален, и следующие записи журнала удалили бы её тоже
+                if (!(task instanceof Subtask subtask) || epics.containsKey(subtask.getEpicId())) {
+                    restore(task);
+                }
+            }
+            case REMOVE -> {
+                String[] parts = payload.split(",");
+                replayRemove(TaskType.valueOf(parts[0]), Integer.parseInt(parts[1]));
+            }
+            case CLEAR -> replayClear(TaskType.valueOf(payload));
+        }
+    }
+
+    /**
+     * Проиграть удаление задачи.
+     * Работа со словарями выполняется напрямую, чтобы не порождать новых записей в журнале.
+     */
+    private void replayRemove(TaskType type, int id) {
+        switch (type) {
+            case TASK -> tasks.remove(id);
+            case EPIC -> {
+                Epic epic = epics.remove(id);
+                if (epic != null) {
+                    // подзадачи удаляются вместе с эпиком
+                    epic.getSubtasks().forEach(stId -> subtasks.remove(stId));
+                }
+            }
+            case SUBTASK -> {
+                Subtask subtask = subtasks.remove(id);
+                if (subtask != null && epics.containsKey(subtask.getEpicId())) {
+                    epics.get(subtask.getEpicId()).removeSubtask(id);
+                }
+            }
+        }
+    }
+
+    /**
+     * Проиграть удаление всех задач указанного типа
+     */
+    private void replayClear(TaskType type) {
+        switch (type) {
+            case TASK -> tasks.clear();
+            case EPIC -> {
+                subtasks.clear();
+                epics.clear();
+            }
+            case SUBTASK -> {
+                subtasks.clear();
+                epics.values().forEach(epic -> {
+                    epic.clearSubtasks();
+                    epic.setState(TaskState.NEW);
+                });
+            }
+        }
+    }
+
+    public File getJournalFile() {
+        return journalFile;
+    }
+}
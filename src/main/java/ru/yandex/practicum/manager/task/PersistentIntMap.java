@@ -0,0 +1,234 @@
+package ru.yandex.practicum.manager.task;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Неизменяемый (персистентный) словарь с ключами int - префиксное дерево по битам ключа
+ * (hash array mapped trie, где хэшем служит сам ключ).
+ * Изменение возвращает новый словарь, разделяющий с исходным все неизмененные узлы: копируется только путь
+ * от корня до измененного элемента (не более 7 узлов по 32 ссылки). Исходный словарь при этом не меняется,
+ * поэтому его можно читать из других потоков без блокировок.
+ * <p>
+ * Биты ключа просматриваются от старших к младшим, поэтому обход выполняется в порядке возрастания
+ * неотрицательных ключей.
+ *
+ * @param <V> Тип значений (null не допускается)
+ */
+public final class PersistentIntMap<V> {
+    /**
+     * Количество битов ключа на уровень дерева
+     */
+    private static final int BITS = 5;
+
+    /**
+     * Сдвиг для корневого уровня (старшие 2 бита ключа)
+     */
+    private static final int ROOT_SHIFT = 30;
+
+    private static final PersistentIntMap<?> EMPTY = new PersistentIntMap<>(new Branch(0, new Object[0]), 0);
+
+    /**
+     * Корень дерева (всегда узел ветвления)
+     */
+    private final Branch root;
+
+    private final int size;
+
+    private PersistentIntMap(Branch root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    /**
+     * Получить пустой словарь
+     */
+    @SuppressWarnings("unchecked")
+    public static <V> PersistentIntMap<V> empty() {
+        return (PersistentIntMap<V>) EMPTY;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Получить значение по ключу
+     *
+     * @return Значение или null, если ключа нет в словаре
+     */
+    @SuppressWarnings("unchecked")
+    public V get(int key) {
+        Object node = root;
+        int shift = ROOT_SHIFT;
+        while (node instanceof Branch branch) {
+            int bit = bit(key, shift);
+            if ((branch.bitmap & bit) == 0) {
+                return null;
+            }
+            node = branch.children[branch.position(bit)];
+            shift -= BITS;
+        }
+        Leaf leaf = (Leaf) node;
+        return leaf.key == key ? (V) leaf.value : null;
+    }
+
+    public boolean containsKey(int key) {
+        return get(key) != null;
+    }
+
+    /**
+     * Получить словарь с добавленным или замененным значением
+     */
+    public PersistentIntMap<V> put(int key, V value) {
+        if (value == null) {
+            throw new NullPointerException("Значение не может быть null");
+        }
+        int newSize = containsKey(key) ? size : size + 1;
+        return new PersistentIntMap<>((Branch) put(root, ROOT_SHIFT, new Leaf(key, value)), newSize);
+    }
+
+    /**
+     * Получить словарь без указанного ключа
+     */
+    public PersistentIntMap<V> remove(int key) {
+        if (!containsKey(key)) {
+            return this;
+        }
+        Object newRoot = remove(root, ROOT_SHIFT, key, true);
+        return size == 1 ? empty() : new PersistentIntMap<>((Branch) newRoot, size - 1);
+    }
+
+    /**
+     * Выполнить действие для всех значений в порядке возрастания ключей
+     */
+    public void forEach(Consumer<? super V> action) {
+        forEach(root, action);
+    }
+
+    /**
+     * Получить неизменяемый список значений в порядке возрастания ключей
+     */
+    public List<V> values() {
+        List<V> result = new ArrayList<>(size);
+        forEach(result::add);
+        return Collections.unmodifiableList(result);
+    }
+
+    private static Object put(Branch branch, int shift, Leaf leaf) {
+        int bit = bit(leaf.key, shift);
+        int position = branch.position(bit);
+        if ((branch.bitmap & bit) == 0) {
+            return branch.insert(bit, position, leaf);
+        }
+        Object child = branch.children[position];
+        Object newChild;
+        if (child instanceof Branch childBranch) {
+            newChild = put(childBranch, shift - BITS, leaf);
+        } else if (((Leaf) child).key == leaf.key) {
+            newChild = leaf;
+        } else {
+            newChild = merge((Leaf) child, leaf, shift - BITS);
+        }
+        return branch.replace(position, newChild);
+    }
+
+    /**
+     * Создать поддерево из двух листьев с разными ключами, совпадающими в битах выше уровня shift
+     */
+    private static Branch merge(Leaf first, Leaf second, int shift) {
+        int firstBit = bit(first.key, shift);
+        int secondBit = bit(second.key, shift);
+        if (firstBit == secondBit) {
+            return new Branch(firstBit, new Object[]{merge(first, second, shift - BITS)});
+        }
+        Object[] children = Integer.compareUnsigned(firstBit, secondBit) < 0
+                ? new Object[]{first, second}
+                : new Object[]{second, first};
+        return new Branch(firstBit | secondBit, children);
+    }
+
+    /**
+     * Удалить ключ (присутствующий в поддереве).
+     * Ветвление, в котором остался единственный лист, заменяется этим листом (кроме корня)
+     */
+    private static Object remove(Branch branch, int shift, int key, boolean isRoot) {
+        int bit = bit(key, shift);
+        int position = branch.position(bit);
+        Object child = branch.children[position];
+        Object newChild = child instanceof Branch childBranch ? remove(childBranch, shift - BITS, key, false) : null;
+        Branch result = newChild == null ? branch.delete(bit, position) : branch.replace(position, newChild);
+        if (!isRoot && result.children.length == 1 && result.children[0] instanceof Leaf) {
+            return result.children[0];
+        }
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <V> void forEach(Branch branch, Consumer<? super V> action) {
+        for (Object child : branch.children) {
+            if (child instanceof Branch childBranch) {
+                forEach(childBranch, action);
+            } else {
+                action.accept((V) ((Leaf) child).value);
+            }
+        }
+    }
+
+    private static int bit(int key, int shift) {
+        return 1 << ((key >>> shift) & 31);
+    }
+
+    /**
+     * Лист дерева: ключ и значение
+     */
+    private record Leaf(int key, Object value) {
+    }
+
+    /**
+     * Узел ветвления: битовая маска занятых ячеек и плотный массив потомков (листьев или узлов ветвления)
+     */
+    private static final class Branch {
+        private final int bitmap;
+        private final Object[] children;
+
+        private Branch(int bitmap, Object[] children) {
+            this.bitmap = bitmap;
+            this.children = children;
+        }
+
+        /**
+         * Позиция потомка в массиве - количество занятых ячеек перед ячейкой bit
+         */
+        private int position(int bit) {
+            return Integer.bitCount(bitmap & (bit - 1));
+        }
+
+        private Branch insert(int bit, int position, Object child) {
+            Object[] newChildren = new Object[children.length + 1];
+            System.arraycopy(children, 0, newChildren, 0, position);
+            newChildren[position] = child;
+            System.arraycopy(children, position, newChildren, position + 1, children.length - position);
+            return new Branch(bitmap | bit, newChildren);
+        }
+
+        private Branch replace(int position, Object child) {
+            Object[] newChildren = children.clone();
+            newChildren[position] = child;
+            return new Branch(bitmap, newChildren);
+        }
+
+        private Branch delete(int bit, int position) {
+            Object[] newChildren = new Object[children.length - 1];
+            System.arraycopy(children, 0, newChildren, 0, position);
+            System.arraycopy(children, position + 1, newChildren, position, children.length - position - 1);
+            return new Branch(bitmap & ~bit, newChildren);
+        }
+    }
+}
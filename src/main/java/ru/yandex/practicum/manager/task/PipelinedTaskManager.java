@@ -0,0 +1,425 @@
+package ru.yandex.practicum.manager.task;
+
+import ru.yandex.practicum.model.Epic;
+import ru.yandex.practicum.model.Subtask;
+import ru.yandex.practicum.model.Task;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+
+/**
+ * Менеджер задач с конвейером изменений и единственным пишущим потоком.
+ * Методы, изменяющие состояние, не блокируют вызывающий поток: изменение записывается как команда в ограниченный
+ * кольцевой буфер и выполняется пишущим потоком, а вызывающий получает {@link CompletableFuture} с результатом.
+ * Пишущий поток забирает из буфера все накопленные команды и выполняет их одной пакетной операцией менеджера:
+ * статус каждого затронутого эпика пересчитывается один раз за пакет, а {@link FileBackedTaskManager}
+ * и его наследники сохраняют пакет одной записью. Результаты пакета завершаются после его сохранения.
+ * <p>
+ * Если буфер заполнен, добавляющий команду поток ждет освобождения места (естественное ограничение скорости
+ * производителей скоростью пишущего потока). Команды одного потока выполняются в порядке вызова.
+ * <p>
+ * Чтение выполняется вызывающим потоком под блокировкой менеджера и видит все изменения завершенных пакетов;
+ * чтобы прочитать результат своего изменения, дождитесь его результата.
+ */
+public class PipelinedTaskManager implements AutoCloseable {
+    /**
+     * Емкость кольцевого буфера по-умолчанию
+     */
+    public static final int defaultCapacity = 1024;
+
+    /**
+     * Команда - изменение менеджера и его результат
+     */
+    private static final class Command<T> {
+        private final Function<InMemoryTaskManager, T> action;
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+
+        /**
+         * Команда забрана для выполнения пишущим потоком или отклонена после закрытия (ровно одно из двух)
+         */
+        private final AtomicBoolean claimed = new AtomicBoolean();
+        private T result;
+        private RuntimeException error;
+
+        private Command(Function<InMemoryTaskManager, T> action) {
+            this.action = action;
+        }
+
+        /**
+         * Выполнить изменение. Ошибка относится только к этой команде и не прерывает пакет
+         */
+        private void apply(InMemoryTaskManager manager) {
+            try {
+                result = action.apply(manager);
+            } catch (RuntimeException e) {
+                error = e;
+            }
+        }
+
+        private boolean claim() {
+            return claimed.compareAndSet(false, true);
+        }
+
+        /**
+         * Отклонить команду, не выполненную до закрытия менеджера
+         */
+        private void reject() {
+            if (claim()) {
+                future.completeExceptionally(new IllegalStateException("Менеджер закрыт"));
+            }
+        }
+
+        private void complete() {
+            if (error != null) {
+                future.completeExceptionally(error);
+            } else {
+                future.complete(result);
+            }
+        }
+    }
+
+    private final InMemoryTaskManager manager;
+
+    /**
+     * Ячейки кольцевого буфера
+     */
+    private final AtomicReferenceArray<Command<?>> slots;
+
+    /**
+     * Номера ячеек: номер == позиция - ячейка свободна для записи на позицию,
+     * номер == позиция + 1 - ячейка заполнена командой с этой позиции
+     */
+    private final AtomicLongArray sequences;
+
+    private final int mask;
+
+    /**
+     * Позиция для записи следующей команды (общая для производителей)
+     */
+    private final AtomicLong tail = new AtomicLong();
+
+    /**
+     * Позиция следующей команды для выполнения. Используется только пишущим потоком
+     */
+    private long head = 0;
+
+    /**
+     * Пишущий поток ожидает команд
+     */
+    private final AtomicBoolean writerParked = new AtomicBoolean();
+
+    private volatile boolean running = true;
+
+    private final Thread writer;
+
+    /**
+     * Количество выполненных пакетов и команд (изменяются только пишущим потоком)
+     */
+    private volatile long batches = 0;
+    private volatile long commands = 0;
+
+    /**
+     * Конструктор
+     *
+     * @param manager - менеджер задач, изменяемый только через конвейер
+     */
+    public PipelinedTaskManager(InMemoryTaskManager manager) {
+        this(manager, defaultCapacity);
+    }
+
+    /**
+     * Конструктор
+     *
+     * @param manager - менеджер задач, изменяемый только через конвейер
+     * @param capacity - емкость кольцевого буфера (степень двойки) - максимальный размер пакета
+     */
+    public PipelinedTaskManager(InMemoryTaskManager manager, int capacity) {
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Емкость буфера должна быть степенью двойки: " + capacity);
+        }
+        this.manager = manager;
+        slots = new AtomicReferenceArray<>(capacity);
+        sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+        mask = capacity - 1;
+        writer = new Thread(this::writeLoop, "pipelined-task-manager");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    public TaskManager getTaskManager() {
+        return manager;
+    }
+
+    public long getBatches() {
+        return batches;
+    }
+
+    public long getCommands() {
+        return commands;
+    }
+
+    public CompletableFuture<Integer> addTask(Task task) {
+        return submit(m -> m.addTask(task));
+    }
+
+    public CompletableFuture<Boolean> updateTask(Task task) {
+        return submit(m -> m.updateTask(task));
+    }
+
+    public CompletableFuture<Boolean> removeTask(int id) {
+        return submit(m -> m.removeTask(id));
+    }
+
+    public CompletableFuture<Void> clearTasks() {
+        return submit(m -> {
+            m.clearTasks();
+            return null;
+        });
+    }
+
+    public CompletableFuture<Integer> addEpic(Epic epic) {
+        return submit(m -> m.addEpic(epic));
+    }
+
+    public CompletableFuture<Boolean> updateEpic(Epic epic) {
+        return submit(m -> m.updateEpic(epic));
+    }
+
+    public CompletableFuture<Boolean> removeEpic(int id) {
+        return submit(m -> m.removeEpic(id));
+    }
+
+    public CompletableFuture<Void> clearEpics() {
+        return submit(m -> {
+            m.clearEpics();
+            return null;
+        });
+    }
+
+    public CompletableFuture<Integer> addSubtask(Subtask subtask) {
+        return submit(m -> m.addSubtask(subtask));
+    }
+
+    public CompletableFuture<Boolean> updateSubtask(Subtask subtask) {
+        return submit(m -> m.updateSubtask(subtask));
+    }
+
+    public CompletableFuture<Boolean> removeSubtask(int id) {
+        return submit(m -> m.removeSubtask(id));
+    }
+
+    public CompletableFuture<Void> clearSubtasks() {
+        return submit(m -> {
+            m.clearSubtasks();
+            return null;
+        });
+    }
+
+    public List<Task> getTasks() {
+        return read(TaskManager::getTasks);
+    }
+
+    public Task getTask(int id) {
+        return read(m -> m.getTask(id));
+    }
+
+    public List<Epic> getEpics() {
+        return read(TaskManager::getEpics);
+    }
+
+    public Epic getEpic(int id) {
+        return read(m -> m.getEpic(id));
+    }
+
+    public List<Subtask> getEpicSubtasks(int id) {
+        return read(m -> m.getEpicSubtasks(id));
+    }
+
+    public List<Subtask> getSubtasks() {
+        return read(TaskManager::getSubtasks);
+    }
+
+    public Subtask getSubtask(int id) {
+        return read(m -> m.getSubtask(id));
+    }
+
+    public List<Task> getHistory() {
+        return read(TaskManager::getHistory);
+    }
+
+    /**
+     * Выполнить все команды, добавленные в буфер, и остановить пишущий поток.
+     * Команды, добавленные во время и после закрытия, завершаются с {@link IllegalStateException}.
+     * Если ожидание прервано, признак прерывания восстанавливается, а пишущий поток завершает команды сам
+     */
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(writer);
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private <T> T read(Function<InMemoryTaskManager, T> action) {
+        synchronized (manager) {
+            return action.apply(manager);
+        }
+    }
+
+    /**
+     * Добавить команду в кольцевой буфер, при заполненном буфере - дождаться свободной ячейки
+     */
+    private <T> CompletableFuture<T> submit(Function<InMemoryTaskManager, T> action) {
+        Command<T> command = new Command<>(action);
+        long position = tail.get();
+        while (true) {
+            if (!running) {
+                command.reject();
+                return command.future;
+            }
+            int index = (int) position & mask;
+            long difference = sequences.get(index) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    slots.set(index, command);
+                    sequences.set(index, position + 1);
+                    if (!running) {
+                        // менеджер закрыт во время добавления: пишущий поток мог уже завершиться, не забрав
+                        // команду. Если он её забрал, команда выполнится, иначе - отклоняется
+                        command.reject();
+                    }
+                    break;
+                }
+                position = tail.get();
+            } else if (difference < 0) {
+                // буфер заполнен - ждем, пока пишущий поток освободит ячейку
+                wakeWriter();
+                LockSupport.parkNanos(1_000);
+                position = tail.get();
+            } else {
+                // позицию заняла другая команда
+                position = tail.get();
+            }
+        }
+        wakeWriter();
+        return command.future;
+    }
+
+    private void wakeWriter() {
+        if (writerParked.get()) {
+            LockSupport.unpark(writer);
+        }
+    }
+
+    private void writeLoop() {
+        List<Command<?>> batch = new ArrayList<>(mask + 1);
+        while (true) {
+            drainTo(batch);
+            if (!batch.isEmpty()) {
+                apply(batch);
+                batch.clear();
+                continue;
+            }
+            if (!running) {
+                // команды, добавленные во время закрытия, выполняются до остановки потока
+                drainTo(batch);
+                if (batch.isEmpty()) {
+                    rejectRemaining();
+                    return;
+                }
+                apply(batch);
+                batch.clear();
+                continue;
+            }
+            writerParked.set(true);
+            // команда могла быть добавлена до установки признака ожидания
+            if (!isReadable()) {
+                LockSupport.park(this);
+            }
+            writerParked.set(false);
+        }
+    }
+
+    /**
+     * Забрать из буфера все готовые команды (не более емкости буфера)
+     */
+    private void drainTo(List<Command<?>> batch) {
+        while (batch.size() <= mask && isReadable()) {
+            Command<?> command = take();
+            if (command.claim()) {
+                batch.add(command);
+            }
+        }
+    }
+
+    /**
+     * Отклонить команды, позиции которых заняты до остановки пишущего потока, но которые не были готовы
+     * к последней выборке (добавляющий поток занял позицию, но еще не записал команду)
+     */
+    private void rejectRemaining() {
+        while (head < tail.get()) {
+            if (isReadable()) {
+                take().reject();
+            } else {
+                Thread.onSpinWait();
+            }
+        }
+    }
+
+    /**
+     * Забрать готовую команду из ячейки head и освободить ячейку
+     */
+    private Command<?> take() {
+        int index = (int) head & mask;
+        Command<?> command = slots.get(index);
+        slots.set(index, null);
+        sequences.set(index, head + mask + 1);
+        head++;
+        return command;
+    }
+
+    private boolean isReadable() {
+        return sequences.get((int) head & mask) == head + 1;
+    }
+
+    /**
+     * Выполнить пакет команд одной пакетной операцией менеджера и завершить их результаты
+     */
+    private void apply(List<Command<?>> batch) {
+        try {
+            synchronized (manager) {
+                manager.inBatch(() -> {
+                    for (Command<?> command : batch) {
+                        command.apply(manager);
+                    }
+                    return null;
+                });
+            }
+        } catch (RuntimeException e) {
+            // пакет не сохранен - ошибка относится ко всем его командам
+            for (Command<?> command : batch) {
+                command.future.completeExceptionally(e);
+            }
+            return;
+        } finally {
+            batches++;
+            commands += batch.size();
+        }
+        for (Command<?> command : batch) {
+            command.complete();
+        }
+    }
+}
@@ -0,0 +1,272 @@
+package ru.yandex.practicum.manager.task;
+
+import ru.yandex.practicum.exception.ManagerSaveException;
+import ru.yandex.practicum.manager.task.format.LoadStats;
+import ru.yandex.practicum.manager.task.format.SnapshotFormat;
+import ru.yandex.practicum.manager.task.format.TaskWriter;
+import ru.yandex.practicum.model.Task;
+import ru.yandex.practicum.model.TaskType;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Менеджер задач, хранящий состояние в каталоге, разбитом на сегменты.
+ * Сегмент - файл с задачами одного типа из одного диапазона идентификаторов (по {@link #getSegmentSize()} штук).
+ * Методы, изменяющие состояние, помечают затронутые сегменты как измененные, и сохраняются только они:
+ * например, изменение подзадачи перезаписывает сегмент подзадачи и сегмент её эпика, но не сегменты задач.
+ */
+public class SegmentedTaskManager extends FileBackedTaskManager {
+    /**
+     * Название каталога по-умолчанию для хранения сегментов
+     */
+    public static final String defaultSegmentsDirectory = "tasks.segments";
+
+    /**
+     * Количество идентификаторов в одном сегменте по-умолчанию
+     */
+    public static final int defaultSegmentSize = 10_000;
+
+    /**
+     * Имя файла сегмента: {тип}-{номер диапазона идентификаторов}.{расширение}
+     */
+    private static final Pattern SEGMENT_FILENAME = Pattern.compile("(task|epic|subtask)-(\\d+)\\.(csv|bin)");
+
+    /**
+     * Сегмент состояния
+     *
+     * @param type  Тип задач сегмента
+     * @param index Номер диапазона идентификаторов
+     */
+    private record Segment(TaskType type, int index) {
+    }
+
+    /**
+     * Количество идентификаторов в одном сегменте
+     */
+    private final int segmentSize;
+
+    /**
+     * Сегменты, записанные на диск
+     */
+    private final Set<Segment> storedSegments = new HashSet<>();
+
+    /**
+     * Сегменты, измененные после последнего сохранения
+     */
+    private final Set<Segment> dirtySegments = new HashSet<>();
+
+    /**
+     * Конструктор
+     */
+    public SegmentedTaskManager() {
+        this(defaultSegmentSize);
+    }
+
+    /**
+     * Конструктор
+     *
+     * @param segmentSize - количество идентификаторов в одном сегменте
+     */
+    public SegmentedTaskManager(int segmentSize) {
+        this(new File(defaultSegmentsDirectory), segmentSize);
+    }
+
+    /**
+     * Конструктор
+     *
+     * @param directory - каталог для хранения сегментов
+     * @param segmentSize - количество идентификаторов в одном сегменте
+     */
+    SegmentedTaskManager(File directory, int segmentSize) {
+        super(directory);
+        this.segmentSize = segmentSize;
+    }
+
+    /**
+     * Создать менеджер и восстановить его состояние из каталога с сегментами
+     */
+    public static SegmentedTaskManager loadFromDirectory(File directory, int segmentSize) throws IOException {
+        SegmentedTaskManager result = new SegmentedTaskManager(directory, segmentSize);
+        result.load();
+        return result;
+    }
+
+    /**
+     * Пометить затронутые изменениями сегменты и сохранить их
+     */
+    @Override
+    protected synchronized void persist(StateChange... changes) {
+        for (StateChange change : changes) {
+            switch (change.operation()) {
+                case PUT, REMOVE -> dirtySegments.add(segmentOf(change.type(), change.id()));
+                case CLEAR -> {
+                    markStoredDirty(change.type());
+                    // удаление эпиков удаляет подзадачи, удаление подзадач меняет статусы эпиков
+                    if (change.type() == TaskType.EPIC) {
+                        markStoredDirty(TaskType.SUBTASK);
+                    } else if (change.type() == TaskType.SUBTASK) {
+                        markStoredDirty(TaskType.EPIC);
+                        epics.keySet().forEach(id -> dirtySegments.add(segmentOf(TaskType.EPIC, id)));
+                    }
+                }
+            }
+        }
+        save();
+    }
+
+    /**
+     * Сохранить измененные сегменты
+     */
+    @Override
+    public synchronized void save() {
+        File directory = getStateFile();
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new ManagerSaveException("Не удалось создать каталог " + directory, null);
+        }
+        if (dirtySegments.isEmpty()) {
+            return;
+        }
+        // задачи измененных сегментов; сегменты, оставшиеся без задач, удаляются
+        Map<Segment, List<Task>> content = new HashMap<>();
+        dirtySegments.forEach(segment -> content.put(segment, new ArrayList<>()));
+        collectDirty(TaskType.TASK, tasks, content);
+        collectDirty(TaskType.EPIC, epics, content);
+        collectDirty(TaskType.SUBTASK, subtasks, content);
+
+        try {
+            for (Map.Entry<Segment, List<Task>> entry : content.entrySet()) {
+                Segment segment = entry.getKey();
+                File file = segmentFile(segment, getSnapshotFormat());
+                if (entry.getValue().isEmpty()) {
+                    deleteSegment(segment);
+                    continue;
+                }
+                // сегмент, записанный ранее в другом формате, иначе был бы прочитан при загрузке вместе с новым
+                deleteSegmentFiles(segment, getSnapshotFormat());
+                writeAtomically(file, output -> {
+                    try (TaskWriter writer = getSnapshotFormat().createWriter(output)) {
+                        for (Task task : entry.getValue()) {
+                            writer.write(task);
+                        }
+                    }
+                });
+                storedSegments.add(segment);
+            }
+        } catch (IOException e) {
+            throw new ManagerSaveException("Произошла ошибка во время сохранения сегментов состояния менеджера", e);
+        }
+        dirtySegments.clear();
+    }
+
+    /**
+     * Сохранить все сегменты, независимо от того, изменялись ли они
+     */
+    public synchronized void saveAll() {
+        dirtySegments.addAll(storedSegments);
+        tasks.keySet().forEach(id -> dirtySegments.add(segmentOf(TaskType.TASK, id)));
+        epics.keySet().forEach(id -> dirtySegments.add(segmentOf(TaskType.EPIC, id)));
+        subtasks.keySet().forEach(id -> dirtySegments.add(segmentOf(TaskType.SUBTASK, id)));
+        save();
+    }
+
+    /**
+     * Загрузить состояние менеджера из всех сегментов каталога
+     */
+    @Override
+    public synchronized void load() throws IOException {
+        long start = System.nanoTime();
+        long rows = 0;
+        long bytes = 0;
+        File[] files = getStateFile().listFiles();
+        if (files != null) {
+            for (File file : files) {
+                Matcher matcher = SEGMENT_FILENAME.matcher(file.getName());
+                if (!matcher.matches()) {
+                    continue;
+                }
+                SnapshotFormat format = SnapshotFormat.detect(file);
+                setSnapshotFormat(format);
+                rows += readFile(file, format);
+                bytes += file.length();
+                storedSegments.add(new Segment(TaskType.valueOf(matcher.group(1).toUpperCase()),
+                        Integer.parseInt(matcher.group(2))));
+            }
+        }
+        // сегменты читаются в произвольном порядке, поэтому подзадачи связываются с эпиками после чтения всех
+        linkSubtasks();
+        setLastLoadStats(new LoadStats(rows, bytes, System.nanoTime() - start));
+    }
+
+    public int getSegmentSize() {
+        return segmentSize;
+    }
+
+    private Segment segmentOf(TaskType type, int id) {
+        return new Segment(type, Math.floorDiv(id, segmentSize));
+    }
+
+    private void markStoredDirty(TaskType type) {
+        storedSegments.stream().filter(segment -> segment.type() == type).forEach(dirtySegments::add);
+    }
+
+    /**
+     * Распределить задачи измененных сегментов по сегментам.
+     * Просматриваются только диапазоны идентификаторов измененных сегментов, поэтому сохранение изменения
+     * не зависит от общего количества задач; если диапазоны больше словаря, просматривается словарь
+     */
+    private void collectDirty(TaskType type, Map<Integer, ? extends Task> values, Map<Segment, List<Task>> content) {
+        List<Segment> segments = content.keySet().stream().filter(segment -> segment.type() == type).toList();
+        if (segments.isEmpty()) {
+            return;
+        }
+        if ((long) segments.size() * segmentSize < values.size()) {
+            for (Segment segment : segments) {
+                List<Task> segmentTasks = content.get(segment);
+                long from = (long) segment.index() * segmentSize;
+                for (long id = from; id < from + segmentSize; id++) {
+                    Task task = values.get((int) id);
+                    if (task != null) {
+                        segmentTasks.add(task);
+                    }
+                }
+            }
+            return;
+        }
+        for (Task task : values.values()) {
+            List<Task> segmentTasks = content.get(segmentOf(type, task.getId()));
+            if (segmentTasks != null) {
+                segmentTasks.add(task);
+            }
+        }
+    }
+
+    private File segmentFile(Segment segment, SnapshotFormat format) {
+        String extension = format == SnapshotFormat.BINARY ? "bin" : "csv";
+        return new File(getStateFile(),
+                segment.type().name().toLowerCase() + "-" + segment.index() + "." + extension);
+    }
+
+    private void deleteSegment(Segment segment) {
+        deleteSegmentFiles(segment, null);
+        storedSegments.remove(segment);
+    }
+
+    /**
+     * Удалить файлы сегмента во всех форматах, кроме указанного (null - во всех форматах)
+     */
+    private void deleteSegmentFiles(Segment segment, SnapshotFormat kept) {
+        for (SnapshotFormat format : SnapshotFormat.values()) {
+            if (format == kept) {
+                continue;
+            }
+            File file = segmentFile(segment, format);
+            if (file.exists() && !file.delete()) {
+                throw new ManagerSaveException("Не удалось удалить сегмент " + file, null);
+            }
+        }
+    }
+}
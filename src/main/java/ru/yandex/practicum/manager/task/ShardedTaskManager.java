@@ -0,0 +1,344 @@
+package ru.yandex.practicum.manager.task;
+
+import ru.yandex.practicum.manager.history.ConcurrentHistoryManager;
+import ru.yandex.practicum.manager.history.HistoryManager;
+import ru.yandex.practicum.manager.id.StridedIdAllocator;
+import ru.yandex.practicum.manager.task.format.SnapshotFormat;
+import ru.yandex.practicum.model.Epic;
+import ru.yandex.practicum.model.StringPool;
+import ru.yandex.practicum.model.Subtask;
+import ru.yandex.practicum.model.Task;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Менеджер задач, распределяющий задачи по N независимым разделам (шардам).
+ * Каждый раздел - отдельный {@link InMemoryTaskManager} (или {@link FileBackedTaskManager} со своим файлом),
+ * выдающий идентификаторы с шагом N: раздел i выдает идентификаторы i, i + N, i + 2N, ...
+ * Поэтому раздел задачи определяется по её идентификатору ({@code id % N}) без общего каталога.
+ * Подзадача добавляется в раздел своего эпика и получает идентификатор этого раздела: эпик и его подзадачи
+ * всегда находятся в одном разделе, и статус эпика пересчитывается внутри раздела.
+ * <p>
+ * Новые задачи и эпики распределяются по разделам по очереди. Операции над разными разделами выполняются
+ * параллельно, операции внутри раздела - по одной под блокировкой раздела.
+ * Получение списков и очистка выполняются во всех разделах параллельно, списки объединяются в порядке
+ * возрастания идентификаторов. История просмотров общая для всех разделов.
+ */
+public class ShardedTaskManager implements TaskManager {
+    /**
+     * Шаблон имени файла раздела в каталоге менеджера
+     */
+    public static final String shardFilenameFormat = "shard-%d.csv";
+
+    /**
+     * Разделы
+     */
+    private final InMemoryTaskManager[] shards;
+
+    /**
+     * Счетчик для распределения новых задач и эпиков по разделам
+     */
+    private final AtomicInteger nextShard = new AtomicInteger();
+
+    /**
+     * Менеджер, отвечающий за хранение истории просмотров задач (общий для разделов)
+     */
+    private final HistoryManager historyManager = new ConcurrentHistoryManager();
+
+    /**
+     * Конструктор менеджера с разделами в памяти
+     *
+     * @param shardCount - количество разделов
+     */
+    public ShardedTaskManager(int shardCount) {
+        this(shardCount, null);
+    }
+
+    /**
+     * @param directory Каталог для файлов разделов (null - разделы в памяти)
+     */
+    private ShardedTaskManager(int shardCount, File directory) {
+        if (shardCount <= 0) {
+            throw new IllegalArgumentException("Некорректное количество разделов " + shardCount);
+        }
+        shards = new InMemoryTaskManager[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            StridedIdAllocator idAllocator = new StridedIdAllocator(i, shardCount);
+            shards[i] = directory == null
+                    ? new InMemoryTaskManager(idAllocator, historyManager)
+                    : new FileBackedTaskManager(new File(directory, String.format(shardFilenameFormat, i)),
+                            SnapshotFormat.CSV, idAllocator, historyManager);
+        }
+    }
+
+    /**
+     * Создать менеджер с разделами, сохраняемыми каждый в свой файл каталога, и загрузить существующие файлы.
+     * Количество разделов должно совпадать с количеством при сохранении.
+     *
+     * @param directory  Каталог для файлов разделов
+     * @param shardCount Количество разделов
+     */
+    public static ShardedTaskManager loadFromDirectory(File directory, int shardCount) throws IOException {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Не удалось создать каталог " + directory);
+        }
+        ShardedTaskManager result = new ShardedTaskManager(shardCount, directory);
+        for (InMemoryTaskManager shard : result.shards) {
+            FileBackedTaskManager fileShard = (FileBackedTaskManager) shard;
+            if (fileShard.getStateFile().length() > 0) {
+                fileShard.load();
+            }
+        }
+        return result;
+    }
+
+    public int getShardCount() {
+        return shards.length;
+    }
+
+    /**
+     * Получить раздел по номеру (для диагностики и тестов)
+     */
+    public TaskManager getShard(int index) {
+        return shards[index];
+    }
+
+    /**
+     * Хранить названия и описания задач всех разделов в общем пуле строк
+     *
+     * @param stringPool Пул строк, null - не использовать пул
+     */
+    public void setStringPool(StringPool stringPool) {
+        for (InMemoryTaskManager shard : shards) {
+            synchronized (shard) {
+                shard.setStringPool(stringPool);
+            }
+        }
+    }
+
+    @Override
+    public List<Task> getTasks() {
+        return fanOut(TaskManager::getTasks);
+    }
+
+    @Override
+    public void clearTasks() {
+        fanOut(shard -> {
+            shard.clearTasks();
+            return List.of();
+        });
+    }
+
+    @Override
+    public Task getTask(int id) {
+        InMemoryTaskManager shard = shardOf(id);
+        synchronized (shard) {
+            return shard.getTask(id);
+        }
+    }
+
+    @Override
+    public int addTask(Task task) {
+        InMemoryTaskManager shard = nextShard();
+        synchronized (shard) {
+            return shard.addTask(task);
+        }
+    }
+
+    @Override
+    public boolean updateTask(Task task) {
+        InMemoryTaskManager shard = shardOf(task.getId());
+        synchronized (shard) {
+            return shard.updateTask(task);
+        }
+    }
+
+    @Override
+    public UpdateResult compareAndUpdateTask(Task task) {
+        InMemoryTaskManager shard = shardOf(task.getId());
+        synchronized (shard) {
+            return shard.compareAndUpdateTask(task);
+        }
+    }
+
+    @Override
+    public boolean removeTask(int id) {
+        InMemoryTaskManager shard = shardOf(id);
+        synchronized (shard) {
+            return shard.removeTask(id);
+        }
+    }
+
+    @Override
+    public List<Epic> getEpics() {
+        return fanOut(TaskManager::getEpics);
+    }
+
+    @Override
+    public void clearEpics() {
+        fanOut(shard -> {
+            shard.clearEpics();
+            return List.of();
+        });
+    }
+
+    @Override
+    public Epic getEpic(int id) {
+        InMemoryTaskManager shard = shardOf(id);
+        synchronized (shard) {
+            return shard.getEpic(id);
+        }
+    }
+
+    @Override
+    public int addEpic(Epic epic) {
+        InMemoryTaskManager shard = nextShard();
+        synchronized (shard) {
+            return shard.addEpic(epic);
+        }
+    }
+
+    @Override
+    public boolean updateEpic(Epic epic) {
+        InMemoryTaskManager shard = shardOf(epic.getId());
+        synchronized (shard) {
+            return shard.updateEpic(epic);
+        }
+    }
+
+    @Override
+    public UpdateResult compareAndUpdateEpic(Epic epic) {
+        InMemoryTaskManager shard = shardOf(epic.getId());
+        synchronized (shard) {
+            return shard.compareAndUpdateEpic(epic);
+        }
+    }
+
+    @Override
+    public List<Subtask> getEpicSubtasks(int id) {
+        InMemoryTaskManager shard = shardOf(id);
+        synchronized (shard) {
+            return shard.getEpicSubtasks(id);
+        }
+    }
+
+    @Override
+    public boolean removeEpic(int id) {
+        InMemoryTaskManager shard = shardOf(id);
+        synchronized (shard) {
+            return shard.removeEpic(id);
+        }
+    }
+
+    @Override
+    public List<Subtask> getSubtasks() {
+        return fanOut(TaskManager::getSubtasks);
+    }
+
+    @Override
+    public void clearSubtasks() {
+        fanOut(shard -> {
+            shard.clearSubtasks();
+            return List.of();
+        });
+    }
+
+    @Override
+    public Subtask getSubtask(int id) {
+        InMemoryTaskManager shard = shardOf(id);
+        synchronized (shard) {
+            return shard.getSubtask(id);
+        }
+    }
+
+    @Override
+    public Integer addSubtask(Subtask subtask) {
+        // подзадача хранится в разделе своего эпика и получает идентификатор этого раздела
+        InMemoryTaskManager shard = shardOf(subtask.getEpicId());
+        synchronized (shard) {
+            return shard.addSubtask(subtask);
+        }
+    }
+
+    @Override
+    public boolean updateSubtask(Subtask subtask) {
+        InMemoryTaskManager shard = shardOf(subtask.getId());
+        synchronized (shard) {
+            return shard.updateSubtask(subtask);
+        }
+    }
+
+    @Override
+    public UpdateResult compareAndUpdateSubtask(Subtask subtask) {
+        InMemoryTaskManager shard = shardOf(subtask.getId());
+        synchronized (shard) {
+            return shard.compareAndUpdateSubtask(subtask);
+        }
+    }
+
+    @Override
+    public boolean removeSubtask(int id) {
+        InMemoryTaskManager shard = shardOf(id);
+        synchronized (shard) {
+            return shard.removeSubtask(id);
+        }
+    }
+
+    @Override
+    public List<Task> getHistory() {
+        return historyManager.getHistory();
+    }
+
+    @Override
+    public void forEachTask(Consumer<? super Task> action) {
+        getTasks().forEach(action);
+    }
+
+    @Override
+    public void forEachEpic(Consumer<? super Epic> action) {
+        getEpics().forEach(action);
+    }
+
+    @Override
+    public void forEachSubtask(Consumer<? super Subtask> action) {
+        getSubtasks().forEach(action);
+    }
+
+    /**
+     * Получить раздел, хранящий задачу с указанным идентификатором
+     */
+    private InMemoryTaskManager shardOf(int id) {
+        return shards[Math.floorMod(id, shards.length)];
+    }
+
+    /**
+     * Получить раздел для новой задачи или эпика
+     */
+    private InMemoryTaskManager nextShard() {
+        return shards[Math.floorMod(nextShard.getAndIncrement(), shards.length)];
+    }
+
+    /**
+     * Выполнить операцию во всех разделах параллельно (каждый раздел - под своей блокировкой)
+     *
+     * @return Объединенные результаты разделов в порядке возрастания идентификаторов
+     */
+    private <T extends Task> List<T> fanOut(Function<InMemoryTaskManager, List<T>> action) {
+        return Arrays.stream(shards)
+                .parallel()
+                .flatMap(shard -> {
+                    synchronized (shard) {
+                        return action.apply(shard).stream();
+                    }
+                })
+                .sorted(Comparator.comparingInt(Task::getId))
+                .toList();
+    }
+}
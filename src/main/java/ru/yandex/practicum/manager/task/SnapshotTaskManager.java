@@ -0,0 +1,454 @@
+package ru.yandex.practicum.manager.task;
+
+import ru.yandex.practicum.manager.history.ConcurrentHistoryManager;
+import ru.yandex.practicum.manager.history.HistoryManager;
+import ru.yandex.practicum.manager.id.AtomicIdAllocator;
+import ru.yandex.practicum.manager.id.IdAllocator;
+import ru.yandex.practicum.model.Epic;
+import ru.yandex.practicum.model.Subtask;
+import ru.yandex.practicum.model.Task;
+import ru.yandex.practicum.model.TaskState;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Менеджер задач с чтением из снимков состояния (MVCC).
+ * Состояние хранится в неизменяемых словарях {@link PersistentIntMap} и публикуется целиком как {@link Snapshot}.
+ * Чтение ({@link #getTasks()}, {@link #getEpicSubtasks(int)} и т.д.) выполняется из текущего снимка без блокировок,
+ * а {@link #snapshot()} за O(1) возвращает снимок, который можно читать сколь угодно долго, не задерживая изменения.
+ * <p>
+ * Изменения выполняются по одному под блокировкой менеджера: каждое изменение строит новый снимок, разделяющий
+ * неизмененные данные с предыдущим. Эпики, попавшие в снимок, не изменяются - при изменении подзадач эпик копируется
+ * (copy-on-write), поэтому статус и подзадачи эпика в снимке всегда согласованы.
+ * <p>
+ * Копирование эпика занимает время, пропорциональное количеству его подзадач. Пакетные операции
+ * ({@link #addSubtasks(int, Collection)}, {@link #updateSubtasks(Collection)}, {@link #removeByIds(Collection)})
+ * копируют каждый затронутый эпик один раз и публикуют один снимок, поэтому добавление N подзадач пакетом
+ * выполняется за O(N), а не за O(N²), как при добавлении по одной.
+ */
+public class SnapshotTaskManager implements TaskManager {
+    /**
+     * Снимок состояния менеджера: задачи, эпики и подзадачи на момент {@link #version()}
+     *
+     * @param version  Номер версии (увеличивается при каждом изменении)
+     * @param tasks    Задачи
+     * @param epics    Эпики
+     * @param subtasks Подзадачи
+     */
+    public record Snapshot(long version, PersistentIntMap<Task> tasks, PersistentIntMap<Epic> epics,
+                           PersistentIntMap<Subtask> subtasks) {
+        public List<Task> getTasks() {
+            return tasks.values();
+        }
+
+        public List<Epic> getEpics() {
+            return epics.values();
+        }
+
+        public List<Subtask> getSubtasks() {
+            return subtasks.values();
+        }
+
+        /**
+         * Получить подзадачи эпика
+         *
+         * @return Подзадачи эпика, если он найден. Иначе пустой список
+         */
+        public List<Subtask> getEpicSubtasks(int epicId) {
+            Epic epic = epics.get(epicId);
+            if (epic == null) {
+                return new ArrayList<>();
+            }
+            return epic.getSubtasks().stream().mapToObj(subtasks::get).toList();
+        }
+    }
+
+    /**
+     * Источник идентификаторов
+     */
+    private final IdAllocator idAllocator;
+
+    /**
+     * Текущий снимок состояния
+     */
+    private volatile Snapshot current =
+            new Snapshot(0, PersistentIntMap.empty(), PersistentIntMap.empty(), PersistentIntMap.empty());
+
+    /**
+     * Состояние, изменяемое пакетной операцией (null вне пакетной операции).
+     * Публикуется одним снимком по окончании пакета
+     */
+    private Snapshot pending = null;
+
+    /**
+     * Копии эпиков, созданные в текущей пакетной операции и еще не опубликованные
+     * (их можно изменять повторно без копирования)
+     */
+    private final Set<Epic> ownedEpics = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    /**
+     * Менеджер, отвечающий за хранение истории просмотров задач
+     */
+    private final HistoryManager historyManager = new ConcurrentHistoryManager();
+
+    /**
+     * Конструктор
+     */
+    public SnapshotTaskManager() {
+        this(new AtomicIdAllocator());
+    }
+
+    /**
+     * Конструктор
+     *
+     * @param idAllocator - потокобезопасный источник идентификаторов задач
+     */
+    public SnapshotTaskManager(IdAllocator idAllocator) {
+        this.idAllocator = idAllocator;
+    }
+
+    /**
+     * Получить текущий снимок состояния (за O(1), без блокировок)
+     */
+    public Snapshot snapshot() {
+        return current;
+    }
+
+    public int getNextId() {
+        return idAllocator.next();
+    }
+
+    @Override
+    public List<Task> getTasks() {
+        return current.getTasks();
+    }
+
+    @Override
+    public synchronized void clearTasks() {
+        publish(PersistentIntMap.empty(), state().epics(), state().subtasks());
+    }
+
+    @Override
+    public Task getTask(int id) {
+        Task result = current.tasks().get(id);
+        if (result != null) {
+            historyManager.add(result);
+        }
+        return result;
+    }
+
+    @Override
+    public synchronized int addTask(Task task) {
+        task.setId(getNextId());
+        publish(state().tasks().put(task.getId(), task), state().epics(), state().subtasks());
+        return task.getId();
+    }
+
+    @Override
+    public synchronized boolean updateTask(Task task) {
+        Task taskFromManager = state().tasks().get(task.getId());
+        if (taskFromManager == null) {
+            return false;
+        }
+        task.setVersion(taskFromManager.getVersion() + 1);
+        publish(state().tasks().put(task.getId(), task), state().epics(), state().subtasks());
+        return true;
+    }
+
+    @Override
+    public synchronized UpdateResult compareAndUpdateTask(Task task) {
+        Task taskFromManager = state().tasks().get(task.getId());
+        if (taskFromManager == null) {
+            return UpdateResult.NOT_FOUND;
+        }
+        // переданный объект - сам хранимый объект: его версия не подтверждает отсутствие изменений
+        if (taskFromManager == task || taskFromManager.getVersion() != task.getVersion()) {
+            return UpdateResult.rejected(taskFromManager.getVersion());
+        }
+        updateTask(task);
+        return UpdateResult.updated(task.getVersion());
+    }
+
+    @Override
+    public synchronized boolean removeTask(int id) {
+        if (!state().tasks().containsKey(id)) {
+            return false;
+        }
+        publish(state().tasks().remove(id), state().epics(), state().subtasks());
+        return true;
+    }
+
+    @Override
+    public List<Epic> getEpics() {
+        return current.getEpics();
+    }
+
+    @Override
+    public synchronized void clearEpics() {
+        publish(state().tasks(), PersistentIntMap.empty(), PersistentIntMap.empty());
+    }
+
+    @Override
+    public Epic getEpic(int id) {
+        Epic result = current.epics().get(id);
+        if (result != null) {
+            historyManager.add(result);
+        }
+        return result;
+    }
+
+    @Override
+    public synchronized int addEpic(Epic epic) {
+        epic.setId(getNextId());
+        epic.clearSubtasks();
+        publish(state().tasks(), state().epics().put(epic.getId(), epic), state().subtasks());
+        return epic.getId();
+    }
+
+    @Override
+    public synchronized boolean updateEpic(Epic epic) {
+        Epic epicFromManager = state().epics().get(epic.getId());
+        if (epicFromManager == null) {
+            return false;
+        }
+        // подзадачи и статус эпика переносятся из эпика, хранимого в менеджере
+        epic.replaceSubtasks(epicFromManager);
+        epic.setState(epicFromManager.getState());
+        epic.setVersion(epicFromManager.getVersion() + 1);
+        publish(state().tasks(), state().epics().put(epic.getId(), epic), state().subtasks());
+        return true;
+    }
+
+    @Override
+    public synchronized UpdateResult compareAndUpdateEpic(Epic epic) {
+        Epic epicFromManager = state().epics().get(epic.getId());
+        if (epicFromManager == null) {
+            return UpdateResult.NOT_FOUND;
+        }
+        // переданный объект - сам хранимый объект: его версия не подтверждает отсутствие изменений
+        if (epicFromManager == epic || epicFromManager.getVersion() != epic.getVersion()) {
+            return UpdateResult.rejected(epicFromManager.getVersion());
+        }
+        updateEpic(epic);
+        return UpdateResult.updated(epic.getVersion());
+    }
+
+    @Override
+    public List<Subtask> getEpicSubtasks(int id) {
+        return current.getEpicSubtasks(id);
+    }
+
+    @Override
+    public synchronized boolean removeEpic(int id) {
+        Epic epic = state().epics().get(id);
+        if (epic == null) {
+            return false;
+        }
+        PersistentIntMap<Subtask> subtasks = state().subtasks();
+        for (int subtaskId : epic.getSubtasks().toArray()) {
+            subtasks = subtasks.remove(subtaskId);
+        }
+        publish(state().tasks(), state().epics().remove(id), subtasks);
+        return true;
+    }
+
+    @Override
+    public List<Subtask> getSubtasks() {
+        return current.getSubtasks();
+    }
+
+    @Override
+    public synchronized void clearSubtasks() {
+        PersistentIntMap<Epic> epics = state().epics();
+        for (Epic epic : epics.values()) {
+            Epic copy = copyForChange(epic);
+            copy.clearSubtasks();
+            copy.setState(TaskState.NEW);
+            epics = epics.put(copy.getId(), copy);
+        }
+        publish(state().tasks(), epics, PersistentIntMap.empty());
+    }
+
+    @Override
+    public Subtask getSubtask(int id) {
+        Subtask result = current.subtasks().get(id);
+        if (result != null) {
+            historyManager.add(result);
+        }
+        return result;
+    }
+
+    @Override
+    public synchronized Integer addSubtask(Subtask subtask) {
+        Epic epic = state().epics().get(subtask.getEpicId());
+        if (epic == null) {
+            return null;
+        }
+        subtask.setId(getNextId());
+        PersistentIntMap<Subtask> subtasks = state().subtasks().put(subtask.getId(), subtask);
+        Epic copy = copyForChange(epic);
+        copy.addSubtask(subtask.getId(), subtask.getState());
+        refreshEpicState(copy);
+        publish(state().tasks(), state().epics().put(copy.getId(), copy), subtasks);
+        return subtask.getId();
+    }
+
+    @Override
+    public synchronized boolean updateSubtask(Subtask subtask) {
+        Epic epic = state().epics().get(subtask.getEpicId());
+        if (epic == null || !epic.containsSubtask(subtask.getId())) {
+            return false;
+        }
+        Subtask subtaskFromManager = state().subtasks().get(subtask.getId());
+        subtask.setVersion(subtaskFromManager.getVersion() + 1);
+        PersistentIntMap<Subtask> subtasks = state().subtasks().put(subtask.getId(), subtask);
+        Epic copy = copyForChange(epic);
+        if (subtaskFromManager == subtask) {
+            // подзадача изменена "на месте" - прежний статус неизвестен, поэтому количество пересчитывается
+            copy.recountSubtaskStates(stId -> subtasks.get(stId).getState());
+        } else {
+            copy.changeSubtaskState(subtask.getId(), subtask.getState());
+        }
+        refreshEpicState(copy);
+        publish(state().tasks(), state().epics().put(copy.getId(), copy), subtasks);
+        return true;
+    }
+
+    @Override
+    public synchronized UpdateResult compareAndUpdateSubtask(Subtask subtask) {
+        Subtask subtaskFromManager = state().subtasks().get(subtask.getId());
+        if (subtaskFromManager == null) {
+            return UpdateResult.NOT_FOUND;
+        }
+        // переданный объект - сам хранимый объект: его версия не подтверждает отсутствие изменений
+        if (subtaskFromManager == subtask || subtaskFromManager.getVersion() != subtask.getVersion()) {
+            return UpdateResult.rejected(subtaskFromManager.getVersion());
+        }
+        if (!updateSubtask(subtask)) {
+            // подзадача не найдена в указанном эпике
+            return UpdateResult.NOT_FOUND;
+        }
+        return UpdateResult.updated(subtask.getVersion());
+    }
+
+    @Override
+    public synchronized boolean removeSubtask(int id) {
+        Subtask subtask = state().subtasks().get(id);
+        if (subtask == null) {
+            return false;
+        }
+        Epic epic = state().epics().get(subtask.getEpicId());
+        if (epic == null) {
+            return false;
+        }
+        PersistentIntMap<Subtask> subtasks = state().subtasks().remove(id);
+        Epic copy = copyForChange(epic);
+        copy.removeSubtask(id);
+        refreshEpicState(copy);
+        publish(state().tasks(), state().epics().put(copy.getId(), copy), subtasks);
+        return true;
+    }
+
+    @Override
+    public List<Task> getHistory() {
+        return historyManager.getHistory();
+    }
+
+    @Override
+    public void forEachTask(Consumer<? super Task> action) {
+        current.tasks().forEach(action);
+    }
+
+    @Override
+    public void forEachEpic(Consumer<? super Epic> action) {
+        current.epics().forEach(action);
+    }
+
+    @Override
+    public void forEachSubtask(Consumer<? super Subtask> action) {
+        current.subtasks().forEach(action);
+    }
+
+    @Override
+    public synchronized List<Integer> addSubtasks(int epicId, Collection<? extends Subtask> subtasks) {
+        return inBatch(() -> TaskManager.super.addSubtasks(epicId, subtasks));
+    }
+
+    @Override
+    public synchronized int updateSubtasks(Collection<? extends Subtask> subtasks) {
+        return inBatch(() -> TaskManager.super.updateSubtasks(subtasks));
+    }
+
+    @Override
+    public synchronized int removeByIds(Collection<Integer> ids) {
+        return inBatch(() -> TaskManager.super.removeByIds(ids));
+    }
+
+    /**
+     * Выполнить несколько изменений и опубликовать их одним снимком. Изменения, выполненные до ошибки,
+     * публикуются. Вызывается только под блокировкой менеджера
+     */
+    private <T> T inBatch(Supplier<T> action) {
+        if (pending != null) {
+            return action.get();
+        }
+        pending = current;
+        try {
+            return action.get();
+        } finally {
+            current = pending;
+            pending = null;
+            ownedEpics.clear();
+        }
+    }
+
+    /**
+     * Получить состояние, которое изменяет текущая операция. Вызывается только под блокировкой менеджера
+     */
+    private Snapshot state() {
+        return pending != null ? pending : current;
+    }
+
+    /**
+     * Получить копию эпика для изменения. В пакетной операции эпик копируется только при первом изменении
+     */
+    private Epic copyForChange(Epic epic) {
+        if (pending == null) {
+            return new Epic(epic);
+        }
+        if (ownedEpics.contains(epic)) {
+            return epic;
+        }
+        Epic copy = new Epic(epic);
+        ownedEpics.add(copy);
+        return copy;
+    }
+
+    /**
+     * Опубликовать новый снимок состояния (в пакетной операции - запомнить до окончания пакета).
+     * Вызывается только под блокировкой менеджера
+     */
+    private void publish(PersistentIntMap<Task> tasks, PersistentIntMap<Epic> epics,
+                         PersistentIntMap<Subtask> subtasks) {
+        Snapshot snapshot = new Snapshot(state().version() + 1, tasks, epics, subtasks);
+        if (pending != null) {
+            pending = snapshot;
+        } else {
+            current = snapshot;
+        }
+    }
+
+    /**
+     * Обновить статус копии эпика на основе количества его подзадач по статусам
+     */
+    private static void refreshEpicState(Epic epic) {
+        epic.setState(epic.calculateState());
+    }
+}
@@ -0,0 +1,53 @@
+package ru.yandex.practicum.manager.task;
+
+import ru.yandex.practicum.model.Task;
+import ru.yandex.practicum.model.TaskType;
+
+/**
+ * Изменение состояния менеджера, подлежащее сохранению.
+ *
+ * @param operation Операция
+ * @param type      Тип задачи, к которой применена операция
+ * @param id        Идентификатор задачи ({@link Task#DEFAULT_ID} для {@link Operation#CLEAR})
+ * @param task      Задача в состоянии после изменения (только для {@link Operation#PUT})
+ */
+public record StateChange(Operation operation, TaskType type, int id, Task task) {
+    /**
+     * Операция над задачами менеджера
+     */
+    public enum Operation {
+        /**
+         * Добавление или обновление задачи
+         */
+        PUT,
+        /**
+         * Удаление задачи
+         */
+        REMOVE,
+        /**
+         * Удаление всех задач указанного типа
+         */
+        CLEAR
+    }
+
+    /**
+     * Добавление или обновление задачи
+     */
+    public static StateChange put(Task task) {
+        return new StateChange(Operation.PUT, TaskType.of(task), task.getId(), task);
+    }
+
+    /**
+     * Удаление задачи
+     */
+    public static StateChange remove(TaskType type, int id) {
+        return new StateChange(Operation.REMOVE, type, id, null);
+    }
+
+    /**
+     * Удаление всех задач указанного типа
+     */
+    public static StateChange clear(TaskType type) {
+        return new StateChange(Operation.CLEAR, type, Task.DEFAULT_ID, null);
+    }
+}
@@ -4,7 +4,10 @@ import ru.yandex.practicum.model.Epic;
 import ru.yandex.practicum.model.Subtask;
 import ru.yandex.practicum.model.Task;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface TaskManager {
     void clearTasks();
@@ -46,4 +49,110 @@ public interface TaskManager {
     boolean removeSubtask(int id);
 
     List<Task> getHistory();
+
+    /**
+     * Обновить задачу, если её версия в менеджере совпадает с версией переданной задачи
+     * (задача не менялась с момента её получения). Позволяет обновлять задачи без блокировок на стороне клиента:
+     * получить задачу, изменить копию, обновить; при конфликте - повторить с текущей версией.
+     * <p>
+     * Менеджеры в памяти возвращают хранимые объекты, поэтому изменять нужно именно копию: если передан сам
+     * хранимый объект (изменённый "на месте"), его версия всегда совпадает с версией в менеджере и не подтверждает
+     * отсутствие чужих изменений, поэтому такое обновление отклоняется как конфликт.
+     *
+     * @return Результат обновления с текущей версией задачи
+     */
+    UpdateResult compareAndUpdateTask(Task task);
+
+    /**
+     * Обновить эпик, если его версия в менеджере совпадает с версией переданного эпика
+     *
+     * @return Результат обновления с текущей версией эпика
+     */
+    UpdateResult compareAndUpdateEpic(Epic epic);
+
+    /**
+     * Обновить подзадачу, если её версия в менеджере совпадает с версией переданной подзадачи
+     *
+     * @return Результат обновления с текущей версией подзадачи
+     */
+    UpdateResult compareAndUpdateSubtask(Subtask subtask);
+
+    /**
+     * Обойти все задачи типа {@link Task}, не создавая их список
+     */
+    default void forEachTask(Consumer<? super Task> action) {
+        getTasks().forEach(action);
+    }
+
+    /**
+     * Обойти все задачи типа {@link Epic}, не создавая их список
+     */
+    default void forEachEpic(Consumer<? super Epic> action) {
+        getEpics().forEach(action);
+    }
+
+    /**
+     * Обойти все задачи типа {@link Subtask}, не создавая их список
+     */
+    default void forEachSubtask(Consumer<? super Subtask> action) {
+        getSubtasks().forEach(action);
+    }
+
+    /**
+     * Добавить несколько задач
+     *
+     * @return Идентификаторы добавленных задач в порядке следования задач
+     */
+    default List<Integer> addTasks(Collection<? extends Task> tasks) {
+        List<Integer> result = new ArrayList<>(tasks.size());
+        for (Task task : tasks) {
+            result.add(addTask(task));
+        }
+        return result;
+    }
+
+    /**
+     * Добавить несколько подзадач в эпик
+     *
+     * @param epicId   Идентификатор эпика
+     * @param subtasks Подзадачи эпика (подзадачи других эпиков не добавляются)
+     * @return Идентификаторы подзадач в порядке следования подзадач (null для не добавленных подзадач)
+     */
+    default List<Integer> addSubtasks(int epicId, Collection<? extends Subtask> subtasks) {
+        List<Integer> result = new ArrayList<>(subtasks.size());
+        for (Subtask subtask : subtasks) {
+            result.add(subtask.getEpicId() == epicId ? addSubtask(subtask) : null);
+        }
+        return result;
+    }
+
+    /**
+     * Обновить несколько подзадач
+     *
+     * @return Количество обновленных подзадач
+     */
+    default int updateSubtasks(Collection<? extends Subtask> subtasks) {
+        int result = 0;
+        for (Subtask subtask : subtasks) {
+            if (updateSubtask(subtask)) {
+                result++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Удалить задачи, эпики (вместе с их подзадачами) и подзадачи по идентификаторам
+     *
+     * @return Количество удаленных по идентификаторам задач, эпиков и подзадач
+     */
+    default int removeByIds(Collection<Integer> ids) {
+        int result = 0;
+        for (int id : ids) {
+            if (removeTask(id) || removeSubtask(id) || removeEpic(id)) {
+                result++;
+            }
+        }
+        return result;
+    }
 }
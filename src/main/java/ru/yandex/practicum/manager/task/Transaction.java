@@ -0,0 +1,216 @@
+package ru.yandex.practicum.manager.task;
+
+import ru.yandex.practicum.exception.TransactionException;
+import ru.yandex.practicum.model.Epic;
+import ru.yandex.practicum.model.Subtask;
+import ru.yandex.practicum.model.Task;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Транзакция - набор изменений менеджера задач, применяемых атомарно.
+ * Методы транзакции только запоминают изменения; {@link #commit()} применяет их все сразу как пакетную операцию
+ * менеджера: статусы затронутых эпиков пересчитываются один раз, а {@link FileBackedTaskManager} и его наследники
+ * сохраняют все изменения одной записью.
+ * <p>
+ * Если какое-либо изменение не может быть выполнено (задача не найдена и т.п.), уже примененные изменения
+ * отменяются по журналу отмены (исходным значениям измененных задач), ничего не сохраняется, а commit() выбрасывает
+ * {@link TransactionException}. {@link #rollback()} до commit() просто отбрасывает запомненные изменения.
+ * <p>
+ * Идентификаторы добавленных задач доступны через {@link Task#getId()} после commit().
+ */
+public class Transaction {
+    /**
+     * Изменение транзакции
+     */
+    private interface Operation {
+        /**
+         * Применить изменение, предварительно добавив в журнал отмены действия, восстанавливающие исходное состояние
+         *
+         * @return true - изменение выполнено, иначе - false
+         */
+        boolean apply(List<Runnable> undoLog);
+    }
+
+    private final InMemoryTaskManager manager;
+
+    private final List<Operation> operations = new ArrayList<>();
+
+    Transaction(InMemoryTaskManager manager) {
+        this.manager = manager;
+    }
+
+    public Transaction addTask(Task task) {
+        operations.add(undoLog -> {
+            manager.addTask(task);
+            int id = task.getId();
+            undoLog.add(() -> manager.tasks.remove(id));
+            return true;
+        });
+        return this;
+    }
+
+    public Transaction updateTask(Task task) {
+        operations.add(undoLog -> {
+            rememberTask(undoLog, task.getId());
+            return manager.updateTask(task);
+        });
+        return this;
+    }
+
+    public Transaction removeTask(int id) {
+        operations.add(undoLog -> {
+            rememberTask(undoLog, id);
+            return manager.removeTask(id);
+        });
+        return this;
+    }
+
+    public Transaction addEpic(Epic epic) {
+        operations.add(undoLog -> {
+            manager.addEpic(epic);
+            int id = epic.getId();
+            undoLog.add(() -> manager.epics.remove(id));
+            return true;
+        });
+        return this;
+    }
+
+    public Transaction updateEpic(Epic epic) {
+        operations.add(undoLog -> {
+            rememberEpic(undoLog, epic.getId());
+            return manager.updateEpic(epic);
+        });
+        return this;
+    }
+
+    public Transaction removeEpic(int id) {
+        operations.add(undoLog -> {
+            Epic epic = manager.epics.get(id);
+            if (epic != null) {
+                epic.getSubtasks().forEach(subtaskId -> rememberSubtask(undoLog, subtaskId));
+            }
+            rememberEpic(undoLog, id);
+            return manager.removeEpic(id);
+        });
+        return this;
+    }
+
+    public Transaction addSubtask(Subtask subtask) {
+        operations.add(undoLog -> {
+            rememberEpic(undoLog, subtask.getEpicId());
+            if (manager.addSubtask(subtask) == null) {
+                return false;
+            }
+            int id = subtask.getId();
+            undoLog.add(() -> manager.subtasks.remove(id));
+            return true;
+        });
+        return this;
+    }
+
+    public Transaction updateSubtask(Subtask subtask) {
+        operations.add(undoLog -> {
+            rememberEpic(undoLog, subtask.getEpicId());
+            rememberSubtask(undoLog, subtask.getId());
+            return manager.updateSubtask(subtask);
+        });
+        return this;
+    }
+
+    public Transaction removeSubtask(int id) {
+        operations.add(undoLog -> {
+            Subtask subtask = manager.subtasks.get(id);
+            if (subtask != null) {
+                rememberEpic(undoLog, subtask.getEpicId());
+            }
+            rememberSubtask(undoLog, id);
+            return manager.removeSubtask(id);
+        });
+        return this;
+    }
+
+    /**
+     * Применить все изменения транзакции атомарно
+     *
+     * @throws TransactionException если какое-либо изменение не выполнено (транзакция отменена целиком)
+     */
+    public void commit() {
+        List<Operation> pending = List.copyOf(operations);
+        operations.clear();
+        manager.inBatch(() -> {
+            List<Runnable> undoLog = new ArrayList<>();
+            // транзакция может выполняться внутри внешней пакетной операции со своими изменениями
+            int batchChangeCount = manager.getBatchChangeCount();
+            try {
+                for (int i = 0; i < pending.size(); i++) {
+                    if (!pending.get(i).apply(undoLog)) {
+                        throw new TransactionException("Изменение " + (i + 1) + " транзакции не выполнено");
+                    }
+                }
+            } catch (RuntimeException e) {
+                // отмена в обратном порядке восстанавливает состояние до начала транзакции
+                for (int i = undoLog.size() - 1; i >= 0; i--) {
+                    undoLog.get(i).run();
+                }
+                // отмененные изменения не сохраняются
+                manager.discardBatchChanges(batchChangeCount);
+                throw e;
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Отменить транзакцию: запомненные изменения отбрасываются, менеджер не изменяется
+     */
+    public void rollback() {
+        operations.clear();
+    }
+
+    /**
+     * Запомнить задачу для отмены. Менеджер не изменяет задачи, а заменяет их, поэтому восстанавливается сам объект
+     */
+    private void rememberTask(List<Runnable> undoLog, int id) {
+        Task before = manager.tasks.get(id);
+        undoLog.add(() -> {
+            if (before == null) {
+                manager.tasks.remove(id);
+            } else {
+                manager.tasks.put(id, before);
+            }
+        });
+    }
+
+    /**
+     * Запомнить подзадачу для отмены
+     */
+    private void rememberSubtask(List<Runnable> undoLog, int id) {
+        Subtask before = manager.subtasks.get(id);
+        undoLog.add(() -> {
+            if (before == null) {
+                manager.subtasks.remove(id);
+            } else {
+                manager.subtasks.put(id, before);
+            }
+        });
+    }
+
+    /**
+     * Запомнить эпик для отмены. Менеджер изменяет подзадачи и статус эпика, поэтому запоминаются и они
+     */
+    private void rememberEpic(List<Runnable> undoLog, int id) {
+        Epic before = manager.epics.get(id);
+        Epic copy = before == null ? null : new Epic(before);
+        undoLog.add(() -> {
+            if (before == null) {
+                manager.epics.remove(id);
+            } else {
+                before.replaceSubtasks(copy);
+                before.setState(copy.getState());
+                manager.epics.put(id, before);
+            }
+        });
+    }
+}
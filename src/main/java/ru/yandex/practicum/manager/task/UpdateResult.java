@@ -0,0 +1,32 @@
+package ru.yandex.practicum.manager.task;
+
+/**
+ * Результат обновления с проверкой версии
+ *
+ * @param updated true - задача обновлена, false - задача не найдена или её версия изменилась
+ * @param version Текущая версия задачи в менеджере (после обновления - новая версия),
+ *                {@link #ABSENT} - задача не найдена
+ */
+public record UpdateResult(boolean updated, long version) {
+    /**
+     * Версия отсутствующей задачи
+     */
+    public static final long ABSENT = -1;
+
+    public static final UpdateResult NOT_FOUND = new UpdateResult(false, ABSENT);
+
+    public static UpdateResult updated(long version) {
+        return new UpdateResult(true, version);
+    }
+
+    public static UpdateResult rejected(long currentVersion) {
+        return new UpdateResult(false, currentVersion);
+    }
+
+    /**
+     * Задача найдена, но обновление отклонено, так как её версия изменилась
+     */
+    public boolean isConflict() {
+        return !updated && version != ABSENT;
+    }
+}
@@ -0,0 +1,205 @@
+package ru.yandex.practicum.manager.task;
+
+import ru.yandex.practicum.model.Epic;
+import ru.yandex.practicum.model.Subtask;
+import ru.yandex.practicum.model.Task;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Менеджер задач с отложенной записью состояния (write-behind).
+ * Методы, изменяющие состояние, только помечают менеджер как измененный. Фоновый поток объединяет накопленные
+ * изменения и сохраняет состояние одной записью - раз в заданный интервал или по накоплении заданного количества
+ * изменений. Скорость изменения задач таким образом не зависит от скорости записи на диск.
+ * <p>
+ * Для ожидания сохранения изменений используйте {@link #flush()} или {@link #whenDurable()}.
+ */
+public class WriteBehindTaskManager extends FileBackedTaskManager {
+    /**
+     * Интервал записи состояния по-умолчанию
+     */
+    public static final Duration defaultFlushInterval = Duration.ofMillis(200);
+
+    /**
+     * Количество изменений, по накоплении которых состояние записывается досрочно, по-умолчанию
+     */
+    public static final int defaultMaxPendingChanges = 10_000;
+
+    /**
+     * Количество изменений, по накоплении которых состояние записывается, не дожидаясь окончания интервала
+     */
+    private final int maxPendingChanges;
+
+    /**
+     * Поток, выполняющий запись состояния
+     */
+    private final ScheduledExecutorService flusher;
+
+    /**
+     * Есть изменения, не записанные в файл
+     */
+    private boolean dirty = false;
+
+    /**
+     * Количество изменений, не записанных в файл
+     */
+    private int pendingChanges = 0;
+
+    /**
+     * Запрошена досрочная запись состояния
+     */
+    private boolean flushRequested = false;
+
+    /**
+     * Результат записи, которая сохранит текущие незаписанные изменения
+     */
+    private CompletableFuture<Void> pendingDurability = new CompletableFuture<>();
+
+    /**
+     * Конструктор
+     */
+    public WriteBehindTaskManager() {
+        this(defaultFlushInterval, defaultMaxPendingChanges);
+    }
+
+    /**
+     * Конструктор
+     *
+     * @param flushInterval - интервал записи состояния
+     * @param maxPendingChanges - количество изменений, по накоплении которых состояние записывается досрочно
+     */
+    public WriteBehindTaskManager(Duration flushInterval, int maxPendingChanges) {
+        this(new File(defaultStateFilename), flushInterval, maxPendingChanges);
+    }
+
+    /**
+     * Конструктор
+     *
+     * @param stateFile - файл для хранения состояния менеджера
+     * @param flushInterval - интервал записи состояния
+     * @param maxPendingChanges - количество изменений, по накоплении которых состояние записывается досрочно
+     */
+    WriteBehindTaskManager(File stateFile, Duration flushInterval, int maxPendingChanges) {
+        super(stateFile);
+        this.maxPendingChanges = maxPendingChanges;
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "write-behind-" + stateFile.getName());
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalNanos = flushInterval.toNanos();
+        flusher.scheduleWithFixedDelay(this::flushIfDirty, intervalNanos, intervalNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Создать менеджер и восстановить его состояние из файла
+     */
+    public static WriteBehindTaskManager loadFromFile(File file, Duration flushInterval, int maxPendingChanges)
+            throws IOException {
+        WriteBehindTaskManager result = new WriteBehindTaskManager(file, flushInterval, maxPendingChanges);
+        result.load();
+        return result;
+    }
+
+    /**
+     * Пометить менеджер как измененный. Запись состояния выполнит фоновый поток
+     */
+    @Override
+    protected synchronized void persist(StateChange... changes) {
+        dirty = true;
+        pendingChanges += changes.length;
+        if (pendingChanges >= maxPendingChanges && !flushRequested) {
+            flushRequested = true;
+            flusher.execute(this::flushIfDirty);
+        }
+    }
+
+    /**
+     * Сохранить состояние менеджера в файл и дождаться окончания записи
+     */
+    @Override
+    public void save() {
+        synchronized (this) {
+            // запись выполняется даже при отсутствии изменений, чтобы файл состояния гарантированно существовал
+            dirty = true;
+        }
+        flush().join();
+    }
+
+    /**
+     * Запросить запись незаписанных изменений, не дожидаясь окончания интервала
+     *
+     * @return Результат записи, завершающийся после сохранения всех изменений, сделанных до вызова
+     */
+    public CompletableFuture<Void> flush() {
+        CompletableFuture<Void> durability = whenDurable();
+        if (!durability.isDone()) {
+            flusher.execute(this::flushIfDirty);
+        }
+        return durability;
+    }
+
+    /**
+     * Получить результат записи, которая сохранит все сделанные на данный момент изменения.
+     * Позволяет дождаться сохранения изменений, не запрашивая досрочную запись.
+     */
+    public synchronized CompletableFuture<Void> whenDurable() {
+        return dirty ? pendingDurability : CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * Записать все изменения и остановить фоновый поток
+     */
+    @Override
+    public void close() {
+        try {
+            flush().join();
+        } finally {
+            flusher.shutdown();
+            super.close();
+        }
+    }
+
+    /**
+     * Записать состояние, если есть незаписанные изменения. Выполняется только в фоновом потоке.
+     *
+     * @implNote Под блокировкой выполняется только копирование задач, запись в файл идет без блокировки,
+     * поэтому изменение задач не ждет окончания записи.
+     */
+    private void flushIfDirty() {
+        List<Task> tasksCopy;
+        List<Epic> epicsCopy;
+        List<Subtask> subtasksCopy;
+        CompletableFuture<Void> durability;
+        synchronized (this) {
+            flushRequested = false;
+            if (!dirty) {
+                return;
+            }
+            tasksCopy = tasks.values().stream().map(Task::new).toList();
+            epicsCopy = epics.values().stream().map(Epic::new).toList();
+            subtasksCopy = subtasks.values().stream().map(Subtask::new).toList();
+            dirty = false;
+            pendingChanges = 0;
+            durability = pendingDurability;
+            pendingDurability = new CompletableFuture<>();
+        }
+        try {
+            writeState(getStateFile(), tasksCopy, epicsCopy, subtasksCopy);
+            durability.complete(null);
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                // изменения не записаны - они будут записаны при следующей записи
+                dirty = true;
+            }
+            durability.completeExceptionally(e);
+        }
+    }
+}
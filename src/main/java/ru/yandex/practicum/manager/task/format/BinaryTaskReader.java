@@ -0,0 +1,107 @@
+package ru.yandex.practicum.manager.task.format;
+
+import ru.yandex.practicum.model.*;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Чтение задач в компактном двоичном формате (см. {@link BinaryTaskWriter})
+ */
+public class BinaryTaskReader implements TaskReader {
+    private static final TaskType[] TYPES = TaskType.values();
+    private static final TaskState[] STATES = TaskState.values();
+
+    private final InputStream input;
+
+    /**
+     * Буфер для чтения строк, переиспользуется между записями
+     */
+    private byte[] buffer = new byte[256];
+
+    public BinaryTaskReader(InputStream input) throws IOException {
+        this.input = new BufferedInputStream(input);
+        byte[] magic = this.input.readNBytes(BinaryTaskWriter.MAGIC.length);
+        if (!Arrays.equals(magic, BinaryTaskWriter.MAGIC)) {
+            throw new IOException("Файл не является снимком состояния в двоичном формате");
+        }
+        int version = this.input.read();
+        if (version < 1 || version > BinaryTaskWriter.VERSION) {
+            throw new IOException("Неподдерживаемая версия двоичного формата: " + version);
+        }
+    }
+
+    @Override
+    public Task read() throws IOException {
+        int type = input.read();
+        if (type < 0) {
+            return null;
+        }
+        TaskType taskType = valueAt(TYPES, type, "тип задачи");
+        int id = readVarint();
+        TaskState state = valueAt(STATES, readByte(), "статус задачи");
+        String name = readString();
+        String description = readString();
+
+        return switch (taskType) {
+            case EPIC -> new Epic(id, state, name, description);
+            case SUBTASK -> new Subtask(id, state, name, description, readVarint());
+            default -> new Task(id, state, name, description);
+        };
+    }
+
+    @Override
+    public void close() throws IOException {
+        input.close();
+    }
+
+    /**
+     * Получить значение перечисления по порядковому номеру из снимка
+     *
+     * @throws IOException Номер вне диапазона значений (снимок поврежден или записан более новой версией)
+     */
+    private static <T> T valueAt(T[] values, int ordinal, String what) throws IOException {
+        if (ordinal >= values.length) {
+            throw new IOException("Некорректный " + what + " в снимке состояния: " + ordinal);
+        }
+        return values[ordinal];
+    }
+
+    private int readByte() throws IOException {
+        int value = input.read();
+        if (value < 0) {
+            throw new EOFException("Неожиданный конец снимка состояния");
+        }
+        return value;
+    }
+
+    private int readVarint() throws IOException {
+        int result = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = readByte();
+            result |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+        throw new IOException("Некорректное значение varint в снимке состояния");
+    }
+
+    private String readString() throws IOException {
+        int length = readVarint() - 1;
+        if (length == -1) {
+            return null;
+        }
+        if (length < 0) {
+            throw new IOException("Некорректная длина строки в снимке состояния");
+        }
+        if (buffer.length < length) {
+            buffer = new byte[Math.max(length, buffer.length * 2)];
+        }
+        if (input.readNBytes(buffer, 0, length) != length) {
+            throw new EOFException("Неожиданный конец снимка состояния");
+        }
+        return new String(buffer, 0, length, StandardCharsets.UTF_8);
+    }
+}
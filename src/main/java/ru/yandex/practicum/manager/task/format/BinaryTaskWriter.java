@@ -0,0 +1,82 @@
+package ru.yandex.practicum.manager.task.format;
+
+import ru.yandex.practicum.model.Subtask;
+import ru.yandex.practicum.model.Task;
+import ru.yandex.practicum.model.TaskType;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Запись задач в компактном двоичном формате.
+ * <p>
+ * Формат файла: сигнатура {@link #MAGIC}, байт версии {@link #VERSION}, затем записи задач подряд:
+ * <pre>
+ * тип          - 1 байт, порядковый номер {@link TaskType}
+ * id           - varint
+ * статус       - 1 байт, порядковый номер {@link ru.yandex.practicum.model.TaskState}
+ * название     - строка
+ * описание     - строка
+ * id эпика     - varint, только для подзадач
+ * </pre>
+ * Строка записывается как varint (длина в байтах UTF-8 + 1, 0 - для null), за которым следуют байты строки.
+ * varint - целое число, записанное по 7 бит в байте, начиная с младших; старший бит байта означает, что за ним
+ * следуют еще байты числа.
+ */
+public class BinaryTaskWriter implements TaskWriter {
+    /**
+     * Сигнатура двоичного формата
+     */
+    static final byte[] MAGIC = {'K', 'N', 'B', 'N'};
+
+    /**
+     * Текущая версия формата
+     */
+    static final int VERSION = 1;
+
+    private final OutputStream output;
+
+    public BinaryTaskWriter(OutputStream output) throws IOException {
+        this.output = new BufferedOutputStream(output);
+        this.output.write(MAGIC);
+        this.output.write(VERSION);
+    }
+
+    @Override
+    public void write(Task task) throws IOException {
+        TaskType taskType = TaskType.of(task);
+        output.write(taskType.ordinal());
+        writeVarint(task.getId());
+        output.write(task.getState().ordinal());
+        writeString(task.getName());
+        writeString(task.getDescription());
+        if (taskType == TaskType.SUBTASK) {
+            writeVarint(((Subtask) task).getEpicId());
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        output.close();
+    }
+
+    private void writeVarint(int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            output.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        output.write(value);
+    }
+
+    private void writeString(String value) throws IOException {
+        if (value == null) {
+            writeVarint(0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarint(bytes.length + 1);
+        output.write(bytes);
+    }
+}
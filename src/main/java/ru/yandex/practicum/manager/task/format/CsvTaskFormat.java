@@ -0,0 +1,72 @@
+package ru.yandex.practicum.manager.task.format;
+
+import ru.yandex.practicum.model.*;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Преобразование задач в строки CSV и обратно
+ */
+public final class CsvTaskFormat {
+    /**
+     * Шапка csv
+     */
+    public static final String HEADER = "id,type,name,status,description,epic";
+
+    private CsvTaskFormat() {
+    }
+
+    /**
+     * Привести {@link Task} к строковому представлению.
+     */
+    public static String toString(Task task) {
+        StringBuilder result = new StringBuilder();
+        try {
+            append(result, task);
+        } catch (IOException e) {
+            // StringBuilder не выбрасывает IOException
+            throw new UncheckedIOException(e);
+        }
+        return result.toString();
+    }
+
+    /**
+     * Записать строковое представление {@link Task} (без перевода строки) без создания промежуточной строки
+     */
+    public static void append(Appendable output, Task task) throws IOException {
+        TaskType taskType = TaskType.of(task);
+        output.append(Integer.toString(task.getId())).append(',')
+                .append(taskType.name()).append(',')
+                .append(task.getName()).append(',')
+                .append(task.getState().name()).append(',')
+                .append(task.getDescription());
+        if (taskType == TaskType.SUBTASK) {
+            // в случае подзадачи пишем идентификатор эпика
+            output.append(',').append(Integer.toString(((Subtask) task).getEpicId()));
+        }
+    }
+
+    /**
+     * Получить {@link Task} по её строковому представлению.
+     */
+    public static Task fromString(String value) {
+        String[] parts = value.split(",");
+
+        int id = Integer.parseInt(parts[0]);
+        TaskType taskType = TaskType.valueOf(parts[1]);
+        String name = parts[2];
+        TaskState state = TaskState.valueOf(parts[3]);
+        String description = parts[4];
+
+        switch (taskType) {
+            case EPIC:
+                return new Epic(id, state, name, description);
+            case SUBTASK:
+                int epicId = Integer.parseInt(parts[5]);
+                return new Subtask(id, state, name, description, epicId);
+            default:
+                return new Task(id, state, name, description);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package ru.yandex.practicum.manager.task.format;
+
+import ru.yandex.practicum.model.Task;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Чтение задач в формате CSV
+ */
+public class CsvTaskReader implements TaskReader {
+    private final BufferedReader reader;
+
+    public CsvTaskReader(InputStream input) throws IOException {
+        reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        // пропуск шапки csv
+        reader.readLine();
+    }
+
+    @Override
+    public Task read() throws IOException {
+        String line;
+        do {
+            line = reader.readLine();
+        } while (line != null && line.isEmpty());
+        return line == null ? null : CsvTaskFormat.fromString(line);
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
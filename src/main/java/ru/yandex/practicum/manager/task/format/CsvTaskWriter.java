@@ -0,0 +1,30 @@
+package ru.yandex.practicum.manager.task.format;
+
+import ru.yandex.practicum.model.Task;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Запись задач в формате CSV
+ */
+public class CsvTaskWriter implements TaskWriter {
+    private final Writer writer;
+
+    public CsvTaskWriter(OutputStream output) throws IOException {
+        writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+        writer.write(CsvTaskFormat.HEADER);
+        writer.write('\n');
+    }
+
+    @Override
+    public void write(Task task) throws IOException {
+        CsvTaskFormat.append(writer, task);
+        writer.write('\n');
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+}
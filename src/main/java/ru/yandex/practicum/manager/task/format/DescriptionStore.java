@@ -0,0 +1,202 @@
+package ru.yandex.practicum.manager.task.format;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Хранилище описаний задач, читаемых из файла состояния по требованию.
+ * Вместо строки описания задача хранит ссылку на его положение в файле ({@link #reference(long, int)}),
+ * недавно прочитанные описания хранятся в LRU-кэше.
+ * <p>
+ * Файл остается открытым до вызова {@link #close()}. Перед закрытием описания по всем еще используемым ссылкам
+ * (в том числе из копий задач и истории просмотров) читаются в сами ссылки, поэтому ссылки остаются рабочими.
+ */
+public class DescriptionStore implements Closeable {
+    /**
+     * Размер кэша описаний по-умолчанию
+     */
+    public static final int defaultCacheSize = 1024;
+
+    private final Path path;
+
+    private final FileChannel channel;
+
+    /**
+     * Недавно прочитанные описания по позиции в файле
+     */
+    private final Map<Long, String> cache;
+
+    /**
+     * Выданные ссылки на описания. Ссылки слабые: ссылка из удаленной задачи не удерживается в памяти
+     */
+    private final List<WeakReference<Reference>> references = new ArrayList<>();
+
+    /**
+     * Размер списка ссылок, при котором из него убираются ссылки, удаленные сборщиком мусора
+     */
+    private int pruneThreshold = 1024;
+
+    /**
+     * Количество чтений описаний из файла
+     */
+    private long reads = 0;
+
+    /**
+     * Количество обращений к описаниям
+     */
+    private long requests = 0;
+
+    /**
+     * Открыть хранилище
+     *
+     * @param file      Файл состояния
+     * @param cacheSize Количество описаний в кэше
+     */
+    public DescriptionStore(File file, int cacheSize) throws IOException {
+        path = file.toPath().toAbsolutePath().normalize();
+        channel = FileChannel.open(path, StandardOpenOption.READ);
+        cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, String> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    /**
+     * Получить ссылку на описание, записанное в файле в кодировке UTF-8
+     *
+     * @param position Позиция начала описания в файле
+     * @param length   Длина описания в байтах
+     */
+    public synchronized Supplier<String> reference(long position, int length) {
+        Reference reference = new Reference(position, length);
+        if (references.size() >= pruneThreshold) {
+            references.removeIf(weak -> weak.get() == null);
+            pruneThreshold = Math.max(1024, references.size() * 2);
+        }
+        references.add(new WeakReference<>(reference));
+        return reference;
+    }
+
+    /**
+     * Читаются ли описания из указанного файла
+     */
+    public boolean isReading(File file) {
+        return path.equals(file.toPath().toAbsolutePath().normalize());
+    }
+
+    /**
+     * Является ли источник описания ссылкой на это хранилище
+     */
+    public boolean owns(Supplier<String> source) {
+        return source instanceof Reference reference && reference.store() == this;
+    }
+
+    /**
+     * Прочитать описание (из кэша или из файла)
+     */
+    synchronized String read(long position, int length) {
+        requests++;
+        String result = cache.get(position);
+        if (result == null) {
+            result = readFromFile(position, length);
+            cache.put(position, result);
+        }
+        return result;
+    }
+
+    /**
+     * Количество описаний, прочитанных из файла (без учета кэша)
+     */
+    public synchronized long getReads() {
+        return reads;
+    }
+
+    /**
+     * Количество обращений к описаниям
+     */
+    public synchronized long getRequests() {
+        return requests;
+    }
+
+    /**
+     * Прочитать описания по всем используемым ссылкам в сами ссылки и закрыть файл
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (!channel.isOpen()) {
+            return;
+        }
+        try {
+            for (WeakReference<Reference> weak : references) {
+                Reference reference = weak.get();
+                if (reference != null && reference.detached == null) {
+                    reference.detached = read(reference.position, reference.length);
+                }
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            references.clear();
+            channel.close();
+        }
+    }
+
+    private String readFromFile(long position, int length) {
+        reads++;
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        try {
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, position + buffer.position()) < 0) {
+                    throw new IOException("Файл состояния короче ожидаемого");
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось прочитать описание задачи", e);
+        }
+        return new String(buffer.array(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Ссылка на описание: позиция и длина в файле
+     */
+    private final class Reference implements Supplier<String> {
+        private final long position;
+        private final int length;
+
+        /**
+         * Описание, прочитанное при закрытии хранилища (доступ под монитором хранилища)
+         */
+        private String detached;
+
+        private Reference(long position, int length) {
+            this.position = position;
+            this.length = length;
+        }
+
+        @Override
+        public String get() {
+            synchronized (DescriptionStore.this) {
+                return detached != null ? detached : read(position, length);
+            }
+        }
+
+        private DescriptionStore store() {
+            return DescriptionStore.this;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package ru.yandex.practicum.manager.task.format;
+
+/**
+ * Статистика загрузки состояния менеджера
+ *
+ * @param rows  Количество загруженных задач
+ * @param bytes Размер загруженного файла в байтах
+ * @param nanos Время загрузки в наносекундах
+ */
+public record LoadStats(long rows, long bytes, long nanos) {
+    /**
+     * Скорость загрузки: задач в секунду
+     */
+    public double rowsPerSecond() {
+        return nanos == 0 ? 0 : rows * 1_000_000_000.0 / nanos;
+    }
+
+    /**
+     * Скорость загрузки: мегабайт в секунду
+     */
+    public double megabytesPerSecond() {
+        return nanos == 0 ? 0 : bytes * 1_000_000_000.0 / nanos / (1024 * 1024);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d задач (%d байт) за %.3f мс: %.0f задач/с, %.1f МБ/с",
+                rows, bytes, nanos / 1_000_000.0, rowsPerSecond(), megabytesPerSecond());
+    }
+}
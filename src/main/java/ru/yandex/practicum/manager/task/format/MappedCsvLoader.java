@@ -0,0 +1,278 @@
+package ru.yandex.practicum.manager.task.format;
+
+import ru.yandex.practicum.model.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+
+/**
+ * Загрузчик задач из файла в формате CSV, отображаемого в память ({@link FileChannel#map}).
+ * Границы полей ищутся прямо в отображенном буфере, числа и перечисления разбираются без создания промежуточных
+ * строк - создаются только строки названия и описания и сами задачи.
+ * Результат разбора совпадает с {@link CsvTaskFormat#fromString(String)}.
+ * <p>
+ * При загрузке с {@link DescriptionStore} описания не декодируются: задачи получают ссылки на положение описаний
+ * в файле, и описания читаются по требованию.
+ */
+public class MappedCsvLoader {
+    /**
+     * Максимальный размер отображаемого за один раз участка файла
+     */
+    static final int MAX_WINDOW_SIZE = 1 << 30;
+
+    /**
+     * Количество полей в строке (с учетом идентификатора эпика у подзадач)
+     */
+    private static final int FIELD_COUNT = 6;
+
+    private static final TaskType[] TYPES = TaskType.values();
+    private static final TaskState[] STATES = TaskState.values();
+    private static final byte[][] TYPE_NAMES = names(TYPES);
+    private static final byte[][] STATE_NAMES = names(STATES);
+
+    /**
+     * Отображенный участок файла
+     */
+    private final ByteBuffer buffer;
+
+    /**
+     * Позиция начала отображенного участка в файле
+     */
+    private final long basePosition;
+
+    /**
+     * Хранилище описаний, читаемых по требованию (null, если описания загружаются сразу)
+     */
+    private final DescriptionStore descriptions;
+
+    /**
+     * Позиции начала полей текущей строки и позиция, следующая за последним полем
+     */
+    private final int[] fieldStarts = new int[FIELD_COUNT + 1];
+
+    /**
+     * Буфер для декодирования строк, переиспользуется между строками
+     */
+    private byte[] scratch = new byte[256];
+
+    MappedCsvLoader(ByteBuffer buffer) {
+        this(buffer, 0, null);
+    }
+
+    MappedCsvLoader(ByteBuffer buffer, long basePosition, DescriptionStore descriptions) {
+        this.buffer = buffer;
+        this.basePosition = basePosition;
+        this.descriptions = descriptions;
+    }
+
+    /**
+     * Загрузить задачи из файла
+     *
+     * @param file     Файл в формате CSV
+     * @param consumer Получатель загруженных задач (в порядке следования в файле)
+     * @return Статистика загрузки
+     */
+    public static LoadStats load(File file, Consumer<? super Task> consumer) throws IOException {
+        return load(file, null, consumer);
+    }
+
+    /**
+     * Загрузить задачи из файла, не загружая описания
+     *
+     * @param file         Файл в формате CSV
+     * @param descriptions Хранилище, из которого описания будут читаться по требованию
+     *                     (null - загрузить описания сразу)
+     * @param consumer     Получатель загруженных задач (в порядке следования в файле)
+     * @return Статистика загрузки
+     */
+    public static LoadStats load(File file, DescriptionStore descriptions, Consumer<? super Task> consumer)
+            throws IOException {
+        long start = System.nanoTime();
+        long rows = 0;
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            long position = 0;
+            boolean header = true;
+            while (position < size) {
+                int windowSize = (int) Math.min(size - position, MAX_WINDOW_SIZE);
+                ByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, windowSize);
+                // в участок попадают только целые строки, кроме последнего участка файла
+                int end = position + windowSize < size ? lastLineEnd(window, windowSize) : windowSize;
+                int from = header ? nextLine(window, 0, end) : 0;
+                header = false;
+                rows += new MappedCsvLoader(window, position, descriptions).parseLines(from, end, consumer);
+                position += end;
+            }
+        }
+        return new LoadStats(rows, file.length(), System.nanoTime() - start);
+    }
+
+    /**
+     * Получить позицию, следующую за последним переводом строки в участке файла
+     */
+    static int lastLineEnd(ByteBuffer window, int size) throws IOException {
+        for (int i = size - 1; i >= 0; i--) {
+            if (window.get(i) == '\n') {
+                return i + 1;
+            }
+        }
+        throw new IOException("Строка файла превышает " + MAX_WINDOW_SIZE + " байт");
+    }
+
+    /**
+     * Получить позицию начала строки, следующей за строкой, содержащей указанную позицию
+     */
+    static int nextLine(ByteBuffer window, int position, int end) {
+        while (position < end && window.get(position) != '\n') {
+            position++;
+        }
+        return Math.min(position + 1, end);
+    }
+
+    /**
+     * Разобрать строки в указанном диапазоне буфера
+     *
+     * @param from     Позиция начала первой строки
+     * @param to       Позиция, следующая за концом последней строки
+     * @param consumer Получатель задач
+     * @return Количество разобранных задач
+     */
+    long parseLines(int from, int to, Consumer<? super Task> consumer) {
+        long rows = 0;
+        int lineStart = from;
+        while (lineStart < to) {
+            int lineEnd = lineStart;
+            while (lineEnd < to && buffer.get(lineEnd) != '\n') {
+                lineEnd++;
+            }
+            int contentEnd = lineEnd;
+            if (contentEnd > lineStart && buffer.get(contentEnd - 1) == '\r') {
+                contentEnd--;
+            }
+            if (contentEnd > lineStart) {
+                consumer.accept(parseLine(lineStart, contentEnd));
+                rows++;
+            }
+            lineStart = lineEnd + 1;
+        }
+        return rows;
+    }
+
+    /**
+     * Разобрать строку
+     */
+    private Task parseLine(int from, int to) {
+        int fields = 1;
+        fieldStarts[0] = from;
+        for (int i = from; i < to && fields < FIELD_COUNT; i++) {
+            if (buffer.get(i) == ',') {
+                fieldStarts[fields++] = i + 1;
+            }
+        }
+        if (fields < FIELD_COUNT) {
+            fieldStarts[fields] = to + 1;
+        } else {
+            // поле идентификатора эпика ограничено следующей запятой или концом строки
+            int end = fieldStarts[FIELD_COUNT - 1];
+            while (end < to && buffer.get(end) != ',') {
+                end++;
+            }
+            fieldStarts[FIELD_COUNT] = end + 1;
+        }
+        if (fields < FIELD_COUNT - 1) {
+            throw new IllegalArgumentException("Некорректная строка: " + decode(from, to));
+        }
+
+        int id = parseInt(fieldStart(0), fieldEnd(0));
+        TaskType taskType = TYPES[parseName(TYPE_NAMES, fieldStart(1), fieldEnd(1))];
+        String name = decode(fieldStart(2), fieldEnd(2));
+        TaskState state = STATES[parseName(STATE_NAMES, fieldStart(3), fieldEnd(3))];
+        String description = descriptions == null ? decode(fieldStart(4), fieldEnd(4)) : null;
+
+        Task task = switch (taskType) {
+            case EPIC -> new Epic(id, state, name, description);
+            case SUBTASK -> {
+                if (fields < FIELD_COUNT) {
+                    throw new IllegalArgumentException("Не указан эпик подзадачи: " + decode(from, to));
+                }
+                yield new Subtask(id, state, name, description, parseInt(fieldStart(5), fieldEnd(5)));
+            }
+            default -> new Task(id, state, name, description);
+        };
+        if (descriptions != null) {
+            task.setDescriptionSource(
+                    descriptions.reference(basePosition + fieldStart(4), fieldEnd(4) - fieldStart(4)));
+        }
+        return task;
+    }
+
+    private int fieldStart(int field) {
+        return fieldStarts[field];
+    }
+
+    private int fieldEnd(int field) {
+        return fieldStarts[field + 1] - 1;
+    }
+
+    private int parseInt(int from, int to) {
+        boolean negative = from < to && buffer.get(from) == '-';
+        int i = negative ? from + 1 : from;
+        if (i == to) {
+            throw new NumberFormatException("Пустое число: " + decode(from, to));
+        }
+        int result = 0;
+        for (; i < to; i++) {
+            int digit = buffer.get(i) - '0';
+            if (digit < 0 || digit > 9) {
+                throw new NumberFormatException("Некорректное число: " + decode(from, to));
+            }
+            result = result * 10 + digit;
+        }
+        return negative ? -result : result;
+    }
+
+    /**
+     * Найти порядковый номер константы перечисления по имени, записанному в буфере
+     */
+    private int parseName(byte[][] names, int from, int to) {
+        int length = to - from;
+        for (int ordinal = 0; ordinal < names.length; ordinal++) {
+            byte[] name = names[ordinal];
+            if (name.length == length && matches(name, from)) {
+                return ordinal;
+            }
+        }
+        throw new IllegalArgumentException("Неизвестное значение: " + decode(from, to));
+    }
+
+    private boolean matches(byte[] name, int from) {
+        for (int i = 0; i < name.length; i++) {
+            if (buffer.get(from + i) != name[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String decode(int from, int to) {
+        int length = to - from;
+        if (scratch.length < length) {
+            scratch = new byte[Math.max(length, scratch.length * 2)];
+        }
+        buffer.get(from, scratch, 0, length);
+        return new String(scratch, 0, length, StandardCharsets.UTF_8);
+    }
+
+    private static byte[][] names(Enum<?>[] values) {
+        byte[][] result = new byte[values.length][];
+        for (int i = 0; i < values.length; i++) {
+            result[i] = values[i].name().getBytes(StandardCharsets.US_ASCII);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,95 @@
+package ru.yandex.practicum.manager.task.format;
+
+import ru.yandex.practicum.model.Task;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Consumer;
+
+/**
+ * Параллельный загрузчик задач из файла в формате CSV.
+ * Отображенный в память файл делится на участки по границам строк, участки разбираются параллельно
+ * ({@link MappedCsvLoader}) в пуле {@link ForkJoinPool}. Задачи каждого участка передаются получателю
+ * последовательно, в порядке следования участков в файле.
+ * <p>
+ * Порядок задач внутри файла не важен получателю, который связывает подзадачи с эпиками после загрузки всех задач.
+ */
+public class ParallelCsvLoader {
+    /**
+     * Количество участков на один поток пула: участков больше, чем потоков, чтобы потоки,
+     * быстрее закончившие свои участки, забирали работу у остальных
+     */
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    /**
+     * Минимальный размер участка в байтах
+     */
+    private static final int MIN_CHUNK_SIZE = 64 * 1024;
+
+    private ParallelCsvLoader() {
+    }
+
+    /**
+     * Загрузить задачи из файла
+     *
+     * @param file          Файл в формате CSV
+     * @param pool          Пул потоков для разбора участков
+     * @param chunkConsumer Получатель задач участка. Вызывается последовательно, в вызывающем потоке
+     * @return Статистика загрузки
+     */
+    public static LoadStats load(File file, ForkJoinPool pool, Consumer<List<Task>> chunkConsumer)
+            throws IOException {
+        long start = System.nanoTime();
+        long rows = 0;
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            long position = 0;
+            boolean header = true;
+            while (position < size) {
+                int windowSize = (int) Math.min(size - position, MappedCsvLoader.MAX_WINDOW_SIZE);
+                ByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, windowSize);
+                int end = position + windowSize < size ? MappedCsvLoader.lastLineEnd(window, windowSize) : windowSize;
+                int from = header ? MappedCsvLoader.nextLine(window, 0, end) : 0;
+                header = false;
+
+                // 1. параллельный разбор участков
+                List<ForkJoinTask<List<Task>>> chunks = new ArrayList<>();
+                int chunkCount = Math.max(1, Math.min(pool.getParallelism() * CHUNKS_PER_THREAD,
+                        (end - from) / MIN_CHUNK_SIZE));
+                int chunkStart = from;
+                for (int i = 1; i <= chunkCount && chunkStart < end; i++) {
+                    int chunkEnd = i == chunkCount
+                            ? end
+                            : MappedCsvLoader.nextLine(window, from + (int) ((long) (end - from) * i / chunkCount), end);
+                    if (chunkEnd <= chunkStart) {
+                        continue;
+                    }
+                    int parseFrom = chunkStart;
+                    int parseTo = chunkEnd;
+                    chunks.add(pool.submit(() -> {
+                        List<Task> chunk = new ArrayList<>();
+                        new MappedCsvLoader(window.duplicate()).parseLines(parseFrom, parseTo, chunk::add);
+                        return chunk;
+                    }));
+                    chunkStart = chunkEnd;
+                }
+
+                // 2. передача результатов в порядке следования участков
+                for (ForkJoinTask<List<Task>> chunk : chunks) {
+                    List<Task> tasks = chunk.join();
+                    rows += tasks.size();
+                    chunkConsumer.accept(tasks);
+                }
+                position += end;
+            }
+        }
+        return new LoadStats(rows, file.length(), System.nanoTime() - start);
+    }
+}
@@ -0,0 +1,64 @@
+package ru.yandex.practicum.manager.task.format;
+
+import java.io.*;
+import java.util.Arrays;
+
+/**
+ * Формат снимка состояния менеджера
+ */
+public enum SnapshotFormat {
+    /**
+     * Текстовый формат: строка на задачу, поля разделены запятыми
+     */
+    CSV {
+        @Override
+        public TaskWriter createWriter(OutputStream output) throws IOException {
+            return new CsvTaskWriter(output);
+        }
+
+        @Override
+        public TaskReader createReader(InputStream input) throws IOException {
+            return new CsvTaskReader(input);
+        }
+    },
+    /**
+     * Компактный двоичный формат (см. {@link BinaryTaskWriter})
+     */
+    BINARY {
+        @Override
+        public TaskWriter createWriter(OutputStream output) throws IOException {
+            return new BinaryTaskWriter(output);
+        }
+
+        @Override
+        public TaskReader createReader(InputStream input) throws IOException {
+            return new BinaryTaskReader(input);
+        }
+    };
+
+    /**
+     * Создать объект для записи задач в поток
+     */
+    public abstract TaskWriter createWriter(OutputStream output) throws IOException;
+
+    /**
+     * Создать объект для чтения задач из потока
+     */
+    public abstract TaskReader createReader(InputStream input) throws IOException;
+
+    /**
+     * Определить формат файла по его содержимому
+     *
+     * @return {@link #BINARY}, если файл начинается с сигнатуры двоичного формата, иначе {@link #CSV}
+     */
+    public static SnapshotFormat detect(File file) throws IOException {
+        byte[] magic = new byte[BinaryTaskWriter.MAGIC.length];
+        try (InputStream input = new FileInputStream(file)) {
+            if (input.readNBytes(magic, 0, magic.length) == magic.length
+                    && Arrays.equals(magic, BinaryTaskWriter.MAGIC)) {
+                return BINARY;
+            }
+        }
+        return CSV;
+    }
+}
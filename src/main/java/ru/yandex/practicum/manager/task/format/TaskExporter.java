@@ -0,0 +1,72 @@
+package ru.yandex.practicum.manager.task.format;
+
+import ru.yandex.practicum.manager.task.TaskManager;
+import ru.yandex.practicum.model.Task;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.util.function.Consumer;
+
+/**
+ * Потоковая выгрузка задач менеджера.
+ * Задачи записываются по мере обхода хранилищ менеджера ({@link TaskManager#forEachTask(Consumer)} и т.п.)
+ * через буфер записи, поэтому выгрузка не создает копий списков задач и расходует память, не зависящую
+ * от количества задач.
+ */
+public final class TaskExporter {
+    private TaskExporter() {
+    }
+
+    /**
+     * Выгрузить задачи менеджера в поток. Поток закрывается по окончании выгрузки.
+     *
+     * @return Количество выгруженных задач
+     */
+    public static long export(TaskManager manager, SnapshotFormat format, OutputStream output) throws IOException {
+        try (TaskWriter writer = format.createWriter(output)) {
+            ExportAction action = new ExportAction(writer);
+            // эпики выгружаются раньше, чем подзадачи, чтобы при загрузке подзадач эпики уже были вычитаны
+            manager.forEachTask(action);
+            manager.forEachEpic(action);
+            manager.forEachSubtask(action);
+            return action.count;
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Выгрузить задачи менеджера в канал. Канал закрывается по окончании выгрузки.
+     *
+     * @return Количество выгруженных задач
+     */
+    public static long export(TaskManager manager, SnapshotFormat format, WritableByteChannel channel)
+            throws IOException {
+        return export(manager, format, Channels.newOutputStream(channel));
+    }
+
+    /**
+     * Запись задачи при обходе хранилища менеджера
+     */
+    private static class ExportAction implements Consumer<Task> {
+        private final TaskWriter writer;
+        private long count = 0;
+
+        ExportAction(TaskWriter writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        public void accept(Task task) {
+            try {
+                writer.write(task);
+                count++;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
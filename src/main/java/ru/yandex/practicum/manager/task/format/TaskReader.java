@@ -0,0 +1,18 @@
+package ru.yandex.practicum.manager.task.format;
+
+import ru.yandex.practicum.model.Task;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Чтение задач из снимка состояния менеджера
+ */
+public interface TaskReader extends Closeable {
+    /**
+     * Прочитать следующую задачу
+     *
+     * @return Задача или null, если задачи закончились
+     */
+    Task read() throws IOException;
+}
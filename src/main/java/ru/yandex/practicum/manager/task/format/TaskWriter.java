@@ -0,0 +1,16 @@
+package ru.yandex.practicum.manager.task.format;
+
+import ru.yandex.practicum.model.Task;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Запись задач в снимок состояния менеджера
+ */
+public interface TaskWriter extends Closeable {
+    /**
+     * Записать задачу
+     */
+    void write(Task task) throws IOException;
+}
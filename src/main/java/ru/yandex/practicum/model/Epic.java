@@ -1,6 +1,7 @@
 package ru.yandex.practicum.model;
 
-import java.util.HashSet;
+import java.util.Arrays;
+import java.util.function.IntFunction;
 
 /**
  * Эпик - задача, включающая N подзадач (N >= 0).
@@ -9,49 +10,159 @@ public class Epic extends Task {
     /**
      * Идентификаторы подзадач эпика.
      */
-    private final HashSet<Integer> subtasksIds;
+    private final IdSet subtasksIds;
+
+    /**
+     * Количество подзадач эпика по статусам (индекс - порядковый номер статуса).
+     * Поддерживается при изменении подзадач, поэтому статус эпика вычисляется за O(1)
+     */
+    private final int[] subtaskStateCounts;
+
+    /**
+     * Статусы подзадач, учтенные в {@link #subtaskStateCounts} (порядковые номера, в порядке {@link #subtasksIds}).
+     * Уменьшение количества выполняется по учтенному статусу, поэтому изменение объекта подзадачи "на месте"
+     * не нарушает согласованность количества с составом эпика
+     */
+    private byte[] subtaskStates;
 
     public Epic(String name, String description) {
         super(name, description);
-        subtasksIds = new HashSet<>();
+        subtasksIds = new IdSet();
+        subtaskStateCounts = new int[TaskState.values().length];
+        subtaskStates = new byte[0];
     }
 
     public Epic(int id, TaskState state, String name, String description) {
         super(id, state, name, description);
-        subtasksIds = new HashSet<>();
+        subtasksIds = new IdSet();
+        subtaskStateCounts = new int[TaskState.values().length];
+        subtaskStates = new byte[0];
     }
 
     public Epic(Epic other) {
         super(other);
-        subtasksIds = new HashSet<>(other.subtasksIds);
+        subtasksIds = new IdSet(other.subtasksIds);
+        subtaskStateCounts = other.subtaskStateCounts.clone();
+        subtaskStates = Arrays.copyOf(other.subtaskStates, other.subtasksIds.size());
     }
 
-    public void addSubtask(int id) {
-        subtasksIds.add(id);
+    /**
+     * Добавить подзадачу
+     *
+     * @param state Статус подзадачи
+     */
+    public void addSubtask(int id, TaskState state) {
+        if (subtasksIds.add(id)) {
+            int position = subtasksIds.indexOf(id);
+            int size = subtasksIds.size();
+            if (subtaskStates.length < size) {
+                subtaskStates = Arrays.copyOf(subtaskStates, Math.max(4, size * 2));
+            }
+            System.arraycopy(subtaskStates, position, subtaskStates, position + 1, size - 1 - position);
+            subtaskStates[position] = (byte) state.ordinal();
+            subtaskStateCounts[state.ordinal()]++;
+        }
     }
 
     public boolean containsSubtask(int id) {
         return subtasksIds.contains(id);
     }
 
+    /**
+     * Удалить подзадачу (количество уменьшается по учтенному статусу подзадачи)
+     */
     public boolean removeSubtask(int id) {
-        return subtasksIds.remove(id);
+        int position = subtasksIds.indexOf(id);
+        if (position < 0) {
+            return false;
+        }
+        subtaskStateCounts[subtaskStates[position]]--;
+        System.arraycopy(subtaskStates, position + 1, subtaskStates, position, subtasksIds.size() - 1 - position);
+        subtasksIds.remove(id);
+        return true;
+    }
+
+    /**
+     * Учесть изменение статуса подзадачи эпика (прежний статус - учтенный ранее)
+     *
+     * @param state Новый статус подзадачи
+     */
+    public void changeSubtaskState(int id, TaskState state) {
+        int position = subtasksIds.indexOf(id);
+        if (position < 0) {
+            return;
+        }
+        subtaskStateCounts[subtaskStates[position]]--;
+        subtaskStates[position] = (byte) state.ordinal();
+        subtaskStateCounts[state.ordinal()]++;
+    }
+
+    /**
+     * Получить учтенный статус подзадачи эпика
+     *
+     * @return Статус или null, если подзадачи нет в эпике
+     */
+    public TaskState getSubtaskState(int id) {
+        int position = subtasksIds.indexOf(id);
+        return position < 0 ? null : TaskState.values()[subtaskStates[position]];
+    }
+
+    /**
+     * Пересчитать количество подзадач по статусам
+     *
+     * @param stateOf Статус подзадачи по её идентификатору
+     */
+    public void recountSubtaskStates(IntFunction<TaskState> stateOf) {
+        Arrays.fill(subtaskStateCounts, 0);
+        int[] ids = subtasksIds.toArray();
+        for (int i = 0; i < ids.length; i++) {
+            TaskState state = stateOf.apply(ids[i]);
+            subtaskStates[i] = (byte) state.ordinal();
+            subtaskStateCounts[state.ordinal()]++;
+        }
+    }
+
+    /**
+     * Получить количество подзадач эпика в указанном статусе
+     */
+    public int getSubtaskCount(TaskState state) {
+        return subtaskStateCounts[state.ordinal()];
+    }
+
+    /**
+     * Вычислить статус эпика по статусам подзадач (за O(1)):
+     * нет подзадач или все новые - NEW, все завершены - DONE, иначе - IN_PROGRESS
+     */
+    public TaskState calculateState() {
+        int total = subtasksIds.size();
+        if (total == subtaskStateCounts[TaskState.NEW.ordinal()]) {
+            return TaskState.NEW;
+        }
+        if (total == subtaskStateCounts[TaskState.DONE.ordinal()]) {
+            return TaskState.DONE;
+        }
+        return TaskState.IN_PROGRESS;
     }
 
-    public HashSet<Integer> getSubtasks() {
+    /**
+     * Получить идентификаторы подзадач эпика (в порядке возрастания)
+     */
+    public IdSet getSubtasks() {
         return subtasksIds;
     }
 
     public void clearSubtasks() {
         subtasksIds.clear();
+        Arrays.fill(subtaskStateCounts, 0);
     }
 
     /**
-     * Заменить список подзадач на указанный.
-     * @param subtasksIds
+     * Заменить список подзадач (и количество подзадач по статусам) на подзадачи другого эпика.
+     * @param other
      */
-    public void replaceSubtasks(HashSet<Integer> subtasksIds) {
-        this.subtasksIds.clear();
-        this.subtasksIds.addAll(subtasksIds);
+    public void replaceSubtasks(Epic other) {
+        subtasksIds.copyFrom(other.subtasksIds);
+        System.arraycopy(other.subtaskStateCounts, 0, subtaskStateCounts, 0, subtaskStateCounts.length);
+        subtaskStates = Arrays.copyOf(other.subtaskStates, other.subtasksIds.size());
     }
 }
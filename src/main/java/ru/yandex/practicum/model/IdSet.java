@@ -0,0 +1,146 @@
+package ru.yandex.practicum.model;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * Множество идентификаторов - отсортированный массив int без упаковки в {@link Integer}.
+ * Поиск - двоичный, добавление возрастающих идентификаторов (обычный случай - идентификаторы выдаются
+ * последовательно) - запись в конец массива. Обход выполняется в порядке возрастания идентификаторов.
+ */
+public final class IdSet {
+    private static final int[] EMPTY = new int[0];
+
+    private int[] ids = EMPTY;
+
+    private int size = 0;
+
+    public IdSet() {
+    }
+
+    public IdSet(IdSet other) {
+        ids = other.size == 0 ? EMPTY : Arrays.copyOf(other.ids, other.size);
+        size = other.size;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean contains(int id) {
+        return indexOf(id) >= 0;
+    }
+
+    /**
+     * Получить позицию идентификатора в порядке возрастания
+     *
+     * @return Позиция, если идентификатор есть в множестве, иначе (-(позиция для вставки) - 1)
+     */
+    public int indexOf(int id) {
+        return Arrays.binarySearch(ids, 0, size, id);
+    }
+
+    /**
+     * Добавить идентификатор
+     *
+     * @return true - идентификатор добавлен, false - уже был в множестве
+     */
+    public boolean add(int id) {
+        int position;
+        if (size == 0 || ids[size - 1] < id) {
+            position = size;
+        } else {
+            position = Arrays.binarySearch(ids, 0, size, id);
+            if (position >= 0) {
+                return false;
+            }
+            position = -position - 1;
+        }
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, Math.max(4, size * 2));
+        }
+        System.arraycopy(ids, position, ids, position + 1, size - position);
+        ids[position] = id;
+        size++;
+        return true;
+    }
+
+    /**
+     * Удалить идентификатор
+     *
+     * @return true - идентификатор удален, false - его не было в множестве
+     */
+    public boolean remove(int id) {
+        int position = Arrays.binarySearch(ids, 0, size, id);
+        if (position < 0) {
+            return false;
+        }
+        System.arraycopy(ids, position + 1, ids, position, size - position - 1);
+        size--;
+        return true;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Заменить содержимое множества содержимым другого множества (без выделения памяти, если массива достаточно)
+     */
+    public void copyFrom(IdSet other) {
+        if (other == this) {
+            return;
+        }
+        if (ids.length < other.size) {
+            ids = new int[other.size];
+        }
+        System.arraycopy(other.ids, 0, ids, 0, other.size);
+        size = other.size;
+    }
+
+    /**
+     * Выполнить действие для всех идентификаторов в порядке возрастания
+     */
+    public void forEach(IntConsumer action) {
+        for (int i = 0; i < size; i++) {
+            action.accept(ids[i]);
+        }
+    }
+
+    public IntStream stream() {
+        return Arrays.stream(ids, 0, size);
+    }
+
+    /**
+     * Получить копию идентификаторов в порядке возрастания
+     */
+    public int[] toArray() {
+        return Arrays.copyOf(ids, size);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof IdSet other)) return false;
+        return Arrays.equals(ids, 0, size, other.ids, 0, other.size);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = 1;
+        for (int i = 0; i < size; i++) {
+            result = 31 * result + ids[i];
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(toArray());
+    }
+}
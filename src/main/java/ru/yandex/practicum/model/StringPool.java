@@ -0,0 +1,202 @@
+package ru.yandex.practicum.model;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Пул строк для названий и описаний задач.
+ * Одинаковые строки (например, названия подзадач, скопированных из шаблона) хранятся в одном экземпляре.
+ * В компактном режиме строки хранятся как массивы байт UTF-8, а {@link Task#getName()} и
+ * {@link Task#getDescription()} декодируют их при каждом вызове (меньше памяти ценой создания строки при чтении).
+ * <p>
+ * Пул ссылается на строки слабыми ссылками: строка остается в пуле, пока на нее ссылается хотя бы одна задача,
+ * поэтому пул не растет от удаленных и измененных задач и может жить столько же, сколько использующие его менеджеры.
+ * Пул потокобезопасен и может использоваться несколькими менеджерами задач и загрузчиком одновременно.
+ * <p>
+ * Экономия памяти оценивается по текущим задачам ({@link #estimateSavedBytes(Iterable)}) по размерам объектов
+ * 64-битной JVM со сжатыми указателями.
+ */
+public final class StringPool {
+    /**
+     * Размер заголовка объекта String (с полями) и заголовка массива, байт
+     */
+    private static final int STRING_HEADER = 24;
+    private static final int ARRAY_HEADER = 16;
+
+    private final boolean compact;
+
+    /**
+     * Строки пула (String или byte[] в UTF-8). Ключ и значение - одна и та же слабая ссылка
+     */
+    private final ConcurrentHashMap<Object, Entry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * Очередь ссылок на строки, удаленные сборщиком мусора
+     */
+    private final ReferenceQueue<Object> collected = new ReferenceQueue<>();
+
+    private final LongAdder requests = new LongAdder();
+
+    /**
+     * @param compact true - хранить строки как массивы байт UTF-8, false - только устранять повторы строк
+     */
+    public StringPool(boolean compact) {
+        this.compact = compact;
+    }
+
+    public boolean isCompact() {
+        return compact;
+    }
+
+    /**
+     * Получить экземпляр строки из пула
+     */
+    public String intern(String value) {
+        return (String) internValue(value);
+    }
+
+    /**
+     * Получить представление строки в UTF-8 из пула (массив не должен изменяться)
+     */
+    public byte[] internUtf8(String value) {
+        return (byte[]) internValue(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Декодировать строку, хранимую в UTF-8
+     */
+    public static String decode(byte[] utf8) {
+        return new String(utf8, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Количество обращений к пулу
+     */
+    public long getRequests() {
+        return requests.sum();
+    }
+
+    /**
+     * Количество различных строк в пуле (строки, на которые больше не ссылаются задачи, не учитываются
+     * после их удаления сборщиком мусора)
+     */
+    public int size() {
+        expungeCollected();
+        return entries.size();
+    }
+
+    /**
+     * Оценить память, сэкономленную на названиях и описаниях задач по сравнению с хранением отдельной строки
+     * в каждой задаче, байт. Учитываются только переданные задачи, поэтому оценка не включает удаленные задачи
+     * (описания, читаемые по требованию, не учитываются).
+     */
+    public static long estimateSavedBytes(Iterable<? extends Task> tasks) {
+        // размер отдельной строки и размер экземпляра в пуле для каждого различного значения
+        Map<Object, long[]> distinct = new IdentityHashMap<>();
+        long unpooled = 0;
+        for (Task task : tasks) {
+            for (Object value : new Object[]{task.storedName(), task.storedDescription()}) {
+                if (value != null) {
+                    unpooled += distinct.computeIfAbsent(value, StringPool::sizes)[0];
+                }
+            }
+        }
+        long pooled = 0;
+        for (long[] sizes : distinct.values()) {
+            pooled += sizes[1];
+        }
+        return unpooled - pooled;
+    }
+
+    /**
+     * Размер значения (String или byte[] в UTF-8) в виде отдельной строки и в пуле
+     */
+    private static long[] sizes(Object value) {
+        if (value instanceof byte[] utf8) {
+            return new long[]{footprint(decode(utf8)), ARRAY_HEADER + align(utf8.length)};
+        }
+        long size = footprint((String) value);
+        return new long[]{size, size};
+    }
+
+    /**
+     * Получить экземпляр значения (String или byte[]) из пула, добавив значение, если равного в пуле нет
+     */
+    private Object internValue(Object value) {
+        requests.increment();
+        expungeCollected();
+        Entry entry = new Entry(value, collected);
+        while (true) {
+            Entry pooled = entries.putIfAbsent(entry, entry);
+            if (pooled == null) {
+                return value;
+            }
+            Object pooledValue = pooled.get();
+            if (pooledValue != null) {
+                return pooledValue;
+            }
+            // строка удалена сборщиком мусора, но ссылка еще не убрана из пула
+            entries.remove(pooled, pooled);
+        }
+    }
+
+    /**
+     * Убрать из пула ссылки на строки, удаленные сборщиком мусора
+     */
+    private void expungeCollected() {
+        Object reference;
+        while ((reference = collected.poll()) != null) {
+            entries.remove(reference, reference);
+        }
+    }
+
+    /**
+     * Оценка размера строки в памяти: объект String и массив символов (Latin-1 - байт на символ, иначе - два)
+     */
+    private static long footprint(String value) {
+        boolean latin1 = value.chars().allMatch(ch -> ch <= 0xFF);
+        return STRING_HEADER + ARRAY_HEADER + align(latin1 ? value.length() : value.length() * 2L);
+    }
+
+    private static long align(long size) {
+        return (size + 7) & ~7L;
+    }
+
+    /**
+     * Слабая ссылка на строку пула с равенством по содержимому. Ссылка на удаленную строку равна только себе
+     */
+    private static final class Entry extends WeakReference<Object> {
+        private final int hash;
+
+        private Entry(Object value, ReferenceQueue<Object> queue) {
+            super(value, queue);
+            hash = value instanceof byte[] utf8 ? Arrays.hashCode(utf8) : value.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Entry other) || hash != other.hash) return false;
+            Object value = get();
+            Object otherValue = other.get();
+            if (value == null || otherValue == null) {
+                return false;
+            }
+            if (value instanceof byte[] utf8) {
+                return otherValue instanceof byte[] otherUtf8 && Arrays.equals(utf8, otherUtf8);
+            }
+            return value.equals(otherValue);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
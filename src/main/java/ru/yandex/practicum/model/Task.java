@@ -1,5 +1,7 @@
 package ru.yandex.practicum.model;
 
+import java.util.function.Supplier;
+
 /**
  * Отдельно стоящая задача, не входящая в эпик.
  * Базовый класс для {@link Epic} и {@link Subtask}.
@@ -22,11 +24,28 @@ public class Task {
      */
     private String description;
 
+    /**
+     * Название и описание в UTF-8 из {@link StringPool} (null, если хранятся строкой)
+     */
+    private byte[] compactName;
+    private byte[] compactDescription;
+
+    /**
+     * Источник описания, читаемого по требованию (null, если описание хранится в {@link #description})
+     */
+    private Supplier<String> descriptionSource;
+
     /**
      * Статус задачи
      */
     private TaskState state;
 
+    /**
+     * Версия задачи в менеджере: увеличивается при каждом обновлении задачи менеджером
+     * (не сохраняется в файл и не учитывается при сравнении задач; читается потоками без блокировок)
+     */
+    private volatile long version;
+
     /**
      * Получить идентификатор
      */
@@ -45,14 +64,97 @@ public class Task {
      * Получить название
      */
     public final String getName() {
-        return name;
+        return compactName != null ? StringPool.decode(compactName) : name;
     }
 
     /**
      * Получить описание
      */
     public final String getDescription() {
-        return description;
+        if (descriptionSource != null) {
+            return descriptionSource.get();
+        }
+        return compactDescription != null ? StringPool.decode(compactDescription) : description;
+    }
+
+    /**
+     * Установить источник описания, читаемого по требованию: описание не хранится в задаче,
+     * а запрашивается у источника при каждом вызове {@link #getDescription()}
+     */
+    public final void setDescriptionSource(Supplier<String> descriptionSource) {
+        this.descriptionSource = descriptionSource;
+        description = null;
+        compactDescription = null;
+    }
+
+    /**
+     * Получить источник описания, читаемого по требованию (null, если описание хранится в задаче)
+     */
+    public final Supplier<String> getDescriptionSource() {
+        return descriptionSource;
+    }
+
+    /**
+     * Прочитать описание у источника и далее хранить его в задаче
+     */
+    public final void resolveDescription() {
+        if (descriptionSource != null) {
+            description = descriptionSource.get();
+            descriptionSource = null;
+        }
+    }
+
+    /**
+     * Заменить название и описание экземплярами из пула строк
+     * (описание, читаемое по требованию, не заменяется)
+     */
+    public final void internStrings(StringPool pool) {
+        if (pool.isCompact()) {
+            if (name != null) {
+                compactName = pool.internUtf8(name);
+                name = null;
+            }
+            if (description != null) {
+                compactDescription = pool.internUtf8(description);
+                description = null;
+            }
+        } else {
+            if (name != null) {
+                name = pool.intern(name);
+            }
+            if (description != null) {
+                description = pool.intern(description);
+            }
+        }
+    }
+
+    /**
+     * Название в том виде, в котором оно хранится в задаче (String или byte[] в UTF-8)
+     */
+    Object storedName() {
+        return compactName != null ? compactName : name;
+    }
+
+    /**
+     * Описание в том виде, в котором оно хранится в задаче (String, byte[] в UTF-8 или null для описания,
+     * читаемого по требованию)
+     */
+    Object storedDescription() {
+        return compactDescription != null ? compactDescription : description;
+    }
+
+    /**
+     * Получить версию задачи
+     */
+    public final long getVersion() {
+        return version;
+    }
+
+    /**
+     * Установить версию задачи (выполняется менеджером при обновлении)
+     */
+    public final void setVersion(long version) {
+        this.version = version;
     }
 
     public Task(String name, String description) {
@@ -70,7 +172,11 @@ public class Task {
         id = other.id;
         name = other.name;
         description = other.description;
+        compactName = other.compactName;
+        compactDescription = other.compactDescription;
+        descriptionSource = other.descriptionSource;
         state = other.state;
+        version = other.version;
     }
 
     /**
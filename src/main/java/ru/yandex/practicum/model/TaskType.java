@@ -15,5 +15,17 @@ public enum TaskType {
     /**
      * Подзадача
      */
-    SUBTASK
+    SUBTASK;
+
+    /**
+     * Получить тип задачи
+     */
+    public static TaskType of(Task task) {
+        if (task instanceof Epic) {
+            return EPIC;
+        } else if (task instanceof Subtask) {
+            return SUBTASK;
+        }
+        return TASK;
+    }
 }
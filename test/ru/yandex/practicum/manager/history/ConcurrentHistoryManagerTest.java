@@ -0,0 +1,93 @@
+package ru.yandex.practicum.manager.history;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.manager.TestTaskFactory;
+import ru.yandex.practicum.model.Task;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+/**
+ * Тесты для {@link ConcurrentHistoryManager}
+ */
+public class ConcurrentHistoryManagerTest {
+    private ConcurrentHistoryManager historyManager;
+
+    @BeforeEach
+    void beforeEach() {
+        historyManager = new ConcurrentHistoryManager();
+    }
+
+    /**
+     * Порядок истории совпадает с порядком просмотров: повторный просмотр переносит задачу в конец,
+     * удаление учитывается относительно просмотров
+     */
+    @Test
+    void historyKeepsViewOrder() {
+        historyManager.add(TestTaskFactory.createSampleTask(0));
+        historyManager.add(TestTaskFactory.createSampleTask(1));
+        historyManager.add(TestTaskFactory.createSampleTask(2));
+        historyManager.add(TestTaskFactory.createSampleTask(0));
+        historyManager.remove(1);
+
+        List<Task> history = historyManager.getHistory();
+        Assertions.assertEquals(2, history.size());
+        Assertions.assertEquals(2, history.get(0).getId());
+        Assertions.assertEquals(0, history.get(1).getId());
+    }
+
+    /**
+     * Просмотры, упорядоченные между потоками (через завершение потока), попадают в историю в порядке выполнения
+     */
+    @Test
+    void viewsOrderedAcrossThreads() throws InterruptedException {
+        historyManager.add(TestTaskFactory.createSampleTask(0));
+        Thread thread = new Thread(() -> {
+            historyManager.add(TestTaskFactory.createSampleTask(1));
+            historyManager.add(TestTaskFactory.createSampleTask(0));
+        });
+        thread.start();
+        thread.join();
+        historyManager.add(TestTaskFactory.createSampleTask(1));
+
+        List<Task> history = historyManager.getHistory();
+        Assertions.assertEquals(List.of(0, 1), history.stream().map(Task::getId).toList());
+    }
+
+    /**
+     * Просмотры из нескольких потоков: история содержит все просмотренные задачи без повторов,
+     * просмотры каждого потока идут в порядке выполнения
+     */
+    @Test
+    void concurrentViews() throws InterruptedException {
+        int threadCount = 4;
+        int viewCount = 1_000;
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < threadCount; t++) {
+            int firstId = t * viewCount;
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < viewCount; i++) {
+                    historyManager.add(TestTaskFactory.createSampleTask(firstId + i));
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        List<Task> history = historyManager.getHistory();
+        Assertions.assertEquals(threadCount * viewCount, new HashSet<>(history).size());
+        int[] lastIdOfThread = new int[threadCount];
+        Arrays.fill(lastIdOfThread, -1);
+        for (Task task : history) {
+            int thread = task.getId() / viewCount;
+            Assertions.assertTrue(task.getId() > lastIdOfThread[thread]);
+            lastIdOfThread[thread] = task.getId();
+        }
+    }
+}
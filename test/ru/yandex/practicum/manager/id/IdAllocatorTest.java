@@ -0,0 +1,82 @@
+package ru.yandex.practicum.manager.id;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Тесты для {@link AtomicIdAllocator} и {@link LeasingIdAllocator}
+ */
+public class IdAllocatorTest {
+    private final File counterFile = new File("ids.counter");
+
+    @BeforeEach
+    void beforeEach() {
+        counterFile.delete();
+    }
+
+    /**
+     * Идентификаторы выдаются последовательно и не повторяют учтенные
+     */
+    @Test
+    void atomicAllocatorSkipsReserved() {
+        IdAllocator allocator = new AtomicIdAllocator();
+        Assertions.assertEquals(0, allocator.next());
+        allocator.reserve(10);
+        allocator.reserve(5);
+        Assertions.assertEquals(11, allocator.next());
+    }
+
+    /**
+     * Несколько экземпляров с общим счетчиком, выдающие идентификаторы из нескольких потоков,
+     * не выдают повторяющихся идентификаторов и обращаются к файлу раз в блок
+     */
+    @Test
+    void leasingAllocatorsDoNotCollide() throws InterruptedException {
+        LeasingIdAllocator first = new LeasingIdAllocator(counterFile, 100);
+        LeasingIdAllocator second = new LeasingIdAllocator(counterFile, 100);
+        Set<Integer> ids = ConcurrentHashMap.newKeySet();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            IdAllocator allocator = t % 2 == 0 ? first : second;
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < 1_000; i++) {
+                    Assertions.assertTrue(ids.add(allocator.next()));
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        Assertions.assertEquals(4_000, ids.size());
+        Assertions.assertEquals(40, first.getLeases() + second.getLeases());
+    }
+
+    /**
+     * Новый экземпляр продолжает выдачу после блоков, полученных предыдущими экземплярами,
+     * и не выдает учтенные идентификаторы
+     */
+    @Test
+    void leasingAllocatorContinuesAfterRestart() {
+        LeasingIdAllocator first = new LeasingIdAllocator(counterFile, 10);
+        Set<Integer> ids = new HashSet<>();
+        for (int i = 0; i < 15; i++) {
+            ids.add(first.next());
+        }
+
+        LeasingIdAllocator second = new LeasingIdAllocator(counterFile, 10);
+        second.reserve(100);
+        int next = second.next();
+        Assertions.assertFalse(ids.contains(next));
+        Assertions.assertEquals(101, next);
+    }
+}
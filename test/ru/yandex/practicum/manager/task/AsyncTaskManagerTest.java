@@ -0,0 +1,92 @@
+package ru.yandex.practicum.manager.task;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.manager.TestTaskFactory;
+import ru.yandex.practicum.model.Epic;
+import ru.yandex.practicum.model.Subtask;
+import ru.yandex.practicum.model.TaskState;
+
+import java.io.File;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Тесты для {@link AsyncTaskManager}
+ */
+public class AsyncTaskManagerTest {
+    private AsyncTaskManager asyncManager;
+
+    @BeforeEach
+    void beforeEach() {
+        asyncManager = new AsyncTaskManager(new ConcurrentTaskManager());
+    }
+
+    @AfterEach
+    void afterEach() {
+        asyncManager.close();
+    }
+
+    /**
+     * Операции над одной подзадачей выполняются в порядке вызова: итоговый статус - статус последнего обновления
+     */
+    @Test
+    void operationsOnSameEntityAreSequenced() {
+        int epicId = asyncManager.addEpic(TestTaskFactory.createSampleEpic(0)).join();
+        int subtaskId = asyncManager.addSubtask(TestTaskFactory.createSampleSubtask(0, epicId)).join();
+
+        List<CompletableFuture<Boolean>> updates = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            Subtask subtask = new Subtask(TestTaskFactory.createSampleSubtask(subtaskId, epicId));
+            subtask.setState(i % 2 == 0 ? TaskState.DONE : TaskState.IN_PROGRESS);
+            updates.add(asyncManager.updateSubtask(subtask));
+        }
+        Subtask last = TestTaskFactory.createSampleSubtask(subtaskId, epicId);
+        last.setState(TaskState.DONE);
+        CompletableFuture<Boolean> lastUpdate = asyncManager.updateSubtask(last);
+        CompletableFuture<Subtask> read = asyncManager.getSubtask(subtaskId);
+
+        updates.forEach(update -> Assertions.assertTrue(update.join()));
+        Assertions.assertTrue(lastUpdate.join());
+        Assertions.assertEquals(TaskState.DONE, read.join().getState());
+        Assertions.assertEquals(TaskState.DONE, asyncManager.getEpic(epicId).join().getState());
+    }
+
+    /**
+     * С менеджером с отложенной записью результат изменения завершается после записи изменения на диск
+     */
+    @Test
+    void writeBehindCompletesAfterWrite() throws Exception {
+        File stateFile = new File(FileBackedTaskManager.defaultStateFilename);
+        stateFile.delete();
+        try (WriteBehindTaskManager writeBehind = new WriteBehindTaskManager(Duration.ofMillis(10), 1_000);
+             AsyncTaskManager async = new AsyncTaskManager(writeBehind)) {
+            Epic epic = TestTaskFactory.createSampleEpic(0);
+            int epicId = async.addEpic(epic).join();
+
+            Assertions.assertTrue(writeBehind.whenDurable().isDone());
+            Assertions.assertEquals(epicId,
+                    FileBackedTaskManager.loadFromFile(stateFile).getEpics().get(0).getId());
+        }
+    }
+
+    /**
+     * Чтение через фасад не ждет записи изменений на диск
+     */
+    @Test
+    void readsDoNotWaitForWriteBehind() throws Exception {
+        new File(FileBackedTaskManager.defaultStateFilename).delete();
+        try (WriteBehindTaskManager writeBehind = new WriteBehindTaskManager(Duration.ofMinutes(1), 1_000);
+             AsyncTaskManager async = new AsyncTaskManager(writeBehind)) {
+            // изменение выполнено в памяти, запись на диск ожидает интервала сброса
+            int epicId = writeBehind.addEpic(TestTaskFactory.createSampleEpic(0));
+            Assertions.assertFalse(writeBehind.whenDurable().isDone());
+            Assertions.assertEquals(epicId, async.getEpic(epicId).get(5, TimeUnit.SECONDS).getId());
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package ru.yandex.practicum.manager.task;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.model.Epic;
+import ru.yandex.practicum.model.Subtask;
+import ru.yandex.practicum.model.Task;
+import ru.yandex.practicum.model.TaskState;
+import ru.yandex.practicum.model.TaskType;
+
+import java.util.Map;
+
+/**
+ * Тесты для {@link ColumnarTaskStore}
+ */
+public class ColumnarTaskStoreTest {
+    /**
+     * Агрегация по колонкам: количество задач в статусе, поиск по статусу, завершенные подзадачи по эпикам
+     */
+    @Test
+    void scans() {
+        ColumnarTaskManager manager = new ColumnarTaskManager();
+        int first = manager.addEpic(new Epic("Epic 1", "Description"));
+        int second = manager.addEpic(new Epic("Epic 2", "Description"));
+        manager.addTask(new Task(0, TaskState.DONE, "Task", "Description"));
+        manager.addSubtask(new Subtask(0, TaskState.DONE, "Subtask 1", "Description", first));
+        manager.addSubtask(new Subtask(0, TaskState.DONE, "Subtask 2", "Description", first));
+        int inProgress = manager.addSubtask(new Subtask(0, TaskState.IN_PROGRESS, "Subtask 3", "Description", first));
+
+        ColumnarTaskStore store = manager.getStore();
+        Assertions.assertEquals(2, store.count(TaskType.SUBTASK, TaskState.DONE));
+        Assertions.assertEquals(1, store.count(TaskType.TASK, TaskState.DONE));
+        Assertions.assertArrayEquals(new int[]{inProgress}, store.findIds(TaskType.SUBTASK, TaskState.IN_PROGRESS));
+        Assertions.assertArrayEquals(new int[]{first}, store.findIds(TaskType.EPIC, TaskState.IN_PROGRESS));
+        Assertions.assertEquals(Map.of(first, 2, second, 0), store.countSubtasksByEpic(TaskState.DONE));
+    }
+
+    /**
+     * Задачи создаются из колонок при чтении: изменение полученной задачи не изменяет хранимую,
+     * а удаление эпика удаляет его подзадачи
+     */
+    @Test
+    void materialize() {
+        ColumnarTaskManager manager = new ColumnarTaskManager();
+        int epicId = manager.addEpic(new Epic("Epic", "Description"));
+        int subtaskId = manager.addSubtask(new Subtask("Subtask", "Description", epicId));
+
+        Subtask subtask = manager.getSubtask(subtaskId);
+        subtask.setState(TaskState.DONE);
+        Assertions.assertEquals(TaskState.NEW, manager.getSubtask(subtaskId).getState());
+        Assertions.assertNotSame(subtask, manager.getSubtask(subtaskId));
+        Assertions.assertEquals("Subtask", manager.getSubtask(subtaskId).getName());
+        Assertions.assertTrue(manager.getEpic(epicId).containsSubtask(subtaskId));
+
+        Assertions.assertTrue(manager.updateSubtask(subtask));
+        Assertions.assertEquals(TaskState.DONE, manager.getEpic(epicId).getState());
+
+        Assertions.assertTrue(manager.removeEpic(epicId));
+        Assertions.assertNull(manager.getStore().typeOf(subtaskId));
+        Assertions.assertEquals(0, manager.getStore().size(TaskType.SUBTASK));
+    }
+}
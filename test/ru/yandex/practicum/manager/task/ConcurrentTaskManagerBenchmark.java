@@ -0,0 +1,91 @@
+package ru.yandex.practicum.manager.task;
+
+import ru.yandex.practicum.manager.TestTaskFactory;
+import ru.yandex.practicum.model.Subtask;
+import ru.yandex.practicum.model.TaskState;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.Supplier;
+
+/**
+ * Замер пропускной способности изменения подзадач из нескольких потоков:
+ * {@link ConcurrentTaskManager} против {@link InMemoryTaskManager} под одной общей блокировкой.
+ * Каждый поток добавляет, обновляет и удаляет подзадачи своего эпика.
+ * <p>
+ * Запуск: {@code java ru.yandex.practicum.manager.task.ConcurrentTaskManagerBenchmark [потоков] [итераций на поток]}
+ */
+public class ConcurrentTaskManagerBenchmark {
+    public static void main(String[] args) throws InterruptedException {
+        int threadCount = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        int operations = args.length > 1 ? Integer.parseInt(args[1]) : 100_000;
+
+        for (int round = 0; round < 3; round++) {
+            // первые раунды служат прогревом
+            InMemoryTaskManager baseline = new InMemoryTaskManager();
+            report("synchronized", threadCount, operations, run(threadCount, operations, baseline, action -> {
+                synchronized (baseline) {
+                    action.get();
+                }
+            }));
+            report("concurrent", threadCount, operations,
+                    run(threadCount, operations, new ConcurrentTaskManager(), Supplier::get));
+        }
+    }
+
+    /**
+     * Способ вызова менеджера: напрямую или под общей блокировкой
+     */
+    private interface Invoker {
+        void invoke(Supplier<?> action);
+    }
+
+    /**
+     * Выполнить нагрузку и получить время выполнения в наносекундах
+     */
+    private static long run(int threadCount, int operations, TaskManager manager, Invoker invoker)
+            throws InterruptedException {
+        int[] epicIds = new int[threadCount];
+        for (int t = 0; t < threadCount; t++) {
+            epicIds[t] = manager.addEpic(TestTaskFactory.createSampleEpic(t));
+        }
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < threadCount; t++) {
+            int epicId = epicIds[t];
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (int i = 0; i < operations; i++) {
+                    Subtask subtask = TestTaskFactory.createSampleSubtask(i, epicId);
+                    invoker.invoke(() -> manager.addSubtask(subtask));
+                    Subtask done = new Subtask(subtask);
+                    done.setState(TaskState.DONE);
+                    invoker.invoke(() -> manager.updateSubtask(done));
+                    // подзадача удаляется, чтобы пересчет статуса эпика не рос вместе с количеством подзадач
+                    invoker.invoke(() -> manager.removeSubtask(subtask.getId()));
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        long startNanos = System.nanoTime();
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        return System.nanoTime() - startNanos;
+    }
+
+    private static void report(String name, int threadCount, int operations, long nanos) {
+        // на каждую итерацию приходится 3 вызова менеджера: добавление, обновление и удаление
+        double opsPerSecond = 3.0 * threadCount * operations * 1_000_000_000L / nanos;
+        System.out.printf("%-12s threads=%d: %.0f ops/s (%.1f ms)%n",
+                name, threadCount, opsPerSecond, nanos / 1_000_000.0);
+    }
+}
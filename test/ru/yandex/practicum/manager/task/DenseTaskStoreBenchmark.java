@@ -0,0 +1,81 @@
+package ru.yandex.practicum.manager.task;
+
+import ru.yandex.practicum.manager.TestTaskFactory;
+import ru.yandex.practicum.model.Task;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Замер памяти и скорости поиска задач: {@link DenseTaskStore} против {@link HashMap}.
+ * Задачи создаются заранее и общие для обоих хранилищ, поэтому разница в памяти - накладные расходы хранилища.
+ * Поиск в {@link DenseTaskStore} замеряется через {@link Map#get(Object)} (с упаковкой идентификатора)
+ * и через {@link DenseTaskStore.View#get(int)}.
+ * <p>
+ * Запуск: {@code java ru.yandex.practicum.manager.task.DenseTaskStoreBenchmark [количество задач] [поисков]}
+ */
+public class DenseTaskStoreBenchmark {
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int lookups = args.length > 1 ? Integer.parseInt(args[1]) : 10_000_000;
+
+        Task[] source = new Task[count];
+        for (int id = 0; id < count; id++) {
+            source[id] = TestTaskFactory.createSampleTask(id);
+        }
+        int[] keys = new Random(42).ints(lookups, 0, count).toArray();
+
+        for (int round = 0; round < 3; round++) {
+            // первые раунды служат прогревом
+            run("HashMap", count, keys, source, HashMap::new);
+            run("dense", count, keys, source, () -> new DenseTaskStore().tasks());
+            runIntKeys(count, keys, source);
+        }
+    }
+
+    private static void runIntKeys(int count, int[] keys, Task[] source) {
+        DenseTaskStore.View<Task> store = new DenseTaskStore().tasks();
+        for (int id = 0; id < count; id++) {
+            store.put(id, source[id]);
+        }
+        long start = System.nanoTime();
+        long checksum = 0;
+        for (int key : keys) {
+            checksum += store.get(key).getId();
+        }
+        long elapsed = System.nanoTime() - start;
+        System.out.printf("%-9s %,12d задач: %8s байт/задачу, поиск %5.1f нс (%d)%n",
+                "dense int", store.size(), "-", (double) elapsed / keys.length, checksum % 10);
+    }
+
+    private interface StoreFactory {
+        Map<Integer, Task> create();
+    }
+
+    private static void run(String name, int count, int[] keys, Task[] source, StoreFactory factory) {
+        long before = usedMemory();
+        Map<Integer, Task> store = factory.create();
+        for (int id = 0; id < count; id++) {
+            store.put(id, source[id]);
+        }
+        long memory = usedMemory() - before;
+
+        long start = System.nanoTime();
+        long checksum = 0;
+        for (int key : keys) {
+            checksum += store.get(key).getId();
+        }
+        long elapsed = System.nanoTime() - start;
+        System.out.printf("%-9s %,12d задач: %,8.1f байт/задачу, поиск %5.1f нс (%d)%n",
+                name, store.size(), (double) memory / count, (double) elapsed / keys.length, checksum % 10);
+    }
+
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
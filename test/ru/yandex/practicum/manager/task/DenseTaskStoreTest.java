@@ -0,0 +1,90 @@
+package ru.yandex.practicum.manager.task;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.manager.TestTaskFactory;
+import ru.yandex.practicum.model.Epic;
+import ru.yandex.practicum.model.Task;
+import ru.yandex.practicum.model.TaskType;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Тесты для {@link DenseTaskStore}
+ */
+public class DenseTaskStoreTest {
+    /**
+     * Словари разных типов разделяют массив, но не видят задачи друг друга
+     */
+    @Test
+    void typedViews() {
+        DenseTaskStore store = new DenseTaskStore();
+        Map<Integer, Task> tasks = store.tasks();
+        Map<Integer, Epic> epics = store.epics();
+        tasks.put(0, TestTaskFactory.createSampleTask(0));
+        epics.put(1, TestTaskFactory.createSampleEpic(1));
+        tasks.put(2, TestTaskFactory.createSampleTask(2));
+
+        Assertions.assertEquals(2, tasks.size());
+        Assertions.assertEquals(1, epics.size());
+        Assertions.assertNull(tasks.get(1));
+        Assertions.assertNull(tasks.get(-1));
+        Assertions.assertEquals(TaskType.EPIC, store.typeOf(1));
+        Assertions.assertEquals(List.of(0, 2), tasks.values().stream().map(Task::getId).toList());
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> tasks.put(1, TestTaskFactory.createSampleTask(1)));
+        Assertions.assertEquals(3, store.size());
+    }
+
+    /**
+     * Методы с ключом int работают так же, как методы {@link Map}
+     */
+    @Test
+    void intKeys() {
+        DenseTaskStore store = new DenseTaskStore();
+        DenseTaskStore.View<Task> tasks = store.tasks();
+        Task task = TestTaskFactory.createSampleTask(3);
+        Assertions.assertNull(tasks.put(3, task));
+
+        Assertions.assertSame(task, tasks.get(3));
+        Assertions.assertSame(task, tasks.get((Object) 3));
+        Assertions.assertTrue(tasks.containsKey(3));
+        Assertions.assertFalse(store.epics().containsKey(3));
+        Assertions.assertNull(store.epics().get(3));
+        Assertions.assertNull(tasks.get(-1));
+        Assertions.assertNull(store.epics().remove(3));
+        Assertions.assertSame(task, tasks.remove(3));
+        Assertions.assertEquals(0, store.size());
+    }
+
+    /**
+     * Удаление освобождает ячейки, свободные ячейки в конце отбрасываются, массив сжимается
+     */
+    @Test
+    void freeSlotsAndShrink() {
+        DenseTaskStore store = new DenseTaskStore();
+        Map<Integer, Task> tasks = store.tasks();
+        for (int id = 0; id < 1000; id++) {
+            tasks.put(id, TestTaskFactory.createSampleTask(id));
+        }
+        tasks.remove(10);
+        Assertions.assertEquals(1, store.getFreeSlots());
+        Assertions.assertEquals(999, tasks.size());
+
+        Iterator<Task> iterator = tasks.values().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().getId() >= 20) {
+                iterator.remove();
+            }
+        }
+        Assertions.assertEquals(19, tasks.size());
+        Assertions.assertEquals(1, store.getFreeSlots());
+        Assertions.assertTrue(store.getCapacity() < 1000);
+
+        tasks.clear();
+        Assertions.assertEquals(0, store.size());
+        Assertions.assertEquals(0, store.getFreeSlots());
+    }
+}
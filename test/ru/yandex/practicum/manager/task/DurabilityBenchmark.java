@@ -0,0 +1,51 @@
+package ru.yandex.practicum.manager.task;
+
+import ru.yandex.practicum.manager.TestTaskFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.Duration;
+
+/**
+ * Замер задержки сохранения {@link FileBackedTaskManager} при разных уровнях надежности {@link Durability}.
+ * Каждое добавление задачи сохраняет состояние в файл; для {@link Durability#PER_INTERVAL} дополнительно
+ * замеряется время до сброса на диск последней записи (отложенным сбросом по окончании интервала).
+ * <p>
+ * Запуск: {@code java ru.yandex.practicum.manager.task.DurabilityBenchmark [сохранений] [интервал, мс]}
+ */
+public class DurabilityBenchmark {
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int saves = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        Duration interval = Duration.ofMillis(args.length > 1 ? Long.parseLong(args[1]) : 100);
+
+        File directory = Files.createTempDirectory("durability").toFile();
+        for (int round = 0; round < 3; round++) {
+            // первые раунды служат прогревом
+            run(directory, Durability.NONE, Duration.ZERO, saves);
+            run(directory, Durability.PER_FLUSH, Duration.ZERO, saves);
+            run(directory, Durability.PER_INTERVAL, interval, saves);
+        }
+    }
+
+    private static void run(File directory, Durability durability, Duration interval, int saves)
+            throws InterruptedException {
+        File file = new File(directory, durability + ".csv");
+        FileBackedTaskManager manager = new FileBackedTaskManager(file);
+        manager.setDurability(durability, interval);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < saves; i++) {
+            manager.addTask(TestTaskFactory.createSampleTask(0));
+        }
+        long elapsed = System.nanoTime() - start;
+        while (manager.getUnsyncedFileCount() > 0) {
+            Thread.sleep(1);
+        }
+        long durable = System.nanoTime() - start;
+        manager.close();
+        System.out.printf("%-12s сохранение %8.1f мкс, все данные на диске через %6d мс%n",
+                durability, elapsed / 1000.0 / saves, durable / 1_000_000);
+        file.delete();
+    }
+}
@@ -0,0 +1,78 @@
+package ru.yandex.practicum.manager.task;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.manager.TestTaskFactory;
+import ru.yandex.practicum.model.Epic;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Тесты сохранения {@link FileBackedTaskManager} одновременно с изменением задач
+ */
+public class FileBackedTaskManagerConcurrencyTest {
+    private Path directory;
+
+    @BeforeEach
+    void beforeEach() throws IOException {
+        directory = Files.createTempDirectory("kanban");
+    }
+
+    @AfterEach
+    void afterEach() throws IOException {
+        File[] files = directory.toFile().listFiles();
+        if (files != null) {
+            for (File file : files) {
+                Files.delete(file.toPath());
+            }
+        }
+        Files.delete(directory);
+    }
+
+    /**
+     * Эпик с подзадачей, добавляемые другим потоком во время сохранения (между выгрузкой эпиков и подзадач),
+     * не попадают в сохраняемое состояние частично: записанный файл загружается
+     */
+    @Test
+    void saveDuringEpicChangesWritesConsistentState() throws Exception {
+        AtomicBoolean changeOnExport = new AtomicBoolean();
+        Thread[] changer = new Thread[1];
+        FileBackedTaskManager taskManager = new FileBackedTaskManager(directory.resolve("race.csv").toFile()) {
+            @Override
+            public void forEachEpic(Consumer<? super Epic> action) {
+                super.forEachEpic(action);
+                if (changeOnExport.compareAndSet(true, false)) {
+                    changer[0] = new Thread(() -> {
+                        int epicId = addEpic(TestTaskFactory.createSampleEpic(0));
+                        addSubtask(TestTaskFactory.createSampleSubtask(0, epicId));
+                    });
+                    changer[0].start();
+                    try {
+                        // при сохранении под блокировкой изменение дождется окончания сохранения
+                        changer[0].join(200);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            }
+        };
+        taskManager.addTask(TestTaskFactory.createSampleTask(0));
+
+        changeOnExport.set(true);
+        taskManager.save();
+        FileBackedTaskManager.loadFromFile(taskManager.getStateFile());
+        changer[0].join();
+
+        FileBackedTaskManager taskManagerFromFile = FileBackedTaskManager.loadFromFile(taskManager.getStateFile());
+        Assertions.assertEquals(1, taskManagerFromFile.getEpics().size());
+        Assertions.assertEquals(1, taskManagerFromFile.getSubtasks().size());
+        taskManager.close();
+    }
+}
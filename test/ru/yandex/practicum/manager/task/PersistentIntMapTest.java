@@ -0,0 +1,45 @@
+package ru.yandex.practicum.manager.task;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+/**
+ * Тесты для {@link PersistentIntMap}
+ */
+public class PersistentIntMapTest {
+    /**
+     * Случайные добавления и удаления дают тот же результат, что и {@link TreeMap}, а предыдущие версии
+     * словаря не меняются
+     */
+    @Test
+    void matchesTreeMap() {
+        Random random = new Random(42);
+        TreeMap<Integer, Integer> expected = new TreeMap<>();
+        PersistentIntMap<Integer> map = PersistentIntMap.empty();
+        for (int i = 0; i < 20_000; i++) {
+            // ключи из небольшого и из полного диапазона: и плотные, и разреженные ветви дерева
+            int key = i % 2 == 0 ? random.nextInt(2_000) : random.nextInt(Integer.MAX_VALUE);
+            PersistentIntMap<Integer> previous = map;
+            Integer previousValue = previous.get(key);
+            if (random.nextInt(3) == 0) {
+                expected.remove(key);
+                map = map.remove(key);
+            } else {
+                expected.put(key, i);
+                map = map.put(key, i);
+            }
+            Assertions.assertEquals(previousValue, previous.get(key));
+            Assertions.assertEquals(expected.size(), map.size());
+            Assertions.assertEquals(expected.get(key), map.get(key));
+        }
+        Assertions.assertEquals(new ArrayList<>(expected.values()), map.values());
+        for (Map.Entry<Integer, Integer> entry : expected.entrySet()) {
+            Assertions.assertEquals(entry.getValue(), map.get(entry.getKey()));
+        }
+    }
+}
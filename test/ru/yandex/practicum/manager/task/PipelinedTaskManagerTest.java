@@ -0,0 +1,145 @@
+package ru.yandex.practicum.manager.task;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.manager.TestTaskFactory;
+import ru.yandex.practicum.model.Subtask;
+import ru.yandex.practicum.model.TaskState;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Тесты для {@link PipelinedTaskManager}
+ */
+public class PipelinedTaskManagerTest {
+    private final File stateFile = new File("pipelined-test.csv");
+
+    @AfterEach
+    void afterEach() {
+        stateFile.delete();
+    }
+
+    /**
+     * Изменения нескольких потоков выполняются пакетами, статусы эпиков согласованы с подзадачами
+     */
+    @Test
+    void concurrentProducers() throws InterruptedException {
+        int epicCount = 4;
+        int subtasksPerThread = 500;
+        try (PipelinedTaskManager pipeline = new PipelinedTaskManager(new InMemoryTaskManager(), 64)) {
+            List<Integer> epicIds = new ArrayList<>();
+            for (int i = 0; i < epicCount; i++) {
+                epicIds.add(pipeline.addEpic(TestTaskFactory.createSampleEpic(i)).join());
+            }
+            List<Thread> threads = new ArrayList<>();
+            List<CompletableFuture<Integer>> futures = Collections.synchronizedList(new ArrayList<>());
+            for (int epicId : epicIds) {
+                Thread thread = new Thread(() -> {
+                    for (int i = 0; i < subtasksPerThread; i++) {
+                        Subtask subtask = TestTaskFactory.createSampleSubtask(i, epicId);
+                        subtask.setState(TaskState.DONE);
+                        futures.add(pipeline.addSubtask(subtask));
+                    }
+                });
+                threads.add(thread);
+                thread.start();
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+
+            Assertions.assertEquals(epicCount * subtasksPerThread, pipeline.getSubtasks().size());
+            for (int epicId : epicIds) {
+                Assertions.assertEquals(subtasksPerThread, pipeline.getEpicSubtasks(epicId).size());
+                Assertions.assertEquals(TaskState.DONE, pipeline.getEpic(epicId).getState());
+            }
+            Assertions.assertTrue(pipeline.getBatches() <= pipeline.getCommands());
+        }
+    }
+
+    /**
+     * Пакет сохраняется одной записью, результаты завершаются после сохранения
+     */
+    @Test
+    void persistsOncePerBatch() throws IOException {
+        AtomicInteger saves = new AtomicInteger();
+        FileBackedTaskManager fileManager = new FileBackedTaskManager(stateFile) {
+            @Override
+            protected void persist(StateChange... changes) {
+                saves.incrementAndGet();
+                super.persist(changes);
+            }
+        };
+        try (PipelinedTaskManager pipeline = new PipelinedTaskManager(fileManager)) {
+            List<CompletableFuture<Integer>> futures = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                futures.add(pipeline.addTask(TestTaskFactory.createSampleTask(i)));
+            }
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+
+            Assertions.assertEquals(pipeline.getBatches(), saves.get());
+            Assertions.assertEquals(200, FileBackedTaskManager.loadFromFile(stateFile).getTasks().size());
+        }
+    }
+
+    /**
+     * Ошибка команды завершает с ошибкой только её результат, остальные команды пакета выполняются
+     */
+    @Test
+    void failedCommandDoesNotAffectBatch() {
+        try (PipelinedTaskManager pipeline = new PipelinedTaskManager(new InMemoryTaskManager())) {
+            CompletableFuture<Boolean> failed = pipeline.updateTask(null);
+            CompletableFuture<Integer> added = pipeline.addTask(TestTaskFactory.createSampleTask(0));
+
+            Assertions.assertThrows(CompletionException.class, failed::join);
+            Assertions.assertNotNull(pipeline.getTask(added.join()));
+        }
+        PipelinedTaskManager closed = new PipelinedTaskManager(new InMemoryTaskManager());
+        closed.close();
+        Assertions.assertThrows(CompletionException.class,
+                () -> closed.addTask(TestTaskFactory.createSampleTask(0)).join());
+    }
+
+    /**
+     * Команды, добавляемые одновременно с закрытием, завершаются: выполняются или отклоняются
+     */
+    @Test
+    void closeCompletesConcurrentCommands() throws Exception {
+        for (int attempt = 0; attempt < 20; attempt++) {
+            PipelinedTaskManager pipeline = new PipelinedTaskManager(new InMemoryTaskManager(), 8);
+            List<CompletableFuture<Integer>> futures = Collections.synchronizedList(new ArrayList<>());
+            List<Thread> threads = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                Thread thread = new Thread(() -> {
+                    for (int j = 0; j < 200; j++) {
+                        futures.add(pipeline.addTask(TestTaskFactory.createSampleTask(j)));
+                    }
+                });
+                threads.add(thread);
+                thread.start();
+            }
+            pipeline.close();
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            for (CompletableFuture<Integer> future : futures) {
+                try {
+                    future.get(5, TimeUnit.SECONDS);
+                } catch (ExecutionException e) {
+                    Assertions.assertInstanceOf(IllegalStateException.class, e.getCause());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package ru.yandex.practicum.manager.task;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.exception.TransactionException;
+import ru.yandex.practicum.manager.TestTaskFactory;
+import ru.yandex.practicum.model.Epic;
+import ru.yandex.practicum.model.Subtask;
+import ru.yandex.practicum.model.TaskState;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Тесты для {@link Transaction}
+ */
+public class TransactionTest {
+    private final File stateFile = new File("transaction-test.csv");
+
+    private JournaledTaskManager taskManager;
+
+    private int epicId;
+
+    private List<Subtask> subtasks;
+
+    @BeforeEach
+    void beforeEach() {
+        stateFile.delete();
+        taskManager = new JournaledTaskManager(stateFile);
+        taskManager.getJournalFile().delete();
+        epicId = taskManager.addEpic(TestTaskFactory.createSampleEpic(0));
+        for (int i = 0; i < 3; i++) {
+            taskManager.addSubtask(TestTaskFactory.createSampleSubtask(i, epicId));
+        }
+        subtasks = taskManager.getEpicSubtasks(epicId);
+    }
+
+    /**
+     * Подтвержденная транзакция: все изменения применены и записаны в журнал одной группой записей
+     */
+    @Test
+    void commitAppliesAllChanges() throws IOException {
+        long journalLength = taskManager.getJournalFile().length();
+        Transaction transaction = taskManager.beginTransaction();
+        for (Subtask subtask : subtasks) {
+            Subtask done = new Subtask(subtask);
+            done.setState(TaskState.DONE);
+            transaction.updateSubtask(done);
+        }
+        Epic renamed = new Epic(epicId, TaskState.NEW, "Renamed epic", "Epic description");
+        transaction.updateEpic(renamed).commit();
+
+        Assertions.assertEquals(TaskState.DONE, taskManager.getEpic(epicId).getState());
+        Assertions.assertEquals("Renamed epic", taskManager.getEpic(epicId).getName());
+        List<String> records = Files.readAllLines(taskManager.getJournalFile().toPath());
+        Assertions.assertTrue(taskManager.getJournalFile().length() > journalLength);
+        Assertions.assertTrue(records.contains("BATCH,7"));
+
+        JournaledTaskManager taskManagerFromFile = JournaledTaskManager.loadFromFile(stateFile);
+        Assertions.assertEquals(TaskState.DONE, taskManagerFromFile.getEpic(epicId).getState());
+        Assertions.assertEquals("Renamed epic", taskManagerFromFile.getEpic(epicId).getName());
+    }
+
+    /**
+     * Невыполнимое изменение отменяет транзакцию целиком: состояние и журнал не меняются
+     */
+    @Test
+    void failedCommitRollsBack() {
+        long journalLength = taskManager.getJournalFile().length();
+        Subtask done = new Subtask(subtasks.get(0));
+        done.setState(TaskState.DONE);
+        Transaction transaction = taskManager.beginTransaction()
+                .updateSubtask(done)
+                .removeSubtask(subtasks.get(1).getId())
+                .addTask(TestTaskFactory.createSampleTask(0))
+                .removeTask(1_000);
+
+        Assertions.assertThrows(TransactionException.class, transaction::commit);
+
+        Assertions.assertEquals(TaskState.NEW, taskManager.getEpic(epicId).getState());
+        Assertions.assertEquals(3, taskManager.getEpicSubtasks(epicId).size());
+        Assertions.assertEquals(TaskState.NEW, taskManager.getSubtask(subtasks.get(0).getId()).getState());
+        Assertions.assertEquals(0, taskManager.getTasks().size());
+        Assertions.assertEquals(journalLength, taskManager.getJournalFile().length());
+    }
+
+    /**
+     * Группа записей, записанная в журнал не полностью, не применяется при загрузке
+     */
+    @Test
+    void tornBatchIsIgnoredOnLoad() throws IOException {
+        Files.writeString(taskManager.getJournalFile().toPath(),
+                "BATCH,2\nREMOVE,SUBTASK," + subtasks.get(0).getId() + "\n",
+                StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+
+        JournaledTaskManager taskManagerFromFile = JournaledTaskManager.loadFromFile(stateFile);
+        Assertions.assertEquals(3, taskManagerFromFile.getEpicSubtasks(epicId).size());
+    }
+
+    /**
+     * Отмененная транзакция внутри внешней пакетной операции: изменения транзакции не сохраняются,
+     * а изменения внешней операции - сохраняются
+     */
+    @Test
+    void failedNestedCommitKeepsOuterChanges() throws IOException {
+        int taskId = taskManager.inBatch(() -> {
+            int id = taskManager.addTask(TestTaskFactory.createSampleTask(0));
+            Transaction transaction = taskManager.beginTransaction()
+                    .addTask(TestTaskFactory.createSampleTask(1))
+                    .removeTask(-1);
+            Assertions.assertThrows(TransactionException.class, transaction::commit);
+            return id;
+        });
+
+        Assertions.assertEquals(1, taskManager.getTasks().size());
+        JournaledTaskManager taskManagerFromFile = JournaledTaskManager.loadFromFile(stateFile);
+        Assertions.assertEquals(List.of(taskManager.getTask(taskId)), taskManagerFromFile.getTasks());
+    }
+}
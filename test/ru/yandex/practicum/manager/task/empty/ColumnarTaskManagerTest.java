@@ -0,0 +1,13 @@
+package ru.yandex.practicum.manager.task.empty;
+
+import ru.yandex.practicum.manager.task.ColumnarTaskManager;
+
+/**
+ * Тесты для {@link ColumnarTaskManager} (без предварительного заполнения)
+ */
+public class ColumnarTaskManagerTest extends TaskManagerTest<ColumnarTaskManager> {
+    @Override
+    protected ColumnarTaskManager createManager() {
+        return new ColumnarTaskManager();
+    }
+}
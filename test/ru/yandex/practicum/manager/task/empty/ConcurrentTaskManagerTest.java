@@ -0,0 +1,61 @@
+package ru.yandex.practicum.manager.task.empty;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.manager.TestTaskFactory;
+import ru.yandex.practicum.manager.task.ConcurrentTaskManager;
+import ru.yandex.practicum.model.Epic;
+import ru.yandex.practicum.model.Subtask;
+import ru.yandex.practicum.model.TaskState;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Тесты для {@link ConcurrentTaskManager} (без предварительного заполнения)
+ */
+public class ConcurrentTaskManagerTest extends TaskManagerTest<ConcurrentTaskManager> {
+    @Override
+    protected ConcurrentTaskManager createManager() {
+        return new ConcurrentTaskManager(4);
+    }
+
+    /**
+     * Параллельное добавление и обновление подзадач нескольких эпиков: идентификаторы не повторяются,
+     * статусы эпиков согласованы с подзадачами
+     */
+    @Test
+    void concurrentSubtaskMutations() throws InterruptedException {
+        int threadCount = 8;
+        int subtaskCount = 1_000;
+        int[] epicIds = new int[threadCount / 2];
+        for (int e = 0; e < epicIds.length; e++) {
+            epicIds[e] = taskManager.addEpic(TestTaskFactory.createSampleEpic(e));
+        }
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < threadCount; t++) {
+            // потоки попарно работают с одним эпиком
+            int epicId = epicIds[t / 2];
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < subtaskCount; i++) {
+                    Subtask subtask = TestTaskFactory.createSampleSubtask(0, epicId);
+                    taskManager.addSubtask(subtask);
+                    subtask = new Subtask(subtask);
+                    subtask.setState(TaskState.DONE);
+                    taskManager.updateSubtask(subtask);
+                }
+            });
+            threads.add(thread);
+        }
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        Assertions.assertEquals(threadCount * subtaskCount, taskManager.getSubtasks().size());
+        for (Epic epic : taskManager.getEpics()) {
+            Assertions.assertEquals(2 * subtaskCount, taskManager.getEpicSubtasks(epic.getId()).size());
+            Assertions.assertEquals(TaskState.DONE, epic.getState());
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package ru.yandex.practicum.manager.task.empty;
+
+import ru.yandex.practicum.manager.task.DenseInMemoryTaskManager;
+
+/**
+ * Тесты для {@link DenseInMemoryTaskManager} (без предварительного заполнения)
+ */
+public class DenseInMemoryTaskManagerTest extends TaskManagerTest<DenseInMemoryTaskManager> {
+    @Override
+    protected DenseInMemoryTaskManager createManager() {
+        return new DenseInMemoryTaskManager();
+    }
+}
@@ -4,10 +4,22 @@ import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import ru.yandex.practicum.manager.TestTaskFactory;
+import ru.yandex.practicum.manager.task.Durability;
 import ru.yandex.practicum.manager.task.FileBackedTaskManager;
+import ru.yandex.practicum.manager.task.StateChange;
+import ru.yandex.practicum.manager.task.format.SnapshotFormat;
 import ru.yandex.practicum.model.Epic;
+import ru.yandex.practicum.model.StringPool;
+import ru.yandex.practicum.model.Subtask;
+import ru.yandex.practicum.model.Task;
 
+import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * Тесты для {@link FileBackedTaskManager} (без предварительного заполнения)
@@ -96,4 +108,238 @@ public class FileBackedTaskManagerTest extends TaskManagerTest<FileBackedTaskMan
         Epic loadedEpic = taskManagerFromFile.getEpics().get(0);
         Assertions.assertEquals(2, loadedEpic.getSubtasks().size());
     }
+
+    /**
+     * Проверка сохранения и загрузки в двоичном формате: формат определяется автоматически, запятые в описании
+     * сохраняются
+     */
+    @Test
+    void loadManagerBinaryFormat() throws IOException {
+        taskManager = new FileBackedTaskManager(SnapshotFormat.BINARY);
+        Epic epic = TestTaskFactory.createSampleEpic(0);
+        taskManager.addEpic(epic);
+        taskManager.addSubtask(new Subtask("Subtask name", "first, second, third", epic.getId()));
+        taskManager.save();
+
+        FileBackedTaskManager taskManagerFromFile = FileBackedTaskManager.loadFromFile(taskManager.getStateFile());
+
+        Assertions.assertEquals(SnapshotFormat.BINARY, taskManagerFromFile.getSnapshotFormat());
+        Assertions.assertEquals(1, taskManagerFromFile.getEpics().get(0).getSubtasks().size());
+        Assertions.assertEquals("first, second, third", taskManagerFromFile.getSubtasks().get(0).getDescription());
+    }
+
+    /**
+     * Проверка загрузки в формате CSV: строки с переводом строки CRLF разбираются, статистика загрузки учитывает
+     * все задачи
+     */
+    @Test
+    void loadManagerCsvWithCrlfLineEndings() throws IOException {
+        Files.writeString(taskManager.getStateFile().toPath(),
+                "id,type,name,status,description,epic\r\n"
+                        + "0,TASK,Task name,DONE,Task description\r\n"
+                        + "1,EPIC,Epic name,NEW,Epic description\r\n"
+                        + "2,SUBTASK,Subtask name,NEW,Subtask description,1\r\n");
+
+        FileBackedTaskManager taskManagerFromFile = FileBackedTaskManager.loadFromFile(taskManager.getStateFile());
+
+        Assertions.assertEquals(3, taskManagerFromFile.getLastLoadStats().rows());
+        Assertions.assertEquals("Task description", taskManagerFromFile.getTasks().get(0).getDescription());
+        Assertions.assertEquals(1, taskManagerFromFile.getSubtasks().get(0).getEpicId());
+    }
+
+    /**
+     * Проверка параллельной загрузки: подзадачи, записанные раньше своих эпиков, связываются с эпиками,
+     * а следующий идентификатор не повторяет загруженные
+     */
+    @Test
+    void loadManagerParallelSubtasksBeforeEpics() throws IOException {
+        StringBuilder content = new StringBuilder("id,type,name,status,description,epic\n");
+        for (int i = 1; i <= 10_000; i++) {
+            content.append(i).append(",SUBTASK,Subtask name,DONE,Subtask description,0\n");
+        }
+        content.append("0,EPIC,Epic name,DONE,Epic description\n");
+        Files.writeString(taskManager.getStateFile().toPath(), content);
+
+        FileBackedTaskManager taskManagerFromFile = new FileBackedTaskManager();
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            taskManagerFromFile.loadParallel(pool);
+        } finally {
+            pool.shutdown();
+        }
+
+        Assertions.assertEquals(10_000, taskManagerFromFile.getEpicSubtasks(0).size());
+        Assertions.assertEquals(10_001, taskManagerFromFile.addTask(TestTaskFactory.createSampleTask(0)));
+    }
+
+    /**
+     * Проверка сохранения со сбросом на диск: состояние сохраняется через временный файл, который не остается
+     * после сохранения
+     */
+    @Test
+    void saveWithPerFlushDurability() throws IOException {
+        taskManager.setDurability(Durability.PER_FLUSH);
+        taskManager.addTask(TestTaskFactory.createSampleTask(0));
+        taskManager.save();
+
+        Assertions.assertArrayEquals(new File[0], listTempFiles(taskManager));
+        FileBackedTaskManager taskManagerFromFile = FileBackedTaskManager.loadFromFile(taskManager.getStateFile());
+        Assertions.assertEquals(1, taskManagerFromFile.getTasks().size());
+    }
+
+    /**
+     * Ошибка записи содержимого не изменяет файл состояния и не оставляет временный файл
+     */
+    @Test
+    void failedWriteLeavesNoTempFile() throws IOException {
+        var failingManager = new FileBackedTaskManager() {
+            void saveFailing() throws IOException {
+                writeAtomically(getStateFile(), output -> {
+                    output.write(1);
+                    throw new IOException("Сбой записи");
+                });
+            }
+        };
+        failingManager.addTask(TestTaskFactory.createSampleTask(0));
+
+        Assertions.assertThrows(IOException.class, failingManager::saveFailing);
+        Assertions.assertArrayEquals(new File[0], listTempFiles(failingManager));
+        FileBackedTaskManager taskManagerFromFile = FileBackedTaskManager.loadFromFile(failingManager.getStateFile());
+        Assertions.assertEquals(1, taskManagerFromFile.getTasks().size());
+    }
+
+    private static File[] listTempFiles(FileBackedTaskManager manager) {
+        File stateFile = manager.getStateFile().getAbsoluteFile();
+        return stateFile.getParentFile()
+                .listFiles((dir, name) -> name.startsWith(stateFile.getName() + ".") && name.endsWith(".tmp"));
+    }
+
+    /**
+     * В режиме сброса на диск раз в интервал данные, записанные внутри интервала, сбрасываются
+     * по окончании интервала без новых записей, а при закрытии менеджера - сразу
+     */
+    @Test
+    void saveWithPerIntervalDurability() throws InterruptedException {
+        taskManager.setDurability(Durability.PER_INTERVAL, Duration.ofMillis(200));
+        // первая запись может начать новый интервал, вторая попадает внутрь него
+        taskManager.addTask(TestTaskFactory.createSampleTask(0));
+        taskManager.addTask(TestTaskFactory.createSampleTask(0));
+        Assertions.assertEquals(1, taskManager.getUnsyncedFileCount());
+        for (int i = 0; i < 100 && taskManager.getUnsyncedFileCount() > 0; i++) {
+            Thread.sleep(20);
+        }
+        Assertions.assertEquals(0, taskManager.getUnsyncedFileCount());
+
+        taskManager.setDurability(Durability.PER_INTERVAL, Duration.ofHours(1));
+        taskManager.addTask(TestTaskFactory.createSampleTask(1));
+        Assertions.assertEquals(1, taskManager.getUnsyncedFileCount());
+        taskManager.close();
+        Assertions.assertEquals(0, taskManager.getUnsyncedFileCount());
+    }
+
+    /**
+     * Проверка загрузки с чтением описаний по требованию: описания читаются из файла только при обращении,
+     * повторное обращение обслуживается кэшем. Перед перезаписью файла описания читаются в задачи,
+     * а файл закрывается
+     */
+    @Test
+    void loadManagerLazyDescriptions() throws IOException {
+        taskManager.addTask(TestTaskFactory.createSampleTask(0));
+        taskManager.addTask(TestTaskFactory.createSampleTask(1));
+
+        FileBackedTaskManager taskManagerFromFile = FileBackedTaskManager.loadFromFile(taskManager.getStateFile(), 1);
+        Assertions.assertEquals(0, taskManagerFromFile.getDescriptionStores().get(0).getReads());
+
+        Assertions.assertEquals("Task description 0", taskManagerFromFile.getTask(0).getDescription());
+        Assertions.assertEquals("Task description 0", taskManagerFromFile.getTask(0).getDescription());
+        Assertions.assertEquals(1, taskManagerFromFile.getDescriptionStores().get(0).getReads());
+
+        taskManagerFromFile.removeTask(0);
+        Assertions.assertTrue(taskManagerFromFile.getDescriptionStores().isEmpty());
+        Assertions.assertNull(taskManagerFromFile.getTask(1).getDescriptionSource());
+        Assertions.assertEquals("Task description 1", taskManagerFromFile.getTask(1).getDescription());
+    }
+
+    /**
+     * Закрытие менеджера закрывает файлы описаний, читаемых по требованию, описания остаются доступны
+     */
+    @Test
+    void closeManagerLazyDescriptions() throws IOException {
+        taskManager.addTask(TestTaskFactory.createSampleTask(0));
+
+        FileBackedTaskManager taskManagerFromFile = FileBackedTaskManager.loadFromFile(taskManager.getStateFile(), 1);
+        Task task = taskManagerFromFile.getTask(0);
+        Assertions.assertNotNull(task.getDescriptionSource());
+
+        taskManagerFromFile.close();
+        Assertions.assertTrue(taskManagerFromFile.getDescriptionStores().isEmpty());
+        Assertions.assertEquals("Task description 0", task.getDescription());
+    }
+
+    /**
+     * Копия задачи и задача из истории просмотров, ссылающиеся на описание в файле, остаются рабочими
+     * после перезаписи файла: обновление задачи копией и последующие сохранения не читают закрытый файл
+     */
+    @Test
+    void updateWithCopyOfLazyDescriptionTask() throws IOException {
+        taskManager.addTask(TestTaskFactory.createSampleTask(0));
+        taskManager.addTask(TestTaskFactory.createSampleTask(1));
+
+        FileBackedTaskManager taskManagerFromFile = FileBackedTaskManager.loadFromFile(taskManager.getStateFile(), 1);
+        Task viewed = taskManagerFromFile.getTask(0);
+        Task copy = new Task(viewed);
+        taskManagerFromFile.addTask(TestTaskFactory.createSampleTask(2));
+        Assertions.assertTrue(taskManagerFromFile.getDescriptionStores().isEmpty());
+
+        taskManagerFromFile.updateTask(copy);
+        Assertions.assertEquals("Task description 0", taskManagerFromFile.getTask(0).getDescription());
+        Assertions.assertEquals("Task description 0", viewed.getDescription());
+        taskManagerFromFile.addTask(TestTaskFactory.createSampleTask(3));
+
+        FileBackedTaskManager reloaded = FileBackedTaskManager.loadFromFile(taskManager.getStateFile());
+        Assertions.assertEquals("Task description 0", reloaded.getTask(0).getDescription());
+        Assertions.assertEquals(4, reloaded.getTasks().size());
+    }
+
+    /**
+     * Менеджер, загруженный с общим пулом строк, хранит одинаковые названия один раз и возвращает исходный текст
+     */
+    @Test
+    void loadManagerWithStringPool() throws IOException {
+        taskManager.addTask(TestTaskFactory.createSampleTask(0));
+        taskManager.addTask(TestTaskFactory.createSampleTask(0));
+
+        StringPool stringPool = new StringPool(true);
+        FileBackedTaskManager taskManagerFromFile =
+                FileBackedTaskManager.loadFromFile(taskManager.getStateFile(), stringPool);
+        Assertions.assertEquals(taskManager.getTasks(), taskManagerFromFile.getTasks());
+        Assertions.assertEquals("Task description 0", taskManagerFromFile.getTask(1).getDescription());
+        Assertions.assertEquals(2, stringPool.size());
+        Assertions.assertTrue(taskManagerFromFile.estimateStringPoolSavings() > 0);
+    }
+
+    /**
+     * Пакетное добавление подзадач сохраняет состояние один раз
+     */
+    @Test
+    void bulkAddPersistsOnce() throws IOException {
+        int[] persists = new int[1];
+        FileBackedTaskManager countingManager = new FileBackedTaskManager() {
+            @Override
+            protected void persist(StateChange... changes) {
+                persists[0]++;
+                super.persist(changes);
+            }
+        };
+        int epicId = countingManager.addEpic(TestTaskFactory.createSampleEpic(0));
+        List<Subtask> subtasks = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            subtasks.add(TestTaskFactory.createSampleSubtask(i, epicId));
+        }
+        countingManager.addSubtasks(epicId, subtasks);
+
+        Assertions.assertEquals(2, persists[0]);
+        FileBackedTaskManager taskManagerFromFile = FileBackedTaskManager.loadFromFile(countingManager.getStateFile());
+        Assertions.assertEquals(100, taskManagerFromFile.getEpicSubtasks(epicId).size());
+    }
 }
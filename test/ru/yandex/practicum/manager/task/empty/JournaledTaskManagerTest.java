@@ -0,0 +1,178 @@
+package ru.yandex.practicum.manager.task.empty;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.manager.TestTaskFactory;
+import ru.yandex.practicum.manager.task.CompactionPolicy;
+import ru.yandex.practicum.manager.task.JournaledTaskManager;
+import ru.yandex.practicum.model.Epic;
+import ru.yandex.practicum.model.Subtask;
+import ru.yandex.practicum.model.TaskState;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+/**
+ * Тесты для {@link JournaledTaskManager} (без предварительного заполнения)
+ */
+public class JournaledTaskManagerTest extends TaskManagerTest<JournaledTaskManager> {
+    @Override
+    protected JournaledTaskManager createManager() {
+        return new JournaledTaskManager();
+    }
+
+    @BeforeEach
+    @Override
+    void beforeEach() {
+        super.beforeEach();
+
+        taskManager.getStateFile().delete();
+        taskManager.getJournalFile().delete();
+        new File(taskManager.getJournalFile().getPath() + JournaledTaskManager.compactedJournalFileExtension).delete();
+    }
+
+    /**
+     * Изменения восстанавливаются только из журнала, без сохранения полного состояния
+     */
+    @Test
+    void loadManagerFromJournalOnly() throws IOException {
+        taskManager.addTask(TestTaskFactory.createSampleTask(0));
+        Epic epic = TestTaskFactory.createSampleEpic(0);
+        taskManager.addEpic(epic);
+        taskManager.addSubtask(TestTaskFactory.createSampleSubtask(0, epic.getId()));
+
+        Assertions.assertFalse(taskManager.getStateFile().exists());
+        JournaledTaskManager taskManagerFromFile = JournaledTaskManager.loadFromFile(taskManager.getStateFile());
+
+        Assertions.assertEquals(1, taskManagerFromFile.getTasks().size());
+        Assertions.assertEquals(1, taskManagerFromFile.getEpics().size());
+        Assertions.assertEquals(1, taskManagerFromFile.getEpicSubtasks(epic.getId()).size());
+    }
+
+    /**
+     * Журнал проигрывается поверх полного состояния: обновление и удаление подзадач после сохранения
+     */
+    @Test
+    void loadManagerFromStateAndJournal() throws IOException {
+        Epic epic = TestTaskFactory.createSampleEpic(0);
+        taskManager.addEpic(epic);
+        taskManager.addSubtask(TestTaskFactory.createSampleSubtask(0, epic.getId()));
+        taskManager.addSubtask(TestTaskFactory.createSampleSubtask(1, epic.getId()));
+        taskManager.save();
+        Assertions.assertFalse(taskManager.getJournalFile().exists());
+
+        Subtask first = new Subtask(taskManager.getEpicSubtasks(epic.getId()).get(0));
+        Subtask second = taskManager.getEpicSubtasks(epic.getId()).get(1);
+        first.setState(TaskState.DONE);
+        taskManager.updateSubtask(first);
+        taskManager.removeSubtask(second.getId());
+
+        JournaledTaskManager taskManagerFromFile = JournaledTaskManager.loadFromFile(taskManager.getStateFile());
+
+        Assertions.assertEquals(1, taskManagerFromFile.getSubtasks().size());
+        Assertions.assertEquals(1, taskManagerFromFile.getEpics().get(0).getSubtasks().size());
+        Assertions.assertEquals(TaskState.DONE, taskManagerFromFile.getEpic(epic.getId()).getState());
+    }
+
+    /**
+     * Удаление эпика из журнала удаляет и его подзадачи
+     */
+    @Test
+    void removeEpicReplayRemovesSubtasks() throws IOException {
+        Epic epic = TestTaskFactory.createSampleEpic(0);
+        taskManager.addEpic(epic);
+        taskManager.addSubtask(TestTaskFactory.createSampleSubtask(0, epic.getId()));
+        taskManager.removeEpic(epic.getId());
+
+        JournaledTaskManager taskManagerFromFile = JournaledTaskManager.loadFromFile(taskManager.getStateFile());
+
+        Assertions.assertEquals(0, taskManagerFromFile.getEpics().size());
+        Assertions.assertEquals(0, taskManagerFromFile.getSubtasks().size());
+    }
+
+    /**
+     * Журнал, оставшийся после сбоя между записью состояния и удалением журнала, проигрывается поверх
+     * более нового состояния: подзадача удаленного эпика не восстанавливается
+     */
+    @Test
+    void replayJournalOverNewerState() throws IOException {
+        Epic epic = TestTaskFactory.createSampleEpic(0);
+        taskManager.addEpic(epic);
+        taskManager.save();
+        taskManager.addSubtask(TestTaskFactory.createSampleSubtask(0, epic.getId()));
+        taskManager.removeEpic(epic.getId());
+        taskManager.addTask(TestTaskFactory.createSampleTask(0));
+
+        byte[] journal = Files.readAllBytes(taskManager.getJournalFile().toPath());
+        taskManager.save();
+        Files.write(taskManager.getJournalFile().toPath(), journal);
+
+        JournaledTaskManager taskManagerFromFile = JournaledTaskManager.loadFromFile(taskManager.getStateFile());
+
+        Assertions.assertEquals(0, taskManagerFromFile.getEpics().size());
+        Assertions.assertEquals(0, taskManagerFromFile.getSubtasks().size());
+        Assertions.assertEquals(1, taskManagerFromFile.getTasks().size());
+    }
+
+    /**
+     * Отложенный журнал, оставшийся после сбоя между записью состояния при уплотнении и удалением отложенного
+     * журнала, проигрывается поверх записанного состояния без ошибок
+     */
+    @Test
+    void replayCompactedJournalOverNewerState() throws IOException {
+        Epic epic = TestTaskFactory.createSampleEpic(0);
+        taskManager.addEpic(epic);
+        taskManager.save();
+        taskManager.addSubtask(TestTaskFactory.createSampleSubtask(0, epic.getId()));
+        taskManager.removeEpic(epic.getId());
+
+        byte[] journal = Files.readAllBytes(taskManager.getJournalFile().toPath());
+        taskManager.compact();
+        taskManager.awaitCompaction();
+        File compactedJournal = new File(taskManager.getJournalFile().getPath()
+                + JournaledTaskManager.compactedJournalFileExtension);
+        Files.write(compactedJournal.toPath(), journal);
+
+        JournaledTaskManager taskManagerFromFile = JournaledTaskManager.loadFromFile(taskManager.getStateFile());
+
+        Assertions.assertEquals(0, taskManagerFromFile.getEpics().size());
+        Assertions.assertEquals(0, taskManagerFromFile.getSubtasks().size());
+    }
+
+    /**
+     * Пакетная операция, прерванная ошибкой, сохраняет изменения, выполненные до ошибки
+     */
+    @Test
+    void failedBatchPersistsAppliedChanges() throws IOException {
+        Assertions.assertThrows(NullPointerException.class,
+                () -> taskManager.addTasks(Arrays.asList(TestTaskFactory.createSampleTask(0), null)));
+        Assertions.assertEquals(1, taskManager.getTasks().size());
+
+        JournaledTaskManager taskManagerFromFile = JournaledTaskManager.loadFromFile(taskManager.getStateFile());
+
+        Assertions.assertEquals(taskManager.getTasks(), taskManagerFromFile.getTasks());
+    }
+
+    /**
+     * Уплотнение по количеству записей: состояние записывается в файл, журнал содержит только новые изменения,
+     * а загрузка восстанавливает все задачи
+     */
+    @Test
+    void compactionByRecordCount() throws IOException {
+        taskManager.close();
+        taskManager = JournaledTaskManager.loadFromFile(taskManager.getStateFile(), CompactionPolicy.byRecordCount(2));
+
+        taskManager.addTask(TestTaskFactory.createSampleTask(0));
+        taskManager.addTask(TestTaskFactory.createSampleTask(1));
+        taskManager.awaitCompaction();
+        taskManager.addTask(TestTaskFactory.createSampleTask(2));
+        taskManager.close();
+
+        Assertions.assertTrue(taskManager.getStateFile().exists());
+        JournaledTaskManager taskManagerFromFile = JournaledTaskManager.loadFromFile(taskManager.getStateFile());
+        Assertions.assertEquals(3, taskManagerFromFile.getTasks().size());
+    }
+}
@@ -0,0 +1,150 @@
+package ru.yandex.practicum.manager.task.empty;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.manager.TestTaskFactory;
+import ru.yandex.practicum.manager.task.SegmentedTaskManager;
+import ru.yandex.practicum.manager.task.format.SnapshotFormat;
+import ru.yandex.practicum.manager.task.format.TaskWriter;
+import ru.yandex.practicum.model.Epic;
+import ru.yandex.practicum.model.Subtask;
+import ru.yandex.practicum.model.Task;
+import ru.yandex.practicum.model.TaskState;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+/**
+ * Тесты для {@link SegmentedTaskManager} (без предварительного заполнения)
+ */
+public class SegmentedTaskManagerTest extends TaskManagerTest<SegmentedTaskManager> {
+    @Override
+    protected SegmentedTaskManager createManager() {
+        return new SegmentedTaskManager(2);
+    }
+
+    @BeforeEach
+    @Override
+    void beforeEach() {
+        super.beforeEach();
+
+        File[] files = taskManager.getStateFile().listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+    }
+
+    /**
+     * Состояние восстанавливается из всех сегментов каталога
+     */
+    @Test
+    void loadManagerFromSegments() throws IOException {
+        for (int i = 0; i < 5; i++) {
+            taskManager.addTask(TestTaskFactory.createSampleTask(i));
+        }
+        Epic epic = TestTaskFactory.createSampleEpic(0);
+        taskManager.addEpic(epic);
+        taskManager.addSubtask(TestTaskFactory.createSampleSubtask(0, epic.getId()));
+
+        SegmentedTaskManager taskManagerFromFile =
+                SegmentedTaskManager.loadFromDirectory(taskManager.getStateFile(), 2);
+
+        Assertions.assertEquals(5, taskManagerFromFile.getTasks().size());
+        Assertions.assertEquals(1, taskManagerFromFile.getEpicSubtasks(epic.getId()).size());
+        Assertions.assertEquals(taskManager.getNextId(), taskManagerFromFile.getNextId());
+    }
+
+    /**
+     * Изменение задачи среди многих сегментов сохраняет только её сегмент, состояние восстанавливается полностью
+     */
+    @Test
+    void updateTaskAmongManySegments() throws IOException {
+        for (int i = 0; i < 50; i++) {
+            taskManager.addTask(TestTaskFactory.createSampleTask(i));
+        }
+        File untouchedSegment = new File(taskManager.getStateFile(), "task-0.csv");
+        Assertions.assertTrue(untouchedSegment.delete());
+
+        Task task = new Task(taskManager.getTask(25));
+        task.setState(TaskState.DONE);
+        taskManager.updateTask(task);
+
+        Assertions.assertFalse(untouchedSegment.exists());
+        SegmentedTaskManager taskManagerFromFile =
+                SegmentedTaskManager.loadFromDirectory(taskManager.getStateFile(), 2);
+        Assertions.assertEquals(taskManager.getTasks().subList(2, 50), taskManagerFromFile.getTasks());
+        Assertions.assertEquals(TaskState.DONE, taskManagerFromFile.getTask(25).getState());
+    }
+
+    /**
+     * Изменение подзадачи перезаписывает только сегменты подзадачи и её эпика
+     */
+    @Test
+    void updateSubtaskRewritesOnlyDirtySegments() throws IOException {
+        taskManager.addTask(TestTaskFactory.createSampleTask(0));
+        Epic epic = TestTaskFactory.createSampleEpic(0);
+        taskManager.addEpic(epic);
+        taskManager.addSubtask(TestTaskFactory.createSampleSubtask(0, epic.getId()));
+        File taskSegment = new File(taskManager.getStateFile(), "task-0.csv");
+        Assertions.assertTrue(taskSegment.delete());
+
+        Subtask subtask = new Subtask(taskManager.getEpicSubtasks(epic.getId()).get(0));
+        subtask.setState(TaskState.DONE);
+        taskManager.updateSubtask(subtask);
+
+        Assertions.assertFalse(taskSegment.exists());
+        SegmentedTaskManager taskManagerFromFile =
+                SegmentedTaskManager.loadFromDirectory(taskManager.getStateFile(), 2);
+        Assertions.assertEquals(TaskState.DONE, taskManagerFromFile.getEpic(epic.getId()).getState());
+    }
+
+    /**
+     * Сегмент, перезаписываемый в другом формате, не оставляет файл прежнего формата: при загрузке
+     * прежние строки не перекрывают текущие
+     */
+    @Test
+    void rewriteSegmentInOtherFormatReplacesOldFile() throws IOException {
+        for (int i = 0; i < 4; i++) {
+            taskManager.addTask(TestTaskFactory.createSampleTask(i));
+        }
+        // сегмент задач 0-1 в двоичном формате, сегмент задач 2-3 - в текстовом
+        File directory = taskManager.getStateFile();
+        try (TaskWriter writer = SnapshotFormat.BINARY.createWriter(
+                new FileOutputStream(new File(directory, "task-0.bin")))) {
+            writer.write(taskManager.getTask(0));
+            writer.write(taskManager.getTask(1));
+        }
+        Assertions.assertTrue(new File(directory, "task-0.csv").delete());
+
+        // менеджер пишет сегменты в одном формате, поэтому один из сегментов перезаписывается в другом формате
+        SegmentedTaskManager taskManagerFromFile = SegmentedTaskManager.loadFromDirectory(directory, 2);
+        for (int id : new int[]{0, 2}) {
+            Task task = new Task(taskManagerFromFile.getTask(id));
+            task.setState(TaskState.DONE);
+            taskManagerFromFile.updateTask(task);
+        }
+
+        Assertions.assertEquals(1, directory.listFiles((dir, name) -> name.startsWith("task-0.")).length);
+        Assertions.assertEquals(1, directory.listFiles((dir, name) -> name.startsWith("task-1.")).length);
+        SegmentedTaskManager reloaded = SegmentedTaskManager.loadFromDirectory(directory, 2);
+        Assertions.assertEquals(TaskState.DONE, reloaded.getTask(0).getState());
+        Assertions.assertEquals(TaskState.DONE, reloaded.getTask(2).getState());
+    }
+
+    /**
+     * Сегмент, оставшийся без задач, удаляется
+     */
+    @Test
+    void emptySegmentIsDeleted() {
+        Epic epic = TestTaskFactory.createSampleEpic(0);
+        taskManager.addEpic(epic);
+        taskManager.addSubtask(TestTaskFactory.createSampleSubtask(0, epic.getId()));
+        taskManager.removeEpic(epic.getId());
+
+        Assertions.assertEquals(0, taskManager.getStateFile().listFiles().length);
+    }
+}
@@ -0,0 +1,73 @@
+package ru.yandex.practicum.manager.task.empty;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.manager.TestTaskFactory;
+import ru.yandex.practicum.manager.task.ShardedTaskManager;
+import ru.yandex.practicum.model.Epic;
+import ru.yandex.practicum.model.Subtask;
+import ru.yandex.practicum.model.TaskState;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+/**
+ * Тесты для {@link ShardedTaskManager} (без предварительного заполнения)
+ */
+public class ShardedTaskManagerTest extends TaskManagerTest<ShardedTaskManager> {
+    @Override
+    protected ShardedTaskManager createManager() {
+        return new ShardedTaskManager(3);
+    }
+
+    /**
+     * Задачи распределяются по разделам, подзадачи хранятся в разделе своего эпика
+     */
+    @Test
+    void subtasksAreColocatedWithEpic() {
+        for (int i = 0; i < 6; i++) {
+            taskManager.addTask(TestTaskFactory.createSampleTask(i));
+        }
+        Epic epic = TestTaskFactory.createSampleEpic(0);
+        taskManager.addEpic(epic);
+        for (int i = 0; i < 4; i++) {
+            taskManager.addSubtask(TestTaskFactory.createSampleSubtask(i, epic.getId()));
+        }
+
+        for (int i = 0; i < taskManager.getShardCount(); i++) {
+            Assertions.assertEquals(2, taskManager.getShard(i).getTasks().size());
+        }
+        int epicShard = epic.getId() % taskManager.getShardCount();
+        Assertions.assertEquals(4, taskManager.getShard(epicShard).getSubtasks().size());
+        for (Subtask subtask : taskManager.getEpicSubtasks(epic.getId())) {
+            Assertions.assertEquals(epicShard, subtask.getId() % taskManager.getShardCount());
+        }
+        Assertions.assertEquals(6, taskManager.getTasks().size());
+        Assertions.assertEquals(4, taskManager.getSubtasks().size());
+    }
+
+    /**
+     * Каждый раздел сохраняется в свой файл, состояние и идентификаторы восстанавливаются из всех файлов
+     */
+    @Test
+    void loadManagerFromShardFiles() throws IOException {
+        File directory = Files.createTempDirectory("shards").toFile();
+        ShardedTaskManager fileManager = ShardedTaskManager.loadFromDirectory(directory, 2);
+        fileManager.addTask(TestTaskFactory.createSampleTask(0));
+        Epic epic = TestTaskFactory.createSampleEpic(0);
+        fileManager.addEpic(epic);
+        Subtask subtask = TestTaskFactory.createSampleSubtask(0, epic.getId());
+        subtask.setState(TaskState.DONE);
+        fileManager.addSubtask(subtask);
+
+        ShardedTaskManager loaded = ShardedTaskManager.loadFromDirectory(directory, 2);
+
+        Assertions.assertEquals(fileManager.getTasks(), loaded.getTasks());
+        Assertions.assertEquals(TaskState.DONE, loaded.getEpic(epic.getId()).getState());
+        Assertions.assertEquals(1, loaded.getEpicSubtasks(epic.getId()).size());
+        int newId = loaded.addTask(TestTaskFactory.createSampleTask(1));
+        Assertions.assertEquals(4, loaded.getTasks().size() + loaded.getEpics().size() + loaded.getSubtasks().size());
+        Assertions.assertNotNull(loaded.getTask(newId));
+    }
+}
@@ -0,0 +1,80 @@
+package ru.yandex.practicum.manager.task.empty;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.manager.TestTaskFactory;
+import ru.yandex.practicum.manager.task.SnapshotTaskManager;
+import ru.yandex.practicum.model.Epic;
+import ru.yandex.practicum.model.Subtask;
+import ru.yandex.practicum.model.TaskState;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Тесты для {@link SnapshotTaskManager} (без предварительного заполнения)
+ */
+public class SnapshotTaskManagerTest extends TaskManagerTest<SnapshotTaskManager> {
+    @Override
+    protected SnapshotTaskManager createManager() {
+        return new SnapshotTaskManager();
+    }
+
+    /**
+     * Снимок не меняется при последующих изменениях менеджера, в том числе статус и подзадачи эпика
+     */
+    @Test
+    void snapshotIsIsolatedFromChanges() {
+        taskManager.addTask(TestTaskFactory.createSampleTask(0));
+        Epic epic = TestTaskFactory.createSampleEpic(0);
+        taskManager.addEpic(epic);
+        taskManager.addSubtask(TestTaskFactory.createSampleSubtask(0, epic.getId()));
+        SnapshotTaskManager.Snapshot snapshot = taskManager.snapshot();
+
+        Subtask subtask = new Subtask(taskManager.getEpicSubtasks(epic.getId()).get(0));
+        subtask.setState(TaskState.DONE);
+        taskManager.updateSubtask(subtask);
+        taskManager.addSubtask(TestTaskFactory.createSampleSubtask(1, epic.getId()));
+        taskManager.clearTasks();
+
+        Assertions.assertEquals(1, snapshot.getTasks().size());
+        Assertions.assertEquals(1, snapshot.getEpicSubtasks(epic.getId()).size());
+        Assertions.assertEquals(TaskState.NEW, snapshot.epics().get(epic.getId()).getState());
+        Assertions.assertEquals(TaskState.NEW, snapshot.getEpicSubtasks(epic.getId()).get(0).getState());
+        Assertions.assertEquals(TaskState.IN_PROGRESS, taskManager.getEpic(epic.getId()).getState());
+        Assertions.assertTrue(taskManager.snapshot().version() > snapshot.version());
+    }
+
+    /**
+     * Пакетные операции копируют эпик один раз за пакет, но не изменяют эпики ранее опубликованных снимков
+     */
+    @Test
+    void batchDoesNotChangePublishedEpics() {
+        Epic epic = TestTaskFactory.createSampleEpic(0);
+        taskManager.addEpic(epic);
+        SnapshotTaskManager.Snapshot empty = taskManager.snapshot();
+
+        List<Subtask> subtasks = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            subtasks.add(TestTaskFactory.createSampleSubtask(i, epic.getId()));
+        }
+        taskManager.addSubtasks(epic.getId(), subtasks);
+        SnapshotTaskManager.Snapshot added = taskManager.snapshot();
+
+        List<Subtask> done = new ArrayList<>();
+        for (Subtask subtask : taskManager.getEpicSubtasks(epic.getId())) {
+            Subtask copy = new Subtask(subtask);
+            copy.setState(TaskState.DONE);
+            done.add(copy);
+        }
+        Assertions.assertEquals(3, taskManager.updateSubtasks(done));
+
+        Assertions.assertTrue(empty.epics().get(epic.getId()).getSubtasks().isEmpty());
+        Epic addedEpic = added.epics().get(epic.getId());
+        Assertions.assertEquals(3, addedEpic.getSubtasks().size());
+        Assertions.assertEquals(TaskState.NEW, addedEpic.getState());
+        Assertions.assertEquals(3, addedEpic.getSubtaskCount(TaskState.NEW));
+        Assertions.assertEquals(TaskState.DONE, taskManager.getEpic(epic.getId()).getState());
+        Assertions.assertNotSame(addedEpic, taskManager.snapshot().epics().get(epic.getId()));
+    }
+}
@@ -6,7 +6,14 @@ import org.junit.jupiter.api.Test;
 import ru.yandex.practicum.manager.TestTaskFactory;
 import ru.yandex.practicum.manager.Managers;
 import ru.yandex.practicum.manager.task.TaskManager;
+import ru.yandex.practicum.manager.task.UpdateResult;
+import ru.yandex.practicum.model.Epic;
+import ru.yandex.practicum.model.Subtask;
 import ru.yandex.practicum.model.Task;
+import ru.yandex.practicum.model.TaskState;
+
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Тесты для менеджера задач (без предварительного заполнения).
@@ -53,4 +60,104 @@ abstract class TaskManagerTest<T extends TaskManager> {
 
         Assertions.assertNotEquals(Task.DEFAULT_ID, taskManager.getTasks().get(0).getId());
     }
-}
\ No newline at end of file
+
+    /**
+     * Пакетное добавление и обновление подзадач -> статус эпика соответствует итоговым статусам подзадач,
+     * пакетное удаление удаляет задачи всех типов
+     */
+    @Test
+    void bulkOperations() {
+        List<Integer> taskIds = taskManager.addTasks(
+                List.of(TestTaskFactory.createSampleTask(0), TestTaskFactory.createSampleTask(1)));
+        int epicId = taskManager.addEpic(TestTaskFactory.createSampleEpic(0));
+        List<Subtask> subtasks = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            subtasks.add(TestTaskFactory.createSampleSubtask(i, epicId));
+        }
+        List<Integer> subtaskIds = taskManager.addSubtasks(epicId, subtasks);
+        Assertions.assertEquals(10, taskManager.getEpicSubtasks(epicId).size());
+
+        List<Subtask> done = new ArrayList<>();
+        for (Subtask subtask : taskManager.getEpicSubtasks(epicId)) {
+            Subtask copy = new Subtask(subtask);
+            copy.setState(TaskState.DONE);
+            done.add(copy);
+        }
+        Assertions.assertEquals(10, taskManager.updateSubtasks(done));
+        Assertions.assertEquals(TaskState.DONE, taskManager.getEpic(epicId).getState());
+
+        List<Integer> removedIds = new ArrayList<>(taskIds);
+        removedIds.add(subtaskIds.get(0));
+        Assertions.assertEquals(3, taskManager.removeByIds(removedIds));
+        Assertions.assertEquals(0, taskManager.getTasks().size());
+        Assertions.assertEquals(9, taskManager.getEpicSubtasks(epicId).size());
+    }
+
+    /**
+     * Обновление с проверкой версии -> устаревшая копия отклоняется с текущей версией, актуальная - применяется
+     */
+    @Test
+    void compareAndUpdate() {
+        int taskId = taskManager.addTask(TestTaskFactory.createSampleTask(0));
+        int epicId = taskManager.addEpic(TestTaskFactory.createSampleEpic(0));
+        int subtaskId = taskManager.addSubtask(TestTaskFactory.createSampleSubtask(0, epicId));
+
+        Task first = new Task(taskManager.getTask(taskId));
+        Task second = new Task(taskManager.getTask(taskId));
+        first.setState(TaskState.IN_PROGRESS);
+        UpdateResult result = taskManager.compareAndUpdateTask(first);
+        Assertions.assertTrue(result.updated());
+        second.setState(TaskState.DONE);
+        UpdateResult conflict = taskManager.compareAndUpdateTask(second);
+        Assertions.assertTrue(conflict.isConflict());
+        Assertions.assertEquals(result.version(), conflict.version());
+        Assertions.assertEquals(TaskState.IN_PROGRESS, taskManager.getTask(taskId).getState());
+        second.setVersion(conflict.version());
+        Assertions.assertTrue(taskManager.compareAndUpdateTask(second).updated());
+        Assertions.assertEquals(TaskState.DONE, taskManager.getTask(taskId).getState());
+
+        Epic staleEpic = new Epic(taskManager.getEpic(epicId));
+        Assertions.assertTrue(taskManager.updateEpic(new Epic(taskManager.getEpic(epicId))));
+        Assertions.assertTrue(taskManager.compareAndUpdateEpic(staleEpic).isConflict());
+
+        Subtask subtask = new Subtask(taskManager.getSubtask(subtaskId));
+        subtask.setState(TaskState.DONE);
+        Assertions.assertTrue(taskManager.compareAndUpdateSubtask(subtask).updated());
+        Assertions.assertEquals(TaskState.DONE, taskManager.getEpic(epicId).getState());
+
+        // два клиента получили задачу и изменяют полученные объекты: обновление второго - конфликт,
+        // даже если менеджер вернул обоим хранимый объект
+        Task live = taskManager.getTask(taskId);
+        Task concurrent = taskManager.getTask(taskId);
+        live.setState(TaskState.NEW);
+        UpdateResult liveResult = taskManager.compareAndUpdateTask(live);
+        concurrent.setState(TaskState.IN_PROGRESS);
+        UpdateResult concurrentResult = taskManager.compareAndUpdateTask(concurrent);
+        Assertions.assertFalse(liveResult.updated() && concurrentResult.updated());
+
+        Task missing = TestTaskFactory.createSampleTask(0);
+        missing.setId(-100);
+        Assertions.assertEquals(UpdateResult.NOT_FOUND, taskManager.compareAndUpdateTask(missing));
+    }
+
+    /**
+     * Изменение статуса хранимой подзадачи "на месте" не нарушает статус эпика при удалении подзадачи,
+     * а обновление этой подзадачи учитывает новый статус
+     */
+    @Test
+    void epicStateAfterInPlaceSubtaskChange() {
+        int epicId = taskManager.addEpic(TestTaskFactory.createSampleEpic(0));
+        int subtaskId = taskManager.addSubtask(TestTaskFactory.createSampleSubtask(0, epicId));
+        taskManager.getSubtask(subtaskId).setState(TaskState.DONE);
+        Assertions.assertTrue(taskManager.removeSubtask(subtaskId));
+        Assertions.assertEquals(TaskState.NEW, taskManager.getEpic(epicId).getState());
+
+        int otherId = taskManager.addSubtask(TestTaskFactory.createSampleSubtask(0, epicId));
+        Subtask other = taskManager.getSubtask(otherId);
+        other.setState(TaskState.DONE);
+        Assertions.assertTrue(taskManager.updateSubtask(other));
+        Assertions.assertEquals(TaskState.DONE, taskManager.getEpic(epicId).getState());
+        Assertions.assertTrue(taskManager.removeSubtask(otherId));
+        Assertions.assertEquals(TaskState.NEW, taskManager.getEpic(epicId).getState());
+    }
+}
@@ -0,0 +1,65 @@
+package ru.yandex.practicum.manager.task.empty;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.manager.TestTaskFactory;
+import ru.yandex.practicum.manager.task.FileBackedTaskManager;
+import ru.yandex.practicum.manager.task.WriteBehindTaskManager;
+import ru.yandex.practicum.model.Epic;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Тесты для {@link WriteBehindTaskManager} (без предварительного заполнения)
+ */
+public class WriteBehindTaskManagerTest extends TaskManagerTest<WriteBehindTaskManager> {
+    @Override
+    protected WriteBehindTaskManager createManager() {
+        // интервал и лимит изменений заведомо не достигаются в тестах - запись только по flush()
+        return new WriteBehindTaskManager(Duration.ofHours(1), Integer.MAX_VALUE);
+    }
+
+    @BeforeEach
+    @Override
+    void beforeEach() {
+        super.beforeEach();
+
+        taskManager.getStateFile().delete();
+    }
+
+    @AfterEach
+    void afterEach() {
+        taskManager.close();
+    }
+
+    /**
+     * Изменения не записываются в файл до окончания интервала
+     */
+    @Test
+    void changesAreNotWrittenImmediately() {
+        taskManager.addTask(TestTaskFactory.createSampleTask(0));
+
+        Assertions.assertFalse(taskManager.whenDurable().isDone());
+        Assertions.assertFalse(taskManager.getStateFile().exists());
+    }
+
+    /**
+     * Множество изменений записывается одной записью по flush()
+     */
+    @Test
+    void flushWritesAllChanges() throws IOException {
+        Epic epic = TestTaskFactory.createSampleEpic(0);
+        taskManager.addEpic(epic);
+        for (int i = 0; i < 100; i++) {
+            taskManager.addSubtask(TestTaskFactory.createSampleSubtask(i, epic.getId()));
+        }
+        taskManager.flush().join();
+
+        Assertions.assertTrue(taskManager.whenDurable().isDone());
+        FileBackedTaskManager taskManagerFromFile = FileBackedTaskManager.loadFromFile(taskManager.getStateFile());
+        Assertions.assertEquals(100, taskManagerFromFile.getSubtasks().size());
+    }
+}
@@ -0,0 +1,61 @@
+package ru.yandex.practicum.manager.task.format;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.manager.TestTaskFactory;
+import ru.yandex.practicum.model.Task;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+/**
+ * Тесты для {@link BinaryTaskReader}
+ */
+public class BinaryTaskReaderTest {
+    /**
+     * Смещение первой записи: сигнатура и байт версии
+     */
+    private static final int HEADER = BinaryTaskWriter.MAGIC.length + 1;
+
+    /**
+     * Записанная задача читается без изменений
+     */
+    @Test
+    void readWrittenTask() throws IOException {
+        Task task = TestTaskFactory.createSampleTask(0);
+        try (BinaryTaskReader reader = new BinaryTaskReader(new ByteArrayInputStream(write(task)))) {
+            Assertions.assertEquals(task, reader.read());
+            Assertions.assertNull(reader.read());
+        }
+    }
+
+    /**
+     * Тип или статус задачи вне диапазона значений - ошибка чтения, а не выход за границы массива
+     */
+    @Test
+    void rejectUnknownTypeAndState() throws IOException {
+        byte[] unknownType = write(TestTaskFactory.createSampleTask(0));
+        unknownType[HEADER] = 99;
+        assertCorrupted(unknownType);
+
+        byte[] unknownState = write(TestTaskFactory.createSampleTask(0));
+        // тип (1 байт) и идентификатор 0 (varint в 1 байт)
+        unknownState[HEADER + 2] = (byte) 0xFF;
+        assertCorrupted(unknownState);
+    }
+
+    private static void assertCorrupted(byte[] content) throws IOException {
+        try (BinaryTaskReader reader = new BinaryTaskReader(new ByteArrayInputStream(content))) {
+            Assertions.assertThrows(IOException.class, reader::read);
+        }
+    }
+
+    private static byte[] write(Task task) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (BinaryTaskWriter writer = new BinaryTaskWriter(output)) {
+            writer.write(task);
+        }
+        return output.toByteArray();
+    }
+}
@@ -0,0 +1,186 @@
+package ru.yandex.practicum.manager.task.format;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.manager.TestTaskFactory;
+import ru.yandex.practicum.manager.task.ColumnarTaskManager;
+import ru.yandex.practicum.manager.task.ConcurrentTaskManager;
+import ru.yandex.practicum.manager.task.DenseInMemoryTaskManager;
+import ru.yandex.practicum.manager.task.InMemoryTaskManager;
+import ru.yandex.practicum.manager.task.ShardedTaskManager;
+import ru.yandex.practicum.manager.task.SnapshotTaskManager;
+import ru.yandex.practicum.manager.task.TaskManager;
+import ru.yandex.practicum.model.Epic;
+import ru.yandex.practicum.model.Subtask;
+import ru.yandex.practicum.model.Task;
+import ru.yandex.practicum.model.TaskState;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Тесты для {@link TaskExporter} и обхода задач менеджеров ({@link TaskManager#forEachTask} и т.п.)
+ */
+public class TaskExporterTest {
+    /**
+     * Менеджеры с собственной реализацией обхода задач
+     */
+    private static final List<Supplier<TaskManager>> managers = List.of(
+            InMemoryTaskManager::new,
+            DenseInMemoryTaskManager::new,
+            ConcurrentTaskManager::new,
+            SnapshotTaskManager::new,
+            ColumnarTaskManager::new,
+            () -> new ShardedTaskManager(4)
+    );
+
+    /**
+     * Обход задач возвращает те же задачи, что и получение списков задач
+     */
+    @Test
+    void forEachVisitsAllTasks() {
+        for (Supplier<TaskManager> supplier : managers) {
+            TaskManager manager = fill(supplier.get());
+            String name = manager.getClass().getSimpleName();
+
+            List<Task> tasks = new ArrayList<>();
+            manager.forEachTask(tasks::add);
+            List<Epic> epics = new ArrayList<>();
+            manager.forEachEpic(epics::add);
+            List<Subtask> subtasks = new ArrayList<>();
+            manager.forEachSubtask(subtasks::add);
+
+            assertSameTasks(manager.getTasks(), tasks, name);
+            assertSameTasks(manager.getEpics(), epics, name);
+            assertSameTasks(manager.getSubtasks(), subtasks, name);
+        }
+    }
+
+    /**
+     * Выгруженные в поток задачи читаются обратно без изменений в каждом формате: сначала задачи,
+     * затем эпики, затем подзадачи
+     */
+    @Test
+    void exportToStreamRoundTrip() throws IOException {
+        for (SnapshotFormat format : SnapshotFormat.values()) {
+            for (Supplier<TaskManager> supplier : managers) {
+                TaskManager manager = fill(supplier.get());
+                ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+                long count = TaskExporter.export(manager, format, output);
+
+                Assertions.assertEquals(7, count);
+                assertExported(manager, format, output.toByteArray());
+            }
+        }
+    }
+
+    /**
+     * Выгрузка в канал записывает то же содержимое, что и выгрузка в поток, и закрывает канал
+     */
+    @Test
+    void exportToChannelRoundTrip() throws IOException {
+        for (SnapshotFormat format : SnapshotFormat.values()) {
+            TaskManager manager = fill(new InMemoryTaskManager());
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            WritableByteChannel channel = Channels.newChannel(output);
+
+            Assertions.assertEquals(7, TaskExporter.export(manager, format, channel));
+
+            Assertions.assertFalse(channel.isOpen());
+            assertExported(manager, format, output.toByteArray());
+            ByteArrayOutputStream streamOutput = new ByteArrayOutputStream();
+            TaskExporter.export(manager, format, streamOutput);
+            Assertions.assertArrayEquals(streamOutput.toByteArray(), output.toByteArray());
+        }
+    }
+
+    /**
+     * Выгрузка пустого менеджера содержит только заголовок формата
+     */
+    @Test
+    void exportEmptyManager() throws IOException {
+        for (SnapshotFormat format : SnapshotFormat.values()) {
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            Assertions.assertEquals(0, TaskExporter.export(new InMemoryTaskManager(), format, output));
+            try (TaskReader reader = format.createReader(new ByteArrayInputStream(output.toByteArray()))) {
+                Assertions.assertNull(reader.read());
+            }
+        }
+    }
+
+    /**
+     * Заполнить менеджер: 2 задачи, 2 эпика (один без подзадач) и 3 подзадачи в разных статусах.
+     * Формат CSV не экранирует разделители, поэтому названия и описания не содержат запятых и переводов строк
+     */
+    private static TaskManager fill(TaskManager manager) {
+        manager.addTask(TestTaskFactory.createSampleTask(0));
+        Task done = TestTaskFactory.createSampleTask(0);
+        done.setState(TaskState.DONE);
+        manager.addTask(done);
+        int epicId = manager.addEpic(TestTaskFactory.createSampleEpic(0));
+        manager.addEpic(new Epic("Эпик без подзадач", "Описание эпика"));
+        manager.addSubtask(TestTaskFactory.createSampleSubtask(0, epicId));
+        Subtask inProgress = TestTaskFactory.createSampleSubtask(0, epicId);
+        inProgress.setState(TaskState.IN_PROGRESS);
+        manager.addSubtask(inProgress);
+        manager.addSubtask(new Subtask("Подзадача", "Описание в UTF-8: ё ∑", epicId));
+        return manager;
+    }
+
+    /**
+     * Прочитать выгруженные задачи и сравнить их с задачами менеджера
+     */
+    private static void assertExported(TaskManager manager, SnapshotFormat format, byte[] content)
+            throws IOException {
+        String name = manager.getClass().getSimpleName() + " " + format;
+        List<Task> tasks = new ArrayList<>();
+        List<Task> epics = new ArrayList<>();
+        List<Task> subtasks = new ArrayList<>();
+        try (TaskReader reader = format.createReader(new ByteArrayInputStream(content))) {
+            Task task;
+            while ((task = reader.read()) != null) {
+                if (task instanceof Subtask) {
+                    subtasks.add(task);
+                } else if (task instanceof Epic) {
+                    Assertions.assertTrue(subtasks.isEmpty(), name + ": эпик после подзадач");
+                    epics.add(task);
+                } else {
+                    Assertions.assertTrue(epics.isEmpty() && subtasks.isEmpty(), name + ": задача после эпиков");
+                    tasks.add(task);
+                }
+            }
+        }
+        assertSameTasks(manager.getTasks(), tasks, name);
+        assertSameTasks(manager.getEpics(), epics, name);
+        assertSameTasks(manager.getSubtasks(), subtasks, name);
+    }
+
+    /**
+     * Сравнить задачи по всем полям без учета порядка
+     */
+    private static void assertSameTasks(List<? extends Task> expected, List<? extends Task> actual, String name) {
+        Assertions.assertEquals(expected.size(), actual.size(), name);
+        List<? extends Task> expectedSorted = expected.stream().sorted(Comparator.comparingInt(Task::getId)).toList();
+        List<? extends Task> actualSorted = actual.stream().sorted(Comparator.comparingInt(Task::getId)).toList();
+        for (int i = 0; i < expectedSorted.size(); i++) {
+            Task expectedTask = expectedSorted.get(i);
+            Task actualTask = actualSorted.get(i);
+            Assertions.assertEquals(expectedTask.getClass(), actualTask.getClass(), name);
+            Assertions.assertEquals(expectedTask.getId(), actualTask.getId(), name);
+            Assertions.assertEquals(expectedTask.getState(), actualTask.getState(), name);
+            Assertions.assertEquals(expectedTask.getName(), actualTask.getName(), name);
+            Assertions.assertEquals(expectedTask.getDescription(), actualTask.getDescription(), name);
+            if (expectedTask instanceof Subtask expectedSubtask) {
+                Assertions.assertEquals(expectedSubtask.getEpicId(), ((Subtask) actualTask).getEpicId(), name);
+            }
+        }
+    }
+}
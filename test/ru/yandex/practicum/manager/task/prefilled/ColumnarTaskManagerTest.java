@@ -0,0 +1,13 @@
+package ru.yandex.practicum.manager.task.prefilled;
+
+import ru.yandex.practicum.manager.task.ColumnarTaskManager;
+
+/**
+ * Тесты для предзаполненного {@link ColumnarTaskManager}
+ */
+public class ColumnarTaskManagerTest extends TaskManagerTest<ColumnarTaskManager> {
+    @Override
+    protected ColumnarTaskManager createManager() {
+        return new ColumnarTaskManager();
+    }
+}
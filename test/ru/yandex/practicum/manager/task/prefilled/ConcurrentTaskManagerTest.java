@@ -0,0 +1,13 @@
+package ru.yandex.practicum.manager.task.prefilled;
+
+import ru.yandex.practicum.manager.task.ConcurrentTaskManager;
+
+/**
+ * Тесты для предзаполненного {@link ConcurrentTaskManager}
+ */
+public class ConcurrentTaskManagerTest extends TaskManagerTest<ConcurrentTaskManager> {
+    @Override
+    protected ConcurrentTaskManager createManager() {
+        return new ConcurrentTaskManager();
+    }
+}
@@ -0,0 +1,13 @@
+package ru.yandex.practicum.manager.task.prefilled;
+
+import ru.yandex.practicum.manager.task.DenseInMemoryTaskManager;
+
+/**
+ * Тесты для предзаполненного {@link DenseInMemoryTaskManager}
+ */
+public class DenseInMemoryTaskManagerTest extends TaskManagerTest<DenseInMemoryTaskManager> {
+    @Override
+    protected DenseInMemoryTaskManager createManager() {
+        return new DenseInMemoryTaskManager();
+    }
+}
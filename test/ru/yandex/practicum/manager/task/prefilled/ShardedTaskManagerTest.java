@@ -0,0 +1,13 @@
+package ru.yandex.practicum.manager.task.prefilled;
+
+import ru.yandex.practicum.manager.task.ShardedTaskManager;
+
+/**
+ * Тесты для предзаполненного {@link ShardedTaskManager}
+ */
+public class ShardedTaskManagerTest extends TaskManagerTest<ShardedTaskManager> {
+    @Override
+    protected ShardedTaskManager createManager() {
+        return new ShardedTaskManager(3);
+    }
+}
@@ -0,0 +1,13 @@
+package ru.yandex.practicum.manager.task.prefilled;
+
+import ru.yandex.practicum.manager.task.SnapshotTaskManager;
+
+/**
+ * Тесты для предзаполненного {@link SnapshotTaskManager}
+ */
+public class SnapshotTaskManagerTest extends TaskManagerTest<SnapshotTaskManager> {
+    @Override
+    protected SnapshotTaskManager createManager() {
+        return new SnapshotTaskManager();
+    }
+}
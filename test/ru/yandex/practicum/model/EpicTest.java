@@ -0,0 +1,63 @@
+package ru.yandex.practicum.model;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Тесты для {@link Epic}
+ */
+public class EpicTest {
+    /**
+     * Статус эпика вычисляется по количеству подзадач в каждом статусе
+     */
+    @Test
+    void stateFromSubtaskCounts() {
+        Epic epic = new Epic("Epic", "Description");
+        Assertions.assertEquals(TaskState.NEW, epic.calculateState());
+
+        epic.addSubtask(1, TaskState.NEW);
+        epic.addSubtask(2, TaskState.NEW);
+        epic.addSubtask(2, TaskState.NEW);
+        Assertions.assertEquals(2, epic.getSubtaskCount(TaskState.NEW));
+        Assertions.assertEquals(TaskState.NEW, epic.calculateState());
+
+        epic.changeSubtaskState(1, TaskState.DONE);
+        Assertions.assertEquals(TaskState.IN_PROGRESS, epic.calculateState());
+        Assertions.assertEquals(TaskState.DONE, epic.getSubtaskState(1));
+        epic.changeSubtaskState(2, TaskState.DONE);
+        Assertions.assertEquals(TaskState.DONE, epic.calculateState());
+
+        Assertions.assertTrue(epic.removeSubtask(1));
+        Assertions.assertFalse(epic.removeSubtask(1));
+        Assertions.assertEquals(1, epic.getSubtaskCount(TaskState.DONE));
+
+        Epic copy = new Epic(epic);
+        epic.clearSubtasks();
+        Assertions.assertEquals(TaskState.NEW, epic.calculateState());
+        Assertions.assertEquals(TaskState.DONE, copy.calculateState());
+
+        copy.recountSubtaskStates(id -> TaskState.IN_PROGRESS);
+        Assertions.assertEquals(0, copy.getSubtaskCount(TaskState.DONE));
+        Assertions.assertEquals(TaskState.IN_PROGRESS, copy.calculateState());
+    }
+
+    /**
+     * Количество уменьшается по учтенному статусу подзадачи, а не по переданному
+     */
+    @Test
+    void countsUseRecordedState() {
+        Epic epic = new Epic("Epic", "Description");
+        epic.addSubtask(3, TaskState.DONE);
+        epic.addSubtask(1, TaskState.NEW);
+        epic.addSubtask(2, TaskState.IN_PROGRESS);
+        Assertions.assertEquals(TaskState.NEW, epic.getSubtaskState(1));
+        Assertions.assertEquals(TaskState.IN_PROGRESS, epic.getSubtaskState(2));
+        Assertions.assertEquals(TaskState.DONE, epic.getSubtaskState(3));
+
+        Assertions.assertTrue(epic.removeSubtask(2));
+        Assertions.assertEquals(0, epic.getSubtaskCount(TaskState.IN_PROGRESS));
+        Assertions.assertTrue(epic.removeSubtask(1));
+        Assertions.assertEquals(TaskState.DONE, epic.calculateState());
+        Assertions.assertNull(epic.getSubtaskState(1));
+    }
+}
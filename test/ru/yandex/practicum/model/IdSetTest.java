@@ -0,0 +1,49 @@
+package ru.yandex.practicum.model;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Тесты для {@link IdSet}
+ */
+public class IdSetTest {
+    /**
+     * Идентификаторы хранятся без повторов в порядке возрастания независимо от порядка добавления
+     */
+    @Test
+    void addRemoveContains() {
+        IdSet set = new IdSet();
+        for (int id : new int[]{5, 1, 9, 3, 5, 7}) {
+            set.add(id);
+        }
+        Assertions.assertArrayEquals(new int[]{1, 3, 5, 7, 9}, set.toArray());
+        Assertions.assertTrue(set.contains(7));
+        Assertions.assertFalse(set.contains(4));
+
+        Assertions.assertTrue(set.remove(1));
+        Assertions.assertFalse(set.remove(1));
+        Assertions.assertTrue(set.remove(9));
+        Assertions.assertArrayEquals(new int[]{3, 5, 7}, set.toArray());
+        Assertions.assertEquals(15, set.stream().sum());
+    }
+
+    /**
+     * Копия и замена содержимого не зависят от исходного множества
+     */
+    @Test
+    void copyIsIndependent() {
+        IdSet source = new IdSet();
+        for (int id = 0; id < 1000; id++) {
+            source.add(id);
+        }
+        IdSet copy = new IdSet(source);
+        IdSet replaced = new IdSet();
+        replaced.add(-1);
+        replaced.copyFrom(source);
+        source.clear();
+
+        Assertions.assertEquals(1000, copy.size());
+        Assertions.assertEquals(copy, replaced);
+        Assertions.assertTrue(source.isEmpty());
+    }
+}
@@ -0,0 +1,82 @@
+package ru.yandex.practicum.model;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+/**
+ * Тесты для {@link StringPool}
+ */
+public class StringPoolTest {
+    /**
+     * Равные строки хранятся в одном экземпляре, повторы учитываются в экономии памяти
+     */
+    @Test
+    void deduplicates() {
+        StringPool pool = new StringPool(false);
+        String first = pool.intern(new String("Описание"));
+        String second = pool.intern(new String("Описание"));
+
+        Assertions.assertSame(first, second);
+        Assertions.assertEquals(1, pool.size());
+        Assertions.assertEquals(2, pool.getRequests());
+    }
+
+    /**
+     * В компактном режиме задача хранит название и описание в UTF-8 и возвращает исходный текст
+     */
+    @Test
+    void compactTask() {
+        StringPool pool = new StringPool(true);
+        Task first = new Task("Задача", "Описание задачи");
+        Task second = new Task("Задача", "Другое описание");
+        first.internStrings(pool);
+        second.internStrings(pool);
+
+        Assertions.assertEquals("Задача", first.getName());
+        Assertions.assertEquals("Описание задачи", first.getDescription());
+        Assertions.assertEquals("Задача", second.getName());
+        Assertions.assertEquals("Другое описание", new Task(second).getDescription());
+        Assertions.assertEquals(3, pool.size());
+        Assertions.assertTrue(StringPool.estimateSavedBytes(List.of(first, second)) > 0);
+    }
+
+    /**
+     * Экономия оценивается по переданным задачам: без повторов и без пула она равна нулю
+     */
+    @Test
+    void savingsFromLiveTasks() {
+        StringPool pool = new StringPool(false);
+        Task first = new Task(new String("Задача"), "Описание 1");
+        Task second = new Task(new String("Задача"), "Описание 2");
+        Assertions.assertEquals(0, StringPool.estimateSavedBytes(List.of(first, second)));
+
+        first.internStrings(pool);
+        second.internStrings(pool);
+        long saved = StringPool.estimateSavedBytes(List.of(first, second));
+        Assertions.assertTrue(saved > 0);
+        Assertions.assertEquals(0, StringPool.estimateSavedBytes(List.of(first)));
+    }
+
+    /**
+     * Строки, на которые больше не ссылаются задачи, удаляются из пула сборщиком мусора
+     */
+    @Test
+    void releasesUnreferencedStrings() throws InterruptedException {
+        StringPool pool = new StringPool(true);
+        Task kept = new Task("Задача", "Описание");
+        kept.internStrings(pool);
+        for (int i = 0; i < 100; i++) {
+            new Task("Задача " + i, "Описание").internStrings(pool);
+        }
+        Assertions.assertEquals(102, pool.size());
+
+        for (int i = 0; i < 50 && pool.size() > 2; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        Assertions.assertEquals(2, pool.size());
+        Assertions.assertEquals("Задача", kept.getName());
+    }
+}